@@ -0,0 +1,117 @@
+package com.fges.benchmark;
+
+import com.fges.command.AddCommand;
+import com.fges.command.BatchCommand;
+import com.fges.storage.GroceryListStorage;
+import com.fges.storage.StorageFactory;
+import com.fges.util.CliParser;
+import org.apache.commons.cli.CommandLine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * batch : `operations` lignes (ajouts et suppressions alternés) sur une liste de `size` articles,
+ * en un chargement et une sauvegarde. single : un seul add, qui charge et sauvegarde la liste à lui seul ;
+ * multiplié par le nombre d'opérations, il donne le coût d'un import fait commande par commande.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class BatchBenchmark {
+
+    @Param({"json", "csv", "bin"})
+    public String format;
+
+    @Param({"100000", "1000000"})
+    public int size;
+
+    @Param({"1000", "10000", "200000"})
+    public int operations;
+
+    @Param({"100"})
+    public int categories;
+
+    private Path directory;
+    private GroceryListStorage storage;
+    private BatchCommand batchCommand;
+    private AddCommand addCommand;
+    private PrintStream originalOut;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("batch-bench");
+        String fileName = directory.resolve("groceries." + format).toString();
+        storage = StorageFactory.getStorage(format, fileName);
+        storage.save(GroceryListFixtures.items(size, categories));
+
+        // chaque paire ajoute puis retire un nouvel article : la liste garde sa taille d'une itération à l'autre
+        Path batchFile = directory.resolve("changes.txt");
+        try (BufferedWriter writer = Files.newBufferedWriter(batchFile, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < operations; i += 2) {
+                String category = "category-" + (i % categories);
+                writer.write("add new-item-" + i + " 1 " + category);
+                writer.newLine();
+                writer.write("remove new-item-" + i + " " + category);
+                writer.newLine();
+            }
+        }
+
+        CommandLine batch = parse(fileName, "batch", batchFile.toString());
+        batchCommand = new BatchCommand(storage, batch.getArgList(), batch);
+        CommandLine add = parse(fileName, "add", "item-1", "1", "-c", "category-1");
+        addCommand = new AddCommand(storage, add.getArgList(), add);
+
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        System.setOut(originalOut);
+        if (storage instanceof Closeable closeable) {
+            closeable.close();
+        }
+        GroceryListFixtures.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public int batch() throws Exception {
+        return batchCommand.execute();
+    }
+
+    @Benchmark
+    public int single() throws Exception {
+        return addCommand.execute();
+    }
+
+    private static CommandLine parse(String fileName, String... args) {
+        String[] fullArgs = new String[args.length + 2];
+        fullArgs[0] = "-s";
+        fullArgs[1] = fileName;
+        System.arraycopy(args, 0, fullArgs, 2, args.length);
+        return new CliParser().parse(fullArgs);
+    }
+}
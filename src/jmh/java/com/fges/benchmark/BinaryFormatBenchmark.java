@@ -0,0 +1,80 @@
+package com.fges.benchmark;
+
+import com.fges.model.GroceryItem;
+import com.fges.storage.GroceryItemCursor;
+import com.fges.storage.GroceryListStorage;
+import com.fges.storage.StorageFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Format binaire face au JSON sur la même liste :
+ * - load : chargement complet en GroceryItem
+ * - walk : parcours par curseur, tel que le fait list (le JSON passe par un chargement complet)
+ * Lancer avec `-prof gc` pour comparer l'allocation par opération.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class BinaryFormatBenchmark {
+
+    @Param({"json", "bin"})
+    public String format;
+
+    @Param({"100000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"100"})
+    public int categories;
+
+    private Path directory;
+    private GroceryListStorage storage;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("binary-bench");
+        storage = GroceryListFixtures.withoutLoadCache(StorageFactory.getStorage(format, directory.resolve("groceries." + format).toString()));
+        storage.save(GroceryListFixtures.items(size, categories));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        GroceryListFixtures.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public List<GroceryItem> load() throws IOException {
+        return storage.load();
+    }
+
+    @Benchmark
+    public void walk(Blackhole blackhole) throws IOException {
+        try (GroceryItemCursor cursor = storage.openCursor()) {
+            while (cursor.next()) {
+                blackhole.consume(cursor.name());
+                blackhole.consume(cursor.quantity());
+                blackhole.consume(cursor.category());
+            }
+        }
+    }
+}
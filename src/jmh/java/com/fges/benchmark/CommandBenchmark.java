@@ -0,0 +1,121 @@
+package com.fges.benchmark;
+
+import com.fges.command.AddCommand;
+import com.fges.command.ListCommand;
+import com.fges.command.RemoveCommand;
+import com.fges.storage.GroceryListStorage;
+import com.fges.storage.StorageFactory;
+import com.fges.util.CliParser;
+import org.apache.commons.cli.CommandLine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exécution des commandes add, remove et list sur une liste existante, pour chaque format.
+ * La sortie de list est envoyée dans un flux vide : seul le travail de la commande est mesuré.
+ * sorted=true sauvegarde la liste triée (json et bin) : list la recopie sans trier.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class CommandBenchmark {
+
+    @Param({"json", "csv", "journal", "bin"})
+    public String format;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"100"})
+    public int categories;
+
+    @Param({"false", "true"})
+    public boolean sorted;
+
+    private Path directory;
+    private GroceryListStorage storage;
+    private AddCommand addCommand;
+    private RemoveCommand removeCommand;
+    private ListCommand listCommand;
+    private PrintStream originalOut;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("command-bench");
+        String fileName = directory.resolve("groceries." + format).toString();
+        storage = StorageFactory.getStorage(format, fileName, true, sorted);
+        storage.save(GroceryListFixtures.items(size, categories));
+
+        CommandLine add = parse(fileName, "add", "item-1", "1", "-c", "category-1");
+        addCommand = new AddCommand(storage, add.getArgList(), add);
+        CommandLine remove = parse(fileName, "remove", "item-2", "-c", "category-2");
+        removeCommand = new RemoveCommand(storage, remove.getArgList(), remove);
+        listCommand = new ListCommand(storage);
+
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        System.setOut(originalOut);
+        if (storage instanceof Closeable closeable) {
+            closeable.close();
+        }
+        GroceryListFixtures.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public int add() throws Exception {
+        return addCommand.execute();
+    }
+
+    @Benchmark
+    public int remove(RemovedItem removedItem) throws Exception {
+        return removeCommand.execute();
+    }
+
+    @Benchmark
+    public int list() throws Exception {
+        return listCommand.execute();
+    }
+
+    /// remet l'article supprimé par `remove` avant chaque appel, hors mesure
+    @State(Scope.Benchmark)
+    public static class RemovedItem {
+        @Setup(Level.Invocation)
+        public void restore(CommandBenchmark benchmark) throws IOException {
+            benchmark.storage.upsert("item-2", "category-2", 3);
+        }
+    }
+
+    private static CommandLine parse(String fileName, String... args) {
+        String[] fullArgs = new String[args.length + 2];
+        fullArgs[0] = "-s";
+        fullArgs[1] = fileName;
+        System.arraycopy(args, 0, fullArgs, 2, args.length);
+        return new CliParser().parse(fullArgs);
+    }
+}
@@ -0,0 +1,72 @@
+package com.fges.benchmark;
+
+import com.fges.model.CompactGroceryList;
+import com.fges.model.GroceryItem;
+import com.fges.storage.GroceryListStorage;
+import com.fges.storage.StorageFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chargement d'une liste en List<GroceryItem> (load) face à la liste en colonnes (loadCompact).
+ * Le tas est volontairement réduit à 2 Go : à 10M articles, load y est à l'étroit alors que loadCompact
+ * tient largement. Lancer avec `-prof gc` pour comparer l'allocation par opération.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class CompactListBenchmark {
+
+    @Param({"json", "csv", "bin"})
+    public String format;
+
+    @Param({"100000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"100"})
+    public int categories;
+
+    private Path directory;
+    private GroceryListStorage storage;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("compact-bench");
+        storage = GroceryListFixtures.withoutLoadCache(StorageFactory.getStorage(format, directory.resolve("groceries." + format).toString()));
+        storage.save(GroceryListFixtures.items(size, categories));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        GroceryListFixtures.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public List<GroceryItem> load() throws IOException {
+        return storage.load();
+    }
+
+    @Benchmark
+    public CompactGroceryList loadCompact() throws IOException {
+        return storage.loadCompact();
+    }
+}
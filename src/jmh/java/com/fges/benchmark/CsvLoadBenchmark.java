@@ -0,0 +1,74 @@
+package com.fges.benchmark;
+
+import com.fges.model.GroceryItem;
+import com.fges.storage.CsvGroceryListStorage;
+import com.fges.storage.StreamingCsvLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare le chargeur CSV sur octets (StreamingCsvLoader) à l'ancien chemin CSVReader.
+ * `storage` inclut la validation de format, `streamingLoader` et `openCsv` mesurent le parsing seul.
+ * Lancer avec -prof gc pour comparer les allocations par ligne.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CsvLoadBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    public int size;
+
+    private Path directory;
+    private Path file;
+    private CsvGroceryListStorage storage;
+    private OpenCsvLoader openCsvLoader;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("csv-load-bench");
+        file = GroceryListFixtures.writeCsv(directory, size, 50);
+        storage = GroceryListFixtures.withoutLoadCache(new CsvGroceryListStorage(file.toString()));
+        openCsvLoader = new OpenCsvLoader();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public List<GroceryItem> storage() throws IOException {
+        return storage.load();
+    }
+
+    @Benchmark
+    public List<GroceryItem> streamingLoader() throws IOException {
+        return new StreamingCsvLoader().load(file);
+    }
+
+    @Benchmark
+    public List<GroceryItem> openCsv() throws IOException {
+        return openCsvLoader.load(file);
+    }
+}
@@ -0,0 +1,132 @@
+package com.fges.benchmark;
+
+import com.fges.model.GroceryItem;
+import com.fges.storage.GroceryListStorage;
+import com.fges.storage.LockedGroceryListStorage;
+import com.fges.storage.StorageFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Écrivains concurrents sur une même liste, chacun dans son propre processus comme des commandes add lancées
+ * en parallèle. Pour 1 à 64 processus, affiche les modifications par seconde et les modifications perdues.
+ * Chaque processus mesure sa propre boucle d'ajouts : le démarrage des JVM est exclu du débit.
+ * lock=false montre les pertes sans verrou.
+ *
+ * Paramètres (clé=valeur) :
+ *   writers=1,2,4,8,16,32,64 mutations=100 items=1000 format=json lock=true
+ *
+ * java -cp ./target/dp-2024-2025__grocery-list-1.0-SNAPSHOT.jar com.fges.benchmark.FileLockContention format=csv
+ */
+public final class FileLockContention {
+    private static final String COUNTER = "counter";
+    private static final String CATEGORY = "contention";
+
+    private FileLockContention() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("writer")) {
+            writer(args);
+            return;
+        }
+
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                System.err.println("Expected key=value, got: " + arg);
+                System.exit(1);
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+
+        int mutations = Integer.parseInt(options.getOrDefault("mutations", "100"));
+        int items = Integer.parseInt(options.getOrDefault("items", "1000"));
+        String format = options.getOrDefault("format", "json");
+        boolean lock = Boolean.parseBoolean(options.getOrDefault("lock", "true"));
+
+        System.out.printf("%d mutations per writer, %d items, %s, %s%n", mutations, items, format,
+                lock ? "locked writes" : "no lock");
+        System.out.printf("%8s %14s %8s%n", "writers", "mutations/s", "lost");
+        for (String writers : options.getOrDefault("writers", "1,2,4,8,16,32,64").split(",")) {
+            run(Integer.parseInt(writers.trim()), mutations, items, format, lock);
+        }
+    }
+
+    private static void run(int writers, int mutations, int items, String format, boolean lock) throws Exception {
+        Path directory = Files.createTempDirectory("lock-contention");
+        try {
+            Path file = directory.resolve("groceries." + format);
+            List<GroceryItem> groceryList = GroceryListFixtures.items(items, 100);
+            groceryList.add(new GroceryItem(COUNTER, 0, CATEGORY));
+            GroceryListStorage storage = StorageFactory.getStorage(format, file.toString(), false);
+            storage.save(groceryList);
+
+            String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+            List<Process> processes = new ArrayList<>(writers);
+            for (int w = 0; w < writers; w++) {
+                processes.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                        FileLockContention.class.getName(), "writer", file.toString(), format,
+                        Integer.toString(mutations), Boolean.toString(lock))
+                        .redirectError(ProcessBuilder.Redirect.INHERIT)
+                        .start());
+            }
+
+            // débit sur l'intervalle où des écrivains tournaient : du premier début à la dernière fin
+            long firstStart = Long.MAX_VALUE;
+            long lastEnd = Long.MIN_VALUE;
+            for (Process process : processes) {
+                try (BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                    String[] times = reader.readLine().split(" ");
+                    firstStart = Math.min(firstStart, Long.parseLong(times[0]));
+                    lastEnd = Math.max(lastEnd, Long.parseLong(times[1]));
+                }
+                if (process.waitFor() != 0) {
+                    throw new IllegalStateException("Writer failed with exit code " + process.exitValue());
+                }
+            }
+
+            int expected = writers * mutations;
+            int counted = storage.load().stream()
+                    .filter(item -> item.getName().equals(COUNTER))
+                    .mapToInt(GroceryItem::getQuantity)
+                    .sum();
+            double seconds = Math.max(1, lastEnd - firstStart) / 1e3;
+            System.out.printf("%8d %14.0f %8d%n", writers, expected / seconds, expected - counted);
+        } finally {
+            GroceryListFixtures.deleteRecursively(directory);
+            Files.deleteIfExists(directory.resolveSibling(directory.getFileName() + ".lock"));
+        }
+    }
+
+    /// processus écrivain : ajoute 1 au compteur `mutations` fois puis affiche ses heures de début et de fin
+    private static void writer(String[] args) throws IOException {
+        Path file = Path.of(args[1]);
+        String format = args[2];
+        int mutations = Integer.parseInt(args[3]);
+        boolean lock = Boolean.parseBoolean(args[4]);
+
+        GroceryListStorage storage = StorageFactory.getStorage(format, file.toString(), false);
+        if (lock) {
+            storage = new LockedGroceryListStorage(file, storage);
+        }
+
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < mutations; i++) {
+            storage.upsert(COUNTER, CATEGORY, 1);
+        }
+        long end = System.currentTimeMillis();
+        System.out.println(start + " " + end);
+    }
+}
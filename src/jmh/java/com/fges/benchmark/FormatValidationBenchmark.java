@@ -0,0 +1,101 @@
+package com.fges.benchmark;
+
+import com.fges.util.FormatValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût de la validation de format selon la taille du fichier.
+ * `windowed` (FormatValidator) doit rester constant de 1 Ko à 1 Go, y compris pour le JSON écrit sur une seule ligne ;
+ * `readString` (l'ancien validateur) croît avec le fichier et a besoin d'un gros tas à 1 Go.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class FormatValidationBenchmark {
+
+    @Param({"json", "csv"})
+    public String format;
+
+    @Param({"1024", "1048576", "67108864", "1073741824"})
+    public long bytes;
+
+    private Path directory;
+    private Path file;
+    private FormatValidator validator;
+    private ReadStringFormatValidator readStringValidator;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("format-validation-bench");
+        file = writeFile(directory, format, bytes);
+        validator = new FormatValidator();
+        readStringValidator = new ReadStringFormatValidator();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public void windowed() throws IOException {
+        validator.validateFileFormat(file, format);
+    }
+
+    @Benchmark
+    public void readString() throws IOException {
+        readStringValidator.validateFileFormat(file, format);
+    }
+
+    /// écrit un fichier valide d'environ `bytes` octets dans le format demandé
+    private static Path writeFile(Path directory, String format, long bytes) throws IOException {
+        Path file = Files.createTempFile(directory, "groceries-", "." + format);
+
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            long written;
+            if (format.equals("csv")) {
+                String header = "name,quantity,category\n";
+                writer.write(header);
+                written = header.length();
+            } else {
+                writer.write("{\"default\":{");
+                written = 12;
+            }
+
+            for (int i = 0; written < bytes; i++) {
+                String row = format.equals("csv")
+                        ? "item-" + i + "," + (1 + (i % 97)) + ",category-" + (i % 50) + "\n"
+                        : (i == 0 ? "" : ",") + "\"item-" + i + "\":" + (1 + (i % 97));
+                writer.write(row);
+                written += row.length();
+            }
+
+            if (format.equals("json")) {
+                writer.write("}}");
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,128 @@
+package com.fges.benchmark;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fges.model.GroceryItem;
+import com.fges.storage.CsvGroceryListStorage;
+import com.fges.storage.GroceryListStorage;
+import com.fges.storage.JsonGroceryListStorage;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Génère des listes de courses de taille arbitraire pour les benchmarks
+ */
+public final class GroceryListFixtures {
+
+    /// les quatre formes JSON acceptées par JsonGroceryListStorage
+    public enum JsonShape {
+        CATEGORIZED,
+        LEGACY_MAP,
+        ITEM_ARRAY,
+        STRING_ARRAY
+    }
+
+    private GroceryListFixtures() {
+    }
+
+    /// crée une liste de `size` articles répartis sur `categories` catégories
+    public static List<GroceryItem> items(int size, int categories) {
+        List<GroceryItem> groceryList = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            groceryList.add(new GroceryItem("item-" + i, 1 + (i % 97), "category-" + (i % categories)));
+        }
+        return groceryList;
+    }
+
+    /// écrit un fichier JSON de `size` articles dans la forme demandée
+    public static Path writeJson(Path directory, JsonShape shape, int size, int categories) throws IOException {
+        Path file = Files.createTempFile(directory, "groceries-" + shape.name().toLowerCase() + "-", ".json");
+        JsonFactory jsonFactory = new JsonFactory();
+
+        try (JsonGenerator generator = jsonFactory.createGenerator(file.toFile(), JsonEncoding.UTF8)) {
+            switch (shape) {
+                case CATEGORIZED -> {
+                    generator.writeStartObject();
+                    for (int c = 0; c < categories; c++) {
+                        generator.writeObjectFieldStart("category-" + c);
+                        for (int i = c; i < size; i += categories) {
+                            generator.writeNumberField("item-" + i, 1 + (i % 97));
+                        }
+                        generator.writeEndObject();
+                    }
+                    generator.writeEndObject();
+                }
+                case LEGACY_MAP -> {
+                    generator.writeStartObject();
+                    for (int i = 0; i < size; i++) {
+                        generator.writeNumberField("item-" + i, 1 + (i % 97));
+                    }
+                    generator.writeEndObject();
+                }
+                case ITEM_ARRAY -> {
+                    generator.writeStartArray();
+                    for (int i = 0; i < size; i++) {
+                        generator.writeStartObject();
+                        generator.writeStringField("name", "item-" + i);
+                        generator.writeNumberField("quantity", 1 + (i % 97));
+                        generator.writeStringField("category", "category-" + (i % categories));
+                        generator.writeEndObject();
+                    }
+                    generator.writeEndArray();
+                }
+                case STRING_ARRAY -> {
+                    generator.writeStartArray();
+                    for (int i = 0; i < size; i++) {
+                        generator.writeString("item-" + i + ": " + (1 + (i % 97)));
+                    }
+                    generator.writeEndArray();
+                }
+            }
+        }
+        return file;
+    }
+
+    /// écrit un fichier CSV name,quantity,category de `size` lignes, comme CsvGroceryListStorage
+    public static Path writeCsv(Path directory, int size, int categories) throws IOException {
+        Path file = Files.createTempFile(directory, "groceries-", ".csv");
+
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("\"name\",\"quantity\",\"category\"\n");
+            for (int i = 0; i < size; i++) {
+                writer.write("\"item-" + i + "\",\"" + (1 + (i % 97)) + "\",\"category-" + (i % categories) + "\"\n");
+            }
+        }
+        return file;
+    }
+
+    /// relit le fichier à chaque chargement json ou csv, pour mesurer la lecture et non le cache (FileLoadCache)
+    public static <T extends GroceryListStorage> T withoutLoadCache(T storage) {
+        if (storage instanceof JsonGroceryListStorage json) {
+            json.loadCache().disable();
+        } else if (storage instanceof CsvGroceryListStorage csv) {
+            csv.loadCache().disable();
+        }
+        return storage;
+    }
+
+    /// supprime un répertoire de benchmark et tout ce que les stockages y ont créé (segments, snapshots...)
+    public static void deleteRecursively(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.fges.benchmark;
+
+import com.fges.storage.JsonGroceryListStorage;
+import com.fges.web.GroceryShopAdapter;
+import fr.anthonyquere.MyGroceryShop;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Débit des appels web (GroceryShopAdapter) avec écriture groupée (`writeBehind`)
+ * ou immédiate (`writeThrough`).
+ * Lancer avec `-t 1`, `-t 4`, `-t 8`... pour vérifier que les lectures passent à l'échelle avec le nombre de cœurs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class GroceryShopAdapterBenchmark {
+
+    @Param({"writeBehind", "writeThrough"})
+    public String mode;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private Path directory;
+    private Path file;
+    private GroceryShopAdapter groceryShop;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("web-adapter-bench");
+        file = directory.resolve("groceries.json");
+        JsonGroceryListStorage storage = new JsonGroceryListStorage(file.toString());
+        storage.save(GroceryListFixtures.items(size, 20));
+
+        groceryShop = mode.equals("writeBehind")
+                ? new GroceryShopAdapter(storage, Duration.ofSeconds(1), 100)
+                : new GroceryShopAdapter(storage);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        groceryShop.close();
+        GroceryListFixtures.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public List<MyGroceryShop.WebGroceryItem> getGroceries() {
+        return groceryShop.getGroceries();
+    }
+
+    @Benchmark
+    public void addGroceryItem() {
+        groceryShop.addGroceryItem("item-1", 1, "category-1");
+    }
+
+    /// supprime puis remet un article, pour que chaque appel supprime réellement quelque chose
+    @Benchmark
+    public void removeAndAddGroceryItem() {
+        groceryShop.removeGroceryItem("item-2");
+        groceryShop.addGroceryItem("item-2", 3, "category-2");
+    }
+}
@@ -0,0 +1,85 @@
+package com.fges.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fges.benchmark.GroceryListFixtures.JsonShape;
+import com.fges.model.GroceryItem;
+import com.fges.storage.JsonGroceryListStorage;
+import com.fges.storage.StreamingJsonLoader;
+import com.fges.util.JsonCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare la configuration JSON partagée (JsonCodec) aux valeurs par défaut de Jackson :
+ * chargement avec et sans internement des noms de champs, et construction d'un stockage
+ * avec un ObjectMapper neuf, comme le faisait chaque JsonGroceryListStorage
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonCodecBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int size;
+
+    private Path directory;
+    private Path file;
+    private StreamingJsonLoader defaultLoader;
+    private StreamingJsonLoader sharedLoader;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("json-codec-bench");
+        file = GroceryListFixtures.writeJson(directory, JsonShape.CATEGORIZED, size, 50);
+        defaultLoader = new StreamingJsonLoader(new JsonFactory());
+        sharedLoader = new StreamingJsonLoader(JsonCodec.factory());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public List<GroceryItem> loadDefaultFactory() throws IOException {
+        return defaultLoader.load(file);
+    }
+
+    @Benchmark
+    public List<GroceryItem> loadSharedFactory() throws IOException {
+        return sharedLoader.load(file);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public ObjectMapper newMapper() {
+        return new ObjectMapper();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public JsonGroceryListStorage newStorage() {
+        return new JsonGroceryListStorage(file.toString());
+    }
+}
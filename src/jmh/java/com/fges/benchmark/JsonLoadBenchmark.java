@@ -0,0 +1,71 @@
+package com.fges.benchmark;
+
+import com.fges.benchmark.GroceryListFixtures.JsonShape;
+import com.fges.model.GroceryItem;
+import com.fges.storage.JsonGroceryListStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare le chargement JSON en une passe (JsonGroceryListStorage) à l'ancien chemin
+ * readTree + replis TypeReference, pour chacune des quatre formes supportées
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonLoadBenchmark {
+
+    @Param({"CATEGORIZED", "LEGACY_MAP", "ITEM_ARRAY", "STRING_ARRAY"})
+    public JsonShape shape;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private Path directory;
+    private Path file;
+    private JsonGroceryListStorage storage;
+    private TreeJsonLoader treeLoader;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("json-load-bench");
+        file = GroceryListFixtures.writeJson(directory, shape, size, 50);
+        storage = GroceryListFixtures.withoutLoadCache(new JsonGroceryListStorage(file.toString()));
+        treeLoader = new TreeJsonLoader();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public List<GroceryItem> streaming() throws IOException {
+        return storage.load();
+    }
+
+    @Benchmark
+    public List<GroceryItem> treeWithFallbacks() throws IOException {
+        return treeLoader.load(file);
+    }
+}
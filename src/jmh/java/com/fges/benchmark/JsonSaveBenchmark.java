@@ -0,0 +1,86 @@
+package com.fges.benchmark;
+
+import com.fges.model.GroceryItem;
+import com.fges.storage.JsonGroceryListStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare la sauvegarde JSON écrite en flux (JsonGroceryListStorage) à l'ancienne copie en cartes imbriquées.
+ * `grouped` : liste déjà groupée par catégorie, comme après un chargement ; sinon catégories entrelacées.
+ * À lancer avec `-prof gc` : gc.alloc.rate.norm donne les octets alloués par sauvegarde.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class JsonSaveBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int size;
+
+    @Param({"true", "false"})
+    public boolean grouped;
+
+    @Param({"false", "true"})
+    public boolean sorted;
+
+    private Path directory;
+    private Path file;
+    private Path mapFile;
+    private List<GroceryItem> items;
+    private JsonGroceryListStorage storage;
+    private MapJsonSaver mapSaver;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("json-save-bench");
+        file = directory.resolve("groceries.json");
+        mapFile = directory.resolve("groceries-map.json");
+        items = GroceryListFixtures.items(size, 100);
+        if (grouped) {
+            items.sort(Comparator.comparing(GroceryItem::getCategory));
+        }
+        storage = GroceryListFixtures.withoutLoadCache(new JsonGroceryListStorage(file.toString(), false, sorted));
+        mapSaver = new MapJsonSaver();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        GroceryListFixtures.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public void streaming() throws IOException {
+        storage.save(items);
+    }
+
+    @Benchmark
+    public void nestedMaps() throws IOException {
+        // même écriture disque que streaming (sans fsync), seule la construction du document diffère
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(mapFile))) {
+            mapSaver.save(items, sorted, out);
+        }
+    }
+}
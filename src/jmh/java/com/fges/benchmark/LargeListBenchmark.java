@@ -0,0 +1,80 @@
+package com.fges.benchmark;
+
+import com.fges.command.ListCommand;
+import com.fges.storage.StorageFactory;
+import com.fges.util.CliParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * list sur un très gros fichier avec un tas de 512 Mo : la commande doit passer par le tri externe
+ * plutôt que d'échouer en OutOfMemoryError. Les fichiers sont générés au fil de l'eau, sans liste en mémoire.
+ * Le fichier de 50 millions d'articles occupe environ 1,5 Go sur disque.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx512m")
+public class LargeListBenchmark {
+
+    @Param({"json", "csv"})
+    public String format;
+
+    @Param({"5000000", "50000000"})
+    public int size;
+
+    @Param({"100"})
+    public int categories;
+
+    @Param({"64"})
+    public int sortMemory;
+
+    private Path directory;
+    private ListCommand listCommand;
+    private PrintStream originalOut;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("large-list-bench");
+        Path file = format.equals("json")
+                ? GroceryListFixtures.writeJson(directory, GroceryListFixtures.JsonShape.CATEGORIZED, size, categories)
+                : GroceryListFixtures.writeCsv(directory, size, categories);
+
+        String fileName = file.toString();
+        listCommand = new ListCommand(StorageFactory.getStorage(format, fileName),
+                new CliParser().parse(new String[]{"-s", fileName, "-f", format, "--sort-memory", Integer.toString(sortMemory), "list"}));
+
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        System.setOut(originalOut);
+        GroceryListFixtures.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public int list() throws Exception {
+        return listCommand.execute();
+    }
+}
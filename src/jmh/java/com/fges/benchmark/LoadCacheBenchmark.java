@@ -0,0 +1,97 @@
+package com.fges.benchmark;
+
+import com.fges.model.GroceryItem;
+import com.fges.storage.GroceryItemCursor;
+import com.fges.storage.GroceryListStorage;
+import com.fges.storage.StorageFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chargements répétés d'un fichier inchangé, avec et sans FileLoadCache.
+ * À 5M articles, le fichier JSON fait environ 100 Mo.
+ * Un chargement servi par le cache ne fait que copier les articles gardés ;
+ * un parcours par curseur ne copie rien.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class LoadCacheBenchmark {
+
+    @Param({"json", "csv"})
+    public String format;
+
+    @Param({"100000", "1000000", "5000000"})
+    public int size;
+
+    private Path directory;
+    private GroceryListStorage cached;
+    private GroceryListStorage uncached;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("load-cache-bench");
+        String fileName = directory.resolve("groceries." + format).toString();
+        cached = StorageFactory.getStorage(format, fileName);
+        cached.save(GroceryListFixtures.items(size, 100));
+        uncached = GroceryListFixtures.withoutLoadCache(StorageFactory.getStorage(format, fileName));
+
+        // le cache garde la liste au deuxième chargement du fichier inchangé
+        cached.load();
+        cached.load();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        GroceryListFixtures.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public List<GroceryItem> loadCached() throws IOException {
+        return cached.load();
+    }
+
+    @Benchmark
+    public List<GroceryItem> loadUncached() throws IOException {
+        return uncached.load();
+    }
+
+    @Benchmark
+    public long cursorCached() throws IOException {
+        return sumQuantities(cached);
+    }
+
+    @Benchmark
+    public long cursorUncached() throws IOException {
+        return sumQuantities(uncached);
+    }
+
+    private static long sumQuantities(GroceryListStorage storage) throws IOException {
+        long total = 0;
+        try (GroceryItemCursor cursor = storage.openCursor()) {
+            while (cursor.next()) {
+                total += cursor.quantity();
+            }
+        }
+        return total;
+    }
+}
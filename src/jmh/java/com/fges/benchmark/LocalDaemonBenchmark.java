@@ -0,0 +1,104 @@
+package com.fges.benchmark;
+
+import com.fges.Main;
+import com.fges.daemon.LocalDaemonClient;
+import com.fges.daemon.LocalDaemonServer;
+import com.fges.model.GroceryItem;
+import com.fges.storage.CachedGroceryListStorage;
+import com.fges.storage.JsonGroceryListStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latence d'une commande `add` déléguée au serveur local (`daemon`) comparée à
+ * Main.exec dans le même processus (`inProcess`), qui relit et réécrit le fichier.
+ * Le démarrage de la JVM du client n'est pas compté : il s'ajoute au chemin `inProcess`
+ * pour chaque appel en ligne de commande, et au client `java -jar` du serveur local.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LocalDaemonBenchmark {
+
+    @Param({"100", "10000"})
+    public int size;
+
+    private Path directory;
+    private Path daemonFile;
+    private Path inProcessFile;
+    private LocalDaemonServer server;
+    private Thread serverThread;
+    private PrintStream originalOut;
+
+    @Setup
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("daemon-bench");
+        List<GroceryItem> items = GroceryListFixtures.items(size, 20);
+
+        // chemin relatif : la longueur des chemins de socket Unix est limitée
+        daemonFile = Path.of("daemon-bench-" + ProcessHandle.current().pid() + ".json");
+        new JsonGroceryListStorage(daemonFile.toString()).save(items);
+        inProcessFile = directory.resolve("in-process.json");
+        new JsonGroceryListStorage(inProcessFile.toString()).save(items);
+
+        CachedGroceryListStorage storage = new CachedGroceryListStorage(new JsonGroceryListStorage(daemonFile.toString()));
+        storage.loadGroceryList();
+        server = new LocalDaemonServer(LocalDaemonClient.socketPathFor(daemonFile.toString()), storage, "json");
+        server.bind();
+        serverThread = new Thread(() -> {
+            try {
+                server.serve();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        serverThread.setDaemon(true);
+        serverThread.start();
+
+        // la sortie des commandes n'est pas mesurée
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        System.setOut(originalOut);
+        server.close();
+        serverThread.join(5000);
+        Files.deleteIfExists(daemonFile);
+        Files.deleteIfExists(inProcessFile);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public Integer daemon() {
+        return LocalDaemonClient.forward(LocalDaemonClient.socketPathFor(daemonFile.toString()),
+                new String[]{"-s", daemonFile.toString(), "add", "item-1", "1"});
+    }
+
+    @Benchmark
+    public int inProcess() throws IOException {
+        return Main.exec(new String[]{"-s", inProcessFile.toString(), "add", "item-1", "1"});
+    }
+}
@@ -0,0 +1,42 @@
+package com.fges.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fges.model.GroceryItem;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Copie de l'ancienne sauvegarde JsonGroceryListStorage (copie de la liste en cartes imbriquées
+ * puis ObjectMapper.writeValue), conservée uniquement comme référence pour les benchmarks
+ */
+public class MapJsonSaver {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public void save(List<GroceryItem> groceryList, boolean writeSorted, OutputStream out) throws IOException {
+        Map<String, Map<String, Integer>> categorizedItems = writeSorted ? new TreeMap<>() : new HashMap<>();
+
+        for (GroceryItem item : groceryList) {
+            String category = item.getCategory();
+            if (category == null) {
+                category = "default";
+            }
+
+            categorizedItems.putIfAbsent(category, writeSorted ? new TreeMap<>() : new HashMap<>());
+            categorizedItems.get(category).put(item.getName(), item.getQuantity());
+        }
+
+        Map<String, Object> document = new LinkedHashMap<>();
+        if (writeSorted) {
+            document.put("@sorted", true);
+        }
+        document.putAll(categorizedItems);
+
+        objectMapper.writeValue(out, document);
+    }
+}
@@ -0,0 +1,80 @@
+package com.fges.benchmark;
+
+import com.fges.command.MergeCommand;
+import com.fges.model.GroceryItem;
+import com.fges.storage.CsvGroceryListStorage;
+import com.fges.storage.GroceryListStorage;
+import com.fges.storage.JsonGroceryListStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fusion (`merge`) de 10 à 500 listes, une sur deux en CSV, de `items` articles chacune.
+ * Les listes partagent la moitié de leurs articles : la table concurrente reçoit des articles communs et des nouveaux.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MergeBenchmark {
+
+    @Param({"10", "100", "500"})
+    public int sources;
+
+    @Param({"1000"})
+    public int items;
+
+    private Path directory;
+    private MergeCommand command;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("merge-bench");
+        List<String> files = new ArrayList<>(sources);
+        for (int s = 0; s < sources; s++) {
+            Path file = directory.resolve("list-" + s + (s % 2 == 0 ? ".json" : ".csv"));
+            GroceryListStorage storage = s % 2 == 0
+                    ? new JsonGroceryListStorage(file.toString(), false)
+                    : new CsvGroceryListStorage(file.toString(), false);
+            List<GroceryItem> groceryList = GroceryListFixtures.items(items / 2, 20);
+            for (int i = 0; i < items / 2; i++) {
+                groceryList.add(new GroceryItem("list-" + s + "-item-" + i, 1, "category-" + (i % 20)));
+            }
+            storage.save(groceryList);
+            files.add(file.toString());
+        }
+
+        Path target = directory.resolve("merged.json");
+        command = new MergeCommand(new JsonGroceryListStorage(target.toString(), false),
+                List.of("merge", target.toString()), files);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        GroceryListFixtures.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public int merge() throws Exception {
+        return command.execute();
+    }
+}
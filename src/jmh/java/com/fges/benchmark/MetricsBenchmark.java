@@ -0,0 +1,80 @@
+package com.fges.benchmark;
+
+import com.fges.metrics.LatencyHistogram;
+import com.fges.model.GroceryItem;
+import com.fges.storage.GroceryListStorage;
+import com.fges.storage.InstrumentedGroceryListStorage;
+import com.fges.storage.StorageFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût de la mesure : un enregistrement seul (un thread, puis 4 threads sur le même histogramme)
+ * et un chargement JSON de 10 000 articles avec et sans InstrumentedGroceryListStorage.
+ * Lancer avec `-prof gc` : record doit rester à 0 B/op.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+
+    private final LatencyHistogram histogram = new LatencyHistogram("benchmark");
+    private long value;
+
+    private Path directory;
+    private GroceryListStorage storage;
+    private GroceryListStorage instrumentedStorage;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("metrics-bench");
+        storage = GroceryListFixtures.withoutLoadCache(StorageFactory.getStorage("json", directory.resolve("groceries.json").toString()));
+        storage.save(GroceryListFixtures.items(10_000, 100));
+        instrumentedStorage = new InstrumentedGroceryListStorage("json", storage);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        GroceryListFixtures.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public void record() {
+        histogram.record(value++ & 0xFFFFF);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void recordContended() {
+        histogram.record(System.nanoTime() & 0xFFFFF);
+    }
+
+    @Benchmark
+    public List<GroceryItem> load() throws IOException {
+        return storage.load();
+    }
+
+    @Benchmark
+    public List<GroceryItem> loadInstrumented() throws IOException {
+        return instrumentedStorage.load();
+    }
+}
@@ -0,0 +1,72 @@
+package com.fges.benchmark;
+
+import com.fges.model.GroceryItem;
+import com.fges.util.FormatValidator;
+import com.opencsv.CSVReader;
+import com.opencsv.exceptions.CsvValidationException;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Copie de l'ancien chargement CsvGroceryListStorage (CSVReader ligne par ligne),
+ * conservée uniquement comme référence pour les benchmarks
+ */
+public class OpenCsvLoader {
+    private final FormatValidator formatValidator = new FormatValidator();
+
+    public List<GroceryItem> load(Path filePath) throws IOException {
+        List<GroceryItem> groceryList = new ArrayList<>();
+
+        if (!Files.exists(filePath)) {
+            return groceryList;
+        }
+
+        if (Files.size(filePath) > 0) {
+            formatValidator.validateFileFormat(filePath, "csv");
+        }
+
+        try (CSVReader reader = new CSVReader(new FileReader(filePath.toFile()))) {
+            String[] header = reader.readNext();
+
+            boolean hasCategory = false;
+            if (header != null && header.length >= 3 &&
+                    header[0].equalsIgnoreCase("name") &&
+                    header[1].equalsIgnoreCase("quantity") &&
+                    header[2].equalsIgnoreCase("category")) {
+                hasCategory = true;
+            } else if (header == null || header.length < 2 ||
+                    !header[0].equalsIgnoreCase("name") ||
+                    !header[1].equalsIgnoreCase("quantity")) {
+                return groceryList;
+            }
+
+            String[] line;
+            while ((line = reader.readNext()) != null) {
+                if (line.length >= 2) {
+                    try {
+                        String name = line[0];
+                        int quantity = Integer.parseInt(line[1]);
+
+                        String category = "default";
+                        if (hasCategory && line.length >= 3 && line[2] != null && !line[2].isEmpty()) {
+                            category = line[2];
+                        }
+
+                        groceryList.add(new GroceryItem(name, quantity, category));
+                    } catch (NumberFormatException e) {
+                        // ligne ignorée, comme dans l'ancienne implémentation
+                    }
+                }
+            }
+        } catch (CsvValidationException e) {
+            throw new IOException("Error reading CSV file: " + e.getMessage(), e);
+        }
+
+        return groceryList;
+    }
+}
@@ -0,0 +1,80 @@
+package com.fges.benchmark;
+
+import com.fges.model.GroceryItem;
+import com.fges.storage.ParallelJsonLoader;
+import com.fges.storage.StreamingJsonLoader;
+import com.fges.util.JsonCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chargement parallèle du JSON catégorisé selon le nombre de threads, face au chargement séquentiel.
+ * 80 millions d'articles font un fichier d'environ 2 Go ; `-p size=1000000` pour un passage rapide.
+ * Le passage à l'échelle se lit en comparant les scores de `parallel` d'un `parallelism` à l'autre.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx24g")
+public class ParallelJsonLoadBenchmark {
+
+    @Param({"1000000", "10000000", "80000000"})
+    public int size;
+
+    @Param({"10", "1000"})
+    public int categories;
+
+    @Param({"1", "2", "4", "8", "16"})
+    public int parallelism;
+
+    private Path directory;
+    private Path file;
+    private ForkJoinPool pool;
+    private ParallelJsonLoader parallelLoader;
+    private StreamingJsonLoader sequentialLoader;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("parallel-json-bench");
+        file = GroceryListFixtures.writeJson(directory, GroceryListFixtures.JsonShape.CATEGORIZED, size, categories);
+        pool = new ForkJoinPool(parallelism);
+        parallelLoader = new ParallelJsonLoader(JsonCodec.factory(), pool, 1 << 20);
+        sequentialLoader = new StreamingJsonLoader();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        pool.shutdown();
+        GroceryListFixtures.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public List<GroceryItem> parallel() throws IOException {
+        return parallelLoader.load(file);
+    }
+
+    /// référence, indépendante de `parallelism`
+    @Benchmark
+    public List<GroceryItem> sequential() throws IOException {
+        return sequentialLoader.load(file);
+    }
+}
@@ -0,0 +1,75 @@
+package com.fges.benchmark;
+
+import com.fges.model.GroceryItem;
+import com.fges.storage.GroceryListStorage;
+import com.fges.storage.StorageFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût d'une sauvegarde atomique (fichier temporaire puis renommage) avec et sans fsync,
+ * pour une liste complète (`save`) et pour une modification d'un article (`upsert`)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SaveBenchmark {
+
+    @Param({"json", "csv", "bin"})
+    public String format;
+
+    @Param({"true", "false"})
+    public boolean fsync;
+
+    @Param({"100", "10000"})
+    public int size;
+
+    private Path directory;
+    private Path file;
+    private GroceryListStorage storage;
+    private List<GroceryItem> items;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("save-bench");
+        file = directory.resolve("groceries." + format);
+        storage = StorageFactory.getStorage(format, file.toString(), fsync);
+        items = GroceryListFixtures.items(size, 20);
+        storage.save(items);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public void save() throws IOException {
+        storage.save(items);
+    }
+
+    @Benchmark
+    public void upsert() throws IOException {
+        storage.upsert("item-1", "category-1", 1);
+    }
+}
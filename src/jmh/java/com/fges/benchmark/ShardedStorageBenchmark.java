@@ -0,0 +1,112 @@
+package com.fges.benchmark;
+
+import com.fges.command.AddCommand;
+import com.fges.command.ListCommand;
+import com.fges.storage.GroceryListStorage;
+import com.fges.storage.StorageFactory;
+import com.fges.util.CliParser;
+import org.apache.commons.cli.CommandLine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Un seul fichier face à un fichier par catégorie (--sharded), sur la même liste :
+ * - add : ajout dans une catégorie
+ * - list : liste entière (lecture des catégories en parallèle)
+ * - listCategory : list -c sur une seule catégorie
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class ShardedStorageBenchmark {
+
+    @Param({"json", "csv", "bin"})
+    public String format;
+
+    @Param({"false", "true"})
+    public boolean sharded;
+
+    @Param({"100000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"100"})
+    public int categories;
+
+    private Path directory;
+    private GroceryListStorage storage;
+    private AddCommand addCommand;
+    private ListCommand listCommand;
+    private ListCommand listCategoryCommand;
+    private PrintStream originalOut;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("sharded-bench");
+        String fileName = directory.resolve(sharded ? "groceries" : "groceries." + format).toString();
+        storage = sharded
+                ? StorageFactory.getShardedStorage(format, fileName, true, false)
+                : StorageFactory.getStorage(format, fileName, true, false);
+        storage.save(GroceryListFixtures.items(size, categories));
+
+        CommandLine add = parse(fileName, "add", "item-1", "1", "-c", "category-1");
+        addCommand = new AddCommand(storage, add.getArgList(), add);
+        listCommand = new ListCommand(storage, parse(fileName, "list"));
+        listCategoryCommand = new ListCommand(storage, parse(fileName, "list", "-c", "category-1"));
+
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        System.setOut(originalOut);
+        if (storage instanceof Closeable closeable) {
+            closeable.close();
+        }
+        GroceryListFixtures.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public int add() throws Exception {
+        return addCommand.execute();
+    }
+
+    @Benchmark
+    public int list() throws Exception {
+        return listCommand.execute();
+    }
+
+    @Benchmark
+    public int listCategory() throws Exception {
+        return listCategoryCommand.execute();
+    }
+
+    private static CommandLine parse(String fileName, String... args) {
+        String[] fullArgs = new String[args.length + 2];
+        fullArgs[0] = "-s";
+        fullArgs[1] = fileName;
+        System.arraycopy(args, 0, fullArgs, 2, args.length);
+        return new CliParser().parse(fullArgs);
+    }
+}
@@ -0,0 +1,79 @@
+package com.fges.benchmark;
+
+import com.fges.model.GroceryItem;
+import com.fges.storage.GroceryListStorage;
+import com.fges.storage.StorageFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chargement et sauvegarde complets pour chaque format de stockage,
+ * de 1 000 à 10 millions d'articles, sur peu ou beaucoup de catégories.
+ * Les grandes tailles sont longues : restreindre avec `-p size=1000,100000` pour un passage rapide.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class StorageBenchmark {
+
+    @Param({"json", "csv", "journal", "bin"})
+    public String format;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"10", "1000"})
+    public int categories;
+
+    private Path directory;
+    private Path file;
+    private GroceryListStorage storage;
+    private List<GroceryItem> items;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("storage-bench");
+        file = directory.resolve("groceries." + format);
+        storage = GroceryListFixtures.withoutLoadCache(StorageFactory.getStorage(format, file.toString()));
+        items = GroceryListFixtures.items(size, categories);
+        storage.save(items);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (storage instanceof Closeable closeable) {
+            closeable.close();
+        }
+        GroceryListFixtures.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public List<GroceryItem> load() throws IOException {
+        return storage.load();
+    }
+
+    @Benchmark
+    public void save() throws IOException {
+        storage.save(items);
+    }
+}
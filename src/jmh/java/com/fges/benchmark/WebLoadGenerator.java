@@ -0,0 +1,244 @@
+package com.fges.benchmark;
+
+import com.fges.model.GroceryItem;
+import com.fges.storage.GroceryListStorage;
+import com.fges.storage.StorageFactory;
+import com.fges.web.GroceryShopAdapter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Générateur de charge pour le mode web : des milliers de clients simultanés, chacun sur un thread virtuel,
+ * envoient des lectures et des ajouts à un serveur local et le programme affiche p50, p99 et max.
+ * Le serveur est un HttpServer du JDK qui appelle GroceryShopAdapter comme le ferait GroceryShopServer :
+ * on mesure ainsi l'adaptateur et son stockage, pas la bibliothèque web.
+ * Un disque lent est simulé par un délai sur chaque sauvegarde.
+ * Chaque client tient un socket de chaque côté : pour 10 000 clients, relever la limite (ulimit -n 65536).
+ *
+ * Paramètres (clé=valeur) :
+ *   clients=10000 requests=20 writes=0.1 items=10000 disk-latency-ms=20
+ *   flush-threshold=100 server-threads=16 virtual-threads=false
+ *
+ * java -cp ./target/dp-2024-2025__grocery-list-1.0-SNAPSHOT.jar com.fges.benchmark.WebLoadGenerator virtual-threads=true
+ */
+public final class WebLoadGenerator {
+
+    private WebLoadGenerator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                System.err.println("Expected key=value, got: " + arg);
+                System.exit(1);
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+
+        int clients = Integer.parseInt(options.getOrDefault("clients", "10000"));
+        int requests = Integer.parseInt(options.getOrDefault("requests", "20"));
+        double writes = Double.parseDouble(options.getOrDefault("writes", "0.1"));
+        int items = Integer.parseInt(options.getOrDefault("items", "10000"));
+        long diskLatencyMillis = Long.parseLong(options.getOrDefault("disk-latency-ms", "20"));
+        int flushThreshold = Integer.parseInt(options.getOrDefault("flush-threshold", "100"));
+        int serverThreads = Integer.parseInt(options.getOrDefault("server-threads", "16"));
+        boolean virtualThreads = Boolean.parseBoolean(options.getOrDefault("virtual-threads", "false"));
+
+        Path directory = Files.createTempDirectory("web-load");
+        GroceryListStorage fileStorage = StorageFactory.getStorage("json", directory.resolve("groceries.json").toString(), false);
+        fileStorage.save(GroceryListFixtures.items(items, 100));
+
+        GroceryShopAdapter groceryShop = new GroceryShopAdapter(new SlowDiskStorage(fileStorage, diskLatencyMillis),
+                Duration.ofSeconds(1), flushThreshold, virtualThreads);
+        // premier chargement hors mesure
+        groceryShop.getGroceries();
+
+        // mêmes threads serveur dans les deux modes : seule l'option de l'adaptateur change d'une mesure à l'autre
+        ExecutorService serverExecutor = Executors.newFixedThreadPool(serverThreads);
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), clients);
+        server.createContext("/groceries", exchange -> handle(groceryShop, exchange));
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        int port = server.getAddress().getPort();
+        System.out.printf("%d clients x %d requests, %.0f%% writes, %d items, disk latency %d ms, %d server threads, %s%n",
+                clients, requests, writes * 100, items, diskLatencyMillis, serverThreads,
+                virtualThreads ? "flushes on virtual threads" : "flushes on request threads");
+
+        try (ExecutorService clientExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient client = HttpClient.newBuilder().executor(clientExecutor).build();
+            URI readUri = URI.create("http://127.0.0.1:" + port + "/groceries");
+            AtomicInteger failures = new AtomicInteger();
+
+            long start = System.nanoTime();
+            List<Future<long[][]>> results = new ArrayList<>(clients);
+            for (int c = 0; c < clients; c++) {
+                int clientId = c;
+                results.add(clientExecutor.submit(() -> runClient(client, readUri, clientId, requests, writes, failures)));
+            }
+
+            long[] readLatencies = new long[clients * requests];
+            long[] writeLatencies = new long[clients * requests];
+            int readCount = 0;
+            int writeCount = 0;
+            for (Future<long[][]> result : results) {
+                long[][] latencies = result.get();
+                System.arraycopy(latencies[0], 0, readLatencies, readCount, latencies[0].length);
+                readCount += latencies[0].length;
+                System.arraycopy(latencies[1], 0, writeLatencies, writeCount, latencies[1].length);
+                writeCount += latencies[1].length;
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.printf("%d requests in %.1f s (%.0f req/s), %d failed%n",
+                    readCount + writeCount, seconds, (readCount + writeCount) / seconds, failures.get());
+            report("read ", Arrays.copyOf(readLatencies, readCount));
+            report("write", Arrays.copyOf(writeLatencies, writeCount));
+        } finally {
+            server.stop(0);
+            serverExecutor.shutdownNow();
+            groceryShop.close();
+            GroceryListFixtures.deleteRecursively(directory);
+        }
+    }
+
+    /// latences d'un client en nanosecondes : [0] lectures, [1] ajouts
+    private static long[][] runClient(HttpClient client, URI readUri, int clientId, int requests, double writes,
+                                      AtomicInteger failures) throws InterruptedException {
+        long[] reads = new long[requests];
+        long[] adds = new long[requests];
+        int readCount = 0;
+        int addCount = 0;
+
+        for (int r = 0; r < requests; r++) {
+            boolean write = ThreadLocalRandom.current().nextDouble() < writes;
+            HttpRequest request = write
+                    ? HttpRequest.newBuilder(URI.create(readUri + "?name=client-" + clientId + "&quantity=1&category=load"))
+                            .POST(HttpRequest.BodyPublishers.noBody()).build()
+                    : HttpRequest.newBuilder(readUri).GET().build();
+
+            long start = System.nanoTime();
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() != 200) {
+                    failures.incrementAndGet();
+                    continue;
+                }
+            } catch (IOException e) {
+                failures.incrementAndGet();
+                continue;
+            }
+            long latency = System.nanoTime() - start;
+            if (write) {
+                adds[addCount++] = latency;
+            } else {
+                reads[readCount++] = latency;
+            }
+        }
+        return new long[][]{Arrays.copyOf(reads, readCount), Arrays.copyOf(adds, addCount)};
+    }
+
+    private static void handle(GroceryShopAdapter groceryShop, HttpExchange exchange) throws IOException {
+        try (exchange) {
+            byte[] body;
+            if (exchange.getRequestMethod().equals("POST")) {
+                Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+                groceryShop.addGroceryItem(query.get("name"), Integer.parseInt(query.get("quantity")), query.get("category"));
+                body = "ok".getBytes(StandardCharsets.UTF_8);
+            } else {
+                body = Integer.toString(groceryShop.getGroceries().size()).getBytes(StandardCharsets.UTF_8);
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (RuntimeException e) {
+            exchange.sendResponseHeaders(500, -1);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> values = new HashMap<>();
+        for (String pair : query.split("&")) {
+            int separator = pair.indexOf('=');
+            values.put(URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8));
+        }
+        return values;
+    }
+
+    private static void report(String label, long[] latencies) {
+        if (latencies.length == 0) {
+            System.out.println(label + ": no request");
+            return;
+        }
+        Arrays.sort(latencies);
+        System.out.printf("%s: %7d requests  p50 %8.2f ms  p99 %8.2f ms  max %8.2f ms%n", label, latencies.length,
+                percentile(latencies, 0.50), percentile(latencies, 0.99), latencies[latencies.length - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(fraction * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    /// stockage dont chaque écriture prend au moins `latencyMillis`, comme un disque saturé
+    private record SlowDiskStorage(GroceryListStorage delegate, long latencyMillis) implements GroceryListStorage {
+        @Override
+        public List<GroceryItem> load() throws IOException {
+            return delegate.load();
+        }
+
+        @Override
+        public void save(List<GroceryItem> groceryList) throws IOException {
+            pause();
+            delegate.save(groceryList);
+        }
+
+        @Override
+        public void upsert(String name, String category, int delta) throws IOException {
+            pause();
+            delegate.upsert(name, category, delta);
+        }
+
+        @Override
+        public boolean remove(String name, String category) throws IOException {
+            pause();
+            return delegate.remove(name, category);
+        }
+
+        private void pause() throws IOException {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+        }
+    }
+}
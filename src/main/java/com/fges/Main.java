@@ -1,33 +1,37 @@
 package com.fges;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fges.command.Command;
 import com.fges.command.CommandFactory;
+import com.fges.command.InstrumentedCommand;
+import com.fges.daemon.LocalDaemonClient;
+import com.fges.metrics.Metrics;
 import com.fges.storage.GroceryListStorage;
-import com.fges.storage.JsonGroceryListStorage;
-import com.fges.storage.CsvGroceryListStorage;
+import com.fges.storage.InstrumentedGroceryListStorage;
+import com.fges.storage.LockedGroceryListStorage;
+import com.fges.storage.StorageFactory;
 import com.fges.util.CliParser;
 import org.apache.commons.cli.CommandLine;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.nio.file.Paths;
 
 /**
  * Point d'entrée principal de l'application de gestion de liste de courses
  */
 public class Main {
 
-    public static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
-
     public static void main(String[] args) throws IOException {
         System.exit(exec(args));
     }
 
     /// Exécute la commande principale
     public static int exec(String[] args) throws IOException {
+        CommandLine cmd = null;
         try {
             /// etape 1 : parsing des arguments de la ligne de commande
             CliParser cliParser = new CliParser();
-            CommandLine cmd = cliParser.parse(args);
+            cmd = cliParser.parse(args);
 
             if (cmd == null) {
                 return 1;
@@ -49,42 +53,69 @@ public class Main {
                     System.err.println("Error initializing info command");
                     return 1;
                 }
-                return command.execute();
+                return new InstrumentedCommand(commandName, command).execute();
             }
 
             // Pour les autres commandes, vérifier si le fichier source est spécifié
             String fileName = cmd.getOptionValue("s");
+            // merge lit toutes les listes -s et écrit dans la liste donnée en argument
+            if (commandName.equals("merge") && positionalArgs.size() > 1) {
+                fileName = positionalArgs.get(1);
+            }
             if (fileName == null) {
                 System.err.println("Source file required for command: " + commandName);
                 return 1;
             }
 
-            String format = cmd.getOptionValue("f", "json");
+            // Un serveur local (serve-local) garde peut-être déjà cette liste en mémoire
+            if (LocalDaemonClient.isForwarded(commandName)) {
+                Integer exitCode = LocalDaemonClient.forward(LocalDaemonClient.socketPathFor(fileName), args);
+                if (exitCode != null) {
+                    return exitCode;
+                }
+            }
 
-            /// etape 3: création de l'instance de stockage (json ou csv)
-            GroceryListStorage storage;
-            if (format.equalsIgnoreCase("json")) {
-                storage = new JsonGroceryListStorage(fileName);
-            } else if (format.equalsIgnoreCase("csv")) {
-                storage = new CsvGroceryListStorage(fileName);
-            } else {
-                System.err.println("Format must be either 'json' or 'csv'");
+            // sans -f, la cible de merge garde le format de son extension, comme les sources
+            String format = cmd.getOptionValue("f", commandName.equals("merge") ? StorageFactory.formatOf(fileName) : "json");
+
+            /// etape 3: création de l'instance de stockage (json, csv, journal ou bin), répartie par catégorie si --sharded
+            boolean fsync = !cmd.hasOption("no-fsync");
+            GroceryListStorage storage = cmd.hasOption("sharded")
+                    ? StorageFactory.getShardedStorage(format, fileName, fsync, cmd.hasOption("sorted"))
+                    : StorageFactory.getStorage(format, fileName, fsync, cmd.hasOption("sorted"));
+            if (storage == null) {
+                System.err.println("Format must be one of 'json', 'csv', 'journal' or 'bin'");
                 return 1;
             }
+            // écritures verrouillées entre processus (fichier <source>.lock), lectures libres
+            storage = new LockedGroceryListStorage(Paths.get(fileName), storage);
+            // mesure les chargements et sauvegardes (--metrics, JMX)
+            storage = new InstrumentedGroceryListStorage(cmd.hasOption("sharded") ? "sharded-" + format : format, storage);
 
             /// etape 4: exécution de la commande
-            Command command = CommandFactory.getCommand(commandName, storage, positionalArgs, cmd);
-            if (command == null) {
-                System.err.println("Unknown command: " + commandName);
-                return 1;
-            }
+            try {
+                Command command = CommandFactory.getCommand(commandName, storage, positionalArgs, cmd);
+                if (command == null) {
+                    System.err.println("Unknown command: " + commandName);
+                    return 1;
+                }
 
-            return command.execute();
+                return new InstrumentedCommand(commandName, command).execute();
+            } finally {
+                // laisse le stockage terminer ses tâches de fond (compaction du journal)
+                if (storage instanceof Closeable closeable) {
+                    closeable.close();
+                }
+            }
 
         } catch (Exception e) {
             System.err.println("Error executing command: " + e.getMessage());
             e.printStackTrace();
             return 1;
+        } finally {
+            if (cmd != null && cmd.hasOption("metrics")) {
+                Metrics.dump(System.err);
+            }
         }
     }
 }
\ No newline at end of file
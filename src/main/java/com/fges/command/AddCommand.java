@@ -1,6 +1,5 @@
 package com.fges.command;
 
-import com.fges.model.GroceryItem;
 import com.fges.storage.GroceryListStorage;
 import org.apache.commons.cli.CommandLine;
 
@@ -45,22 +44,7 @@ public class AddCommand implements Command {
 
         String category = cmd.getOptionValue("c", "default");
 
-        List<GroceryItem> groceryList = storage.load();
-
-        boolean itemExists = false;
-        for (GroceryItem item : groceryList) {
-            if (item.getName().equals(itemName) && item.getCategory().equals(category)) {
-                item.incrementQuantity(quantity);
-                itemExists = true;
-                break;
-            }
-        }
-
-        if (!itemExists) {
-            groceryList.add(new GroceryItem(itemName, quantity, category));
-        }
-
-        storage.save(groceryList);
+        storage.upsert(itemName, category, quantity);
         return 0;
     }
 }
\ No newline at end of file
@@ -0,0 +1,191 @@
+package com.fges.command;
+
+import com.fges.model.GroceryList;
+import com.fges.storage.GroceryListStorage;
+import org.apache.commons.cli.CommandLine;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Commande appliquant une suite d'opérations lues ligne par ligne, depuis un fichier ou l'entrée standard :
+ *   add nom quantité [catégorie]
+ *   remove nom [catégorie]
+ * Toutes les lignes sont lues et vérifiées d'abord ; la liste est ensuite chargée une fois sous verrou,
+ * les opérations y sont appliquées en mémoire puis elle est sauvegardée une fois.
+ * Une ligne invalide est signalée avec son numéro et n'empêche pas les suivantes.
+ * Les lignes vides et celles commençant par # sont ignorées ; un nom contenant des espaces s'écrit entre guillemets.
+ */
+public class BatchCommand implements Command {
+    private final GroceryListStorage storage;
+    private final List<String> args;
+    private final CommandLine cmd;
+
+    public BatchCommand(GroceryListStorage storage, List<String> args, CommandLine cmd) {
+        this.storage = storage;
+        this.args = args;
+        this.cmd = cmd;
+    }
+
+    /// exécute la commande ; 1 si au moins une ligne a échoué, les autres étant tout de même sauvegardées
+    @Override
+    public int execute() throws Exception {
+        String source = args.size() > 1 ? args.get(1) : "-";
+        String defaultCategory = cmd != null ? cmd.getOptionValue("c", "default") : "default";
+
+        BufferedReader reader;
+        try {
+            reader = source.equals("-")
+                    ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                    : Files.newBufferedReader(Paths.get(source), StandardCharsets.UTF_8);
+        } catch (NoSuchFileException e) {
+            System.err.println("Batch file not found: " + source);
+            return 1;
+        }
+
+        // lecture et découpage avant le verrou : une entrée lente (stdin) ne bloque pas les autres écritures
+        List<Operation> operations = new ArrayList<>();
+        int failed = 0;
+        try (reader) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                try {
+                    Operation operation = parse(line, defaultCategory, lineNumber);
+                    if (operation != null) {
+                        operations.add(operation);
+                    }
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Line " + lineNumber + ": " + e.getMessage());
+                    failed++;
+                }
+            }
+        }
+
+        int applied = 0;
+        if (!operations.isEmpty()) {
+            // aucune autre écriture entre le chargement et la sauvegarde (autre processus compris)
+            try (Closeable ignored = storage.lockForUpdate()) {
+                GroceryList groceryList = storage.loadGroceryList();
+                for (Operation operation : operations) {
+                    if (operation.apply(groceryList)) {
+                        applied++;
+                    }
+                }
+
+                if (applied > 0) {
+                    storage.saveGroceryList(groceryList);
+                }
+            }
+        }
+        if (failed > 0) {
+            System.err.println(failed + " line(s) failed, " + applied + " applied");
+            return 1;
+        }
+        return 0;
+    }
+
+    /// opération valide d'une ligne : ajout (quantity > 0) ou suppression (quantity == 0)
+    private record Operation(int lineNumber, String name, int quantity, String category) {
+
+        /// applique l'opération ; false si l'article à supprimer est absent
+        boolean apply(GroceryList groceryList) {
+            if (quantity > 0) {
+                groceryList.upsert(name, category, quantity);
+                return true;
+            }
+            if (!groceryList.remove(name, category)) {
+                System.out.println("Line " + lineNumber + ": Item '" + name + "' not found in category '" + category + "'");
+                return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Découpe et vérifie une ligne, sans toucher à la liste
+     * @return L'opération, ou null pour une ligne vide ou un commentaire
+     * @throws IllegalArgumentException Message d'erreur si la ligne est invalide
+     */
+    private static Operation parse(String line, String defaultCategory, int lineNumber) {
+        List<String> tokens = tokenize(line);
+        if (tokens.isEmpty() || tokens.getFirst().startsWith("#")) {
+            return null;
+        }
+
+        String operation = tokens.getFirst();
+        switch (operation) {
+            case "add" -> {
+                if (tokens.size() < 3 || tokens.size() > 4) {
+                    throw new IllegalArgumentException("Usage: add <name> <quantity> [category]");
+                }
+                int quantity;
+                try {
+                    quantity = Integer.parseInt(tokens.get(2));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Quantity must be a number");
+                }
+                if (quantity <= 0) {
+                    throw new IllegalArgumentException("Quantity must be positive");
+                }
+                return new Operation(lineNumber, tokens.get(1), quantity, tokens.size() == 4 ? tokens.get(3) : defaultCategory);
+            }
+            case "remove" -> {
+                if (tokens.size() < 2 || tokens.size() > 3) {
+                    throw new IllegalArgumentException("Usage: remove <name> [category]");
+                }
+                return new Operation(lineNumber, tokens.get(1), 0, tokens.size() == 3 ? tokens.get(2) : defaultCategory);
+            }
+            default -> throw new IllegalArgumentException("Unknown operation: " + operation);
+        }
+    }
+
+    /// découpe la ligne sur les blancs ; "..." forme un seul mot, \" et \\ y sont échappés
+    static List<String> tokenize(String line) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        boolean inToken = false;
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '\\' && i + 1 < line.length()) {
+                    token.append(line.charAt(++i));
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    token.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+                inToken = true;
+            } else if (Character.isWhitespace(c)) {
+                if (inToken) {
+                    tokens.add(token.toString());
+                    token.setLength(0);
+                    inToken = false;
+                }
+            } else {
+                token.append(c);
+                inToken = true;
+            }
+        }
+
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quote");
+        }
+        if (inToken) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+}
@@ -12,7 +12,7 @@ public class CommandFactory {
 
     /**
      * Crée l'instance de commande appropriée en fonction du nom
-     * @param commandName Nom de la commande (add, list, remove, info)
+     * @param commandName Nom de la commande (add, list, remove, batch, merge, info, web, serve-local)
      * @param storage Instance de stockage à utiliser
      * @param args Arguments de la ligne de commande
      * @param cmd CommandLine pour les options
@@ -21,10 +21,15 @@ public class CommandFactory {
     public static Command getCommand(String commandName, GroceryListStorage storage, List<String> args, CommandLine cmd) {
         return switch (commandName) {
             case "add" -> new AddCommand(storage, args, cmd);
-            case "list" -> new ListCommand(storage);
+            case "list" -> new ListCommand(storage, cmd);
             case "remove" -> new RemoveCommand(storage, args, cmd);
+            case "batch" -> new BatchCommand(storage, args, cmd);
+            case "merge" -> new MergeCommand(storage, args,
+                    cmd.hasOption("s") ? List.of(cmd.getOptionValues("s")) : List.of());
             case "info" -> new InfoCommand();
-            case "web" -> new WebCommand(storage, args);
+            case "web" -> new WebCommand(storage, args, cmd);
+            case "serve-local" -> new ServeLocalCommand(storage, cmd.getOptionValue("s"), cmd.getOptionValue("f", "json"),
+                    cmd.hasOption("watch"));
             default -> null;
         };
     }
@@ -0,0 +1,39 @@
+package com.fges.command;
+
+import com.fges.metrics.LatencyHistogram;
+import com.fges.metrics.Metrics;
+
+/**
+ * Décorateur mesurant la durée d'exécution d'une commande (command.add, command.list...).
+ * Une commande qui renvoie un code non nul ou lève une exception compte comme une erreur.
+ */
+public class InstrumentedCommand implements Command {
+    private final Command delegate;
+    private final LatencyHistogram executions;
+
+    /**
+     * @param commandName Nom de la commande dans les mesures
+     * @param delegate Commande mesurée
+     */
+    public InstrumentedCommand(String commandName, Command delegate) {
+        this.delegate = delegate;
+        this.executions = Metrics.histogram("command." + commandName);
+    }
+
+    @Override
+    public int execute() throws Exception {
+        long start = System.nanoTime();
+        int exitCode = 1;
+        try {
+            exitCode = delegate.execute();
+            return exitCode;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            if (exitCode == 0) {
+                executions.record(elapsed);
+            } else {
+                executions.recordFailure(elapsed);
+            }
+        }
+    }
+}
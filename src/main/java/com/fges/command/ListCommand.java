@@ -1,54 +1,96 @@
 package com.fges.command;
 
-import com.fges.model.GroceryItem;
+import com.fges.storage.GroceryItemCursor;
 import com.fges.storage.GroceryListStorage;
+import com.fges.storage.SortedGroceryItemCursor;
+import org.apache.commons.cli.CommandLine;
 
-import java.util.Comparator;
-import java.util.List;
-import java.util.Map;
-import java.util.TreeMap;
-import java.util.ArrayList;
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 /**
- * Commande pour afficher la liste de courses
+ * Commande pour afficher la liste de courses.
+ * Les articles sont lus un par un depuis le stockage et triés avec une mémoire bornée
+ * (au-delà de --sort-memory, le tri passe par des fichiers temporaires).
+ * Un fichier sauvegardé trié (--sorted) est recopié tel quel, sans aucun tri.
+ * Avec -c, seule la catégorie demandée est affichée.
+ * La sortie passe par un seul tampon, vidé à la fin.
  */
 public class ListCommand implements Command {
+    static final long DEFAULT_SORT_MEMORY_MB = 64;
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+
     private final GroceryListStorage storage;
+    private final CommandLine cmd;
 
     public ListCommand(GroceryListStorage storage) {
+        this(storage, null);
+    }
+
+    public ListCommand(GroceryListStorage storage, CommandLine cmd) {
         this.storage = storage;
+        this.cmd = cmd;
     }
 
     /// exécute la commande
     @Override
     public int execute() throws Exception {
-        List<GroceryItem> groceryList = storage.load();
-
-        Map<String, List<GroceryItem>> categorizedItems = new TreeMap<>();
-
-        for (GroceryItem item : groceryList) {
-            String category = item.getCategory();
-            if (!categorizedItems.containsKey(category)) {
-                categorizedItems.put(category, new ArrayList<>());
-            }
-            categorizedItems.get(category).add(item);
+        long sortMemoryMb;
+        try {
+            sortMemoryMb = cmd != null && cmd.hasOption("sort-memory")
+                    ? Long.parseLong(cmd.getOptionValue("sort-memory"))
+                    : DEFAULT_SORT_MEMORY_MB;
+        } catch (NumberFormatException e) {
+            System.err.println("Sort memory must be a number of megabytes.");
+            return 1;
+        }
+        if (sortMemoryMb < 1) {
+            System.err.println("Sort memory must be at least 1 megabyte.");
+            return 1;
         }
 
-        for (Map.Entry<String, List<GroceryItem>> entry : categorizedItems.entrySet()) {
-            String category = entry.getKey();
-            List<GroceryItem> items = entry.getValue();
-
-            System.out.println("#" + category + ":");
+        Path temporaryDirectory = Paths.get(System.getProperty("java.io.tmpdir"));
+        PrintStream console = System.out;
+        Writer out = new BufferedWriter(new OutputStreamWriter(console, console.charset()), OUTPUT_BUFFER_SIZE);
 
-            items.sort(Comparator.comparing(GroceryItem::getName));
+        String onlyCategory = cmd != null ? cmd.getOptionValue("c") : null;
+        GroceryItemCursor source = onlyCategory != null ? storage.openCursor(onlyCategory) : storage.openCursor();
+        try (GroceryItemCursor items = source.isSorted()
+                ? source
+                : new SortedGroceryItemCursor(source, sortMemoryMb << 20, temporaryDirectory)) {
+            String newLine = System.lineSeparator();
+            String category = null;
+            int categoryCount = 0;
 
-            for (GroceryItem item : items) {
-                System.out.println(item);
+            while (items.next()) {
+                if (!items.category().equals(category)) {
+                    // ligne vide entre deux catégories, et après la dernière s'il y en a plusieurs
+                    if (category != null) {
+                        out.write(newLine);
+                    }
+                    category = items.category();
+                    categoryCount++;
+                    out.write("#");
+                    out.write(category);
+                    out.write(":");
+                    out.write(newLine);
+                }
+                out.write(items.name());
+                out.write(": ");
+                out.write(Integer.toString(items.quantity()));
+                out.write(newLine);
             }
 
-            if (categorizedItems.size() > 1) {
-                System.out.println();
+            if (categoryCount > 1) {
+                out.write(newLine);
             }
+        } finally {
+            // vide le tampon sans fermer System.out
+            out.flush();
         }
 
         return 0;
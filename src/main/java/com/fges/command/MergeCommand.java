@@ -0,0 +1,139 @@
+package com.fges.command;
+
+import com.fges.model.GroceryItem;
+import com.fges.storage.GroceryItemCursor;
+import com.fges.storage.GroceryListStorage;
+import com.fges.storage.InstrumentedGroceryListStorage;
+import com.fges.storage.StorageFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Commande fusionnant plusieurs listes (les -s) dans la liste cible :
+ *   -s magasin1.json -s magasin2.csv merge courses.json
+ * Les sources sont lues en parallèle, chacune au format de son extension, et parcourues sans être chargées.
+ * Les quantités d'un même article (catégorie, nom) sont additionnées dans une table concurrente par catégorie.
+ * La cible, au format -f ou à défaut de son extension, est remplacée par le résultat en une seule sauvegarde ;
+ * rien n'est écrit si une source échoue. Son verrou d'écriture est tenu de la lecture des sources à la sauvegarde.
+ */
+public class MergeCommand implements Command {
+    private final GroceryListStorage storage;
+    private final List<String> args;
+    private final List<String> sources;
+
+    /**
+     * @param storage Stockage de la liste cible
+     * @param args Arguments positionnels : merge puis le fichier cible
+     * @param sources Fichiers des listes à fusionner
+     */
+    public MergeCommand(GroceryListStorage storage, List<String> args, List<String> sources) {
+        this.storage = storage;
+        this.args = args;
+        this.sources = sources;
+    }
+
+    /// exécute la commande ; 1 si une source manque ou ne peut être lue, la cible restant alors inchangée
+    @Override
+    public int execute() throws Exception {
+        if (args.size() != 2 || sources.isEmpty()) {
+            System.err.println("Usage: -s <list> [-s <list>...] merge <target>");
+            return 1;
+        }
+        for (String source : sources) {
+            if (!Files.exists(Paths.get(source))) {
+                System.err.println("Source not found: " + source);
+                return 1;
+            }
+        }
+
+        // la cible peut être l'une des sources : aucune autre écriture entre leur lecture et la sauvegarde
+        try (Closeable ignored = storage.lockForUpdate()) {
+            return merge();
+        }
+    }
+
+    /// lit les sources en parallèle puis remplace la cible par leur somme
+    private int merge() throws Exception {
+        // catégorie -> nom -> quantité ; un article déjà vu ne prend aucun verrou
+        Map<String, Map<String, LongAdder>> totals = new ConcurrentHashMap<>();
+
+        int threads = Math.min(sources.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        boolean failed = false;
+        try {
+            List<Future<?>> results = new ArrayList<>(sources.size());
+            for (String source : sources) {
+                results.add(executor.submit(() -> {
+                    accumulate(source, totals);
+                    return null;
+                }));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                try {
+                    results.get(i).get();
+                } catch (ExecutionException e) {
+                    System.err.println("Error reading " + sources.get(i) + ": " + e.getCause().getMessage());
+                    failed = true;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        if (failed) {
+            return 1;
+        }
+
+        List<GroceryItem> merged = new ArrayList<>();
+        for (Map.Entry<String, Map<String, LongAdder>> category : totals.entrySet()) {
+            for (Map.Entry<String, LongAdder> item : category.getValue().entrySet()) {
+                long quantity = item.getValue().sum();
+                if (quantity > Integer.MAX_VALUE || quantity < Integer.MIN_VALUE) {
+                    System.err.println("Quantity out of range for " + item.getKey() + " in " + category.getKey() + ": " + quantity);
+                    return 1;
+                }
+                merged.add(new GroceryItem(item.getKey(), (int) quantity, category.getKey()));
+            }
+        }
+
+        storage.save(merged);
+        return 0;
+    }
+
+    /// ajoute les articles d'une source aux totaux, article par article
+    private static void accumulate(String source, Map<String, Map<String, LongAdder>> totals) throws IOException {
+        String format = StorageFactory.formatOf(source);
+        GroceryListStorage storage = new InstrumentedGroceryListStorage(format,
+                StorageFactory.getStorage(format, source, false));
+        try (GroceryItemCursor cursor = storage.openCursor()) {
+            String category = null;
+            Map<String, LongAdder> items = null;
+            while (cursor.next()) {
+                if (!cursor.category().equals(category)) {
+                    category = cursor.category();
+                    items = totals.computeIfAbsent(category, key -> new ConcurrentHashMap<>());
+                }
+                LongAdder quantity = items.get(cursor.name());
+                if (quantity == null) {
+                    quantity = items.computeIfAbsent(cursor.name(), key -> new LongAdder());
+                }
+                quantity.add(cursor.quantity());
+            }
+        } finally {
+            if (storage instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package com.fges.command;
 
-import com.fges.model.GroceryItem;
 import com.fges.storage.GroceryListStorage;
 import org.apache.commons.cli.CommandLine;
 
@@ -32,17 +31,12 @@ public class RemoveCommand implements Command {
 
         String category = cmd.getOptionValue("c", "default");
 
-        List<GroceryItem> groceryList = storage.load();
-
-        boolean removed = groceryList.removeIf(
-                item -> item.getName().equals(itemName) && item.getCategory().equals(category)
-        );
+        boolean removed = storage.remove(itemName, category);
 
         if (!removed) {
             System.out.println("Item '" + itemName + "' not found in category '" + category + "'");
         }
 
-        storage.save(groceryList);
         return 0;
     }
 }
\ No newline at end of file
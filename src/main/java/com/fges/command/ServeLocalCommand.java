@@ -0,0 +1,71 @@
+package com.fges.command;
+
+import com.fges.daemon.LocalDaemonClient;
+import com.fges.daemon.LocalDaemonServer;
+import com.fges.metrics.Metrics;
+import com.fges.storage.CachedGroceryListStorage;
+import com.fges.storage.GroceryListStorage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Commande pour démarrer un serveur local gardant la liste en mémoire.
+ * Tant qu'il tourne, les commandes add, remove et list sur le même fichier lui sont déléguées.
+ */
+public class ServeLocalCommand implements Command {
+
+    private final GroceryListStorage storage;
+    private final String fileName;
+    private final String format;
+    private final boolean watch;
+
+    public ServeLocalCommand(GroceryListStorage storage, String fileName, String format) {
+        this(storage, fileName, format, false);
+    }
+
+    /**
+     * @param storage Stockage de la liste
+     * @param fileName Fichier de la liste, qui désigne aussi le socket du serveur
+     * @param format Format du fichier
+     * @param watch true pour relire la liste dès que le fichier est modifié sans passer par le serveur
+     */
+    public ServeLocalCommand(GroceryListStorage storage, String fileName, String format, boolean watch) {
+        this.storage = storage;
+        this.fileName = fileName;
+        this.format = format;
+        this.watch = watch;
+    }
+
+    @Override
+    public int execute() throws Exception {
+        CachedGroceryListStorage cachedStorage = new CachedGroceryListStorage(storage);
+        // charge la liste dès le démarrage pour que la première requête soit déjà servie depuis la mémoire
+        cachedStorage.loadGroceryList();
+        if (watch && !cachedStorage.watch(() -> {
+        })) {
+            System.err.println("Warning: --watch is only supported for json and csv lists.");
+        }
+
+        Path socketPath = LocalDaemonClient.socketPathFor(fileName);
+        LocalDaemonServer server = new LocalDaemonServer(socketPath, cachedStorage, format);
+        server.bind();
+        // mesures consultables en JMX (jconsole) tant que le serveur tourne
+        Metrics.registerJmx();
+
+        // Ctrl+C : supprime le socket et termine les écritures en cours
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+                cachedStorage.close();
+            } catch (IOException e) {
+                System.err.println("Error stopping local daemon: " + e.getMessage());
+            }
+        }));
+
+        System.out.println("Serving " + fileName + " on " + socketPath);
+        server.serve();
+
+        return 0;
+    }
+}
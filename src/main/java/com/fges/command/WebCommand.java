@@ -1,11 +1,14 @@
 // WebCommand.java
 package com.fges.command;
 
+import com.fges.metrics.Metrics;
 import com.fges.storage.GroceryListStorage;
 import com.fges.web.GroceryShopAdapter;
 import fr.anthonyquere.GroceryShopServer;
 import org.apache.commons.cli.CommandLine;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
 
 /**
@@ -13,12 +16,21 @@ import java.util.List;
  */
 public class WebCommand implements Command {
 
+    private static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 1000;
+    private static final int DEFAULT_FLUSH_THRESHOLD = 100;
+
     private final GroceryListStorage storage;
     private final List<String> args;
+    private final CommandLine cmd;
 
     public WebCommand(GroceryListStorage storage, List<String> args) {
+        this(storage, args, null);
+    }
+
+    public WebCommand(GroceryListStorage storage, List<String> args, CommandLine cmd) {
         this.storage = storage;
         this.args = args;
+        this.cmd = cmd;
     }
 
     @Override
@@ -36,7 +48,45 @@ public class WebCommand implements Command {
             return 1;
         }
 
-        GroceryShopAdapter groceryShop = new GroceryShopAdapter(storage);
+        long flushInterval;
+        int flushThreshold;
+        try {
+            flushInterval = Long.parseLong(optionValue("flush-interval", Long.toString(DEFAULT_FLUSH_INTERVAL_MILLIS)));
+            flushThreshold = Integer.parseInt(optionValue("flush-threshold", Integer.toString(DEFAULT_FLUSH_THRESHOLD)));
+        } catch (NumberFormatException e) {
+            System.err.println("Flush interval and threshold must be numbers.");
+            return 1;
+        }
+        if (flushInterval < 0 || flushThreshold < 1) {
+            System.err.println("Flush interval must not be negative and flush threshold must be at least 1.");
+            return 1;
+        }
+        boolean virtualThreads = cmd != null && cmd.hasOption("virtual-threads");
+        if (virtualThreads && flushThreshold == 1) {
+            System.err.println("--virtual-threads needs a flush threshold above 1: with 1, every change is saved by its request.");
+            return 1;
+        }
+
+        // lectures servies depuis la mémoire, écritures regroupées
+        // avec --virtual-threads, les sauvegardes ne sont plus faites par le thread de la requête
+        GroceryShopAdapter groceryShop = new GroceryShopAdapter(storage, Duration.ofMillis(flushInterval), flushThreshold,
+                virtualThreads);
+        if (cmd != null && cmd.hasOption("watch") && !groceryShop.watch()) {
+            System.err.println("Warning: --watch is only supported for json and csv lists.");
+        }
+        // mesures consultables en JMX (jconsole) tant que le serveur tourne
+        Metrics.registerJmx();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                groceryShop.close();
+            } catch (IOException e) {
+                System.err.println("Error saving grocery list on shutdown: " + e.getMessage());
+            }
+            if (cmd != null && cmd.hasOption("metrics")) {
+                Metrics.dump(System.err);
+            }
+        }));
+
         GroceryShopServer server = new GroceryShopServer(groceryShop);
         server.start(port);
 
@@ -47,4 +97,8 @@ public class WebCommand implements Command {
 
         return 0;
     }
+
+    private String optionValue(String option, String defaultValue) {
+        return cmd == null ? defaultValue : cmd.getOptionValue(option, defaultValue);
+    }
 }
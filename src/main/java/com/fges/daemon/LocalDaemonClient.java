@@ -0,0 +1,107 @@
+package com.fges.daemon;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Set;
+
+/**
+ * Client léger du serveur local : transmet les arguments de la ligne de commande
+ * et recopie la sortie du serveur sur System.out et System.err.
+ */
+public final class LocalDaemonClient {
+    static final String UNSUPPORTED = "unsupported";
+    static final String OUT_PREFIX = "out\t";
+    static final String ERR_PREFIX = "err\t";
+
+    private static final Set<String> FORWARDED_COMMANDS = Set.of("add", "remove", "list");
+
+    private LocalDaemonClient() {
+    }
+
+    /// chemin du socket du serveur local associé à un fichier de liste
+    public static Path socketPathFor(String fileName) {
+        return Paths.get(fileName + ".sock");
+    }
+
+    /// commandes pouvant être déléguées au serveur local
+    public static boolean isForwarded(String commandName) {
+        return FORWARDED_COMMANDS.contains(commandName);
+    }
+
+    /**
+     * Envoie la commande au serveur local s'il écoute sur ce socket
+     * @param socketPath Chemin du socket
+     * @param args Arguments de la ligne de commande, transmis tels quels
+     * @return code de sortie de la commande, ou null si aucun serveur ne l'a prise en charge
+     */
+    public static Integer forward(Path socketPath, String[] args) {
+        if (!Files.exists(socketPath)) {
+            return null;
+        }
+
+        // le protocole sépare les arguments par des tabulations, une requête par ligne
+        StringBuilder request = new StringBuilder();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].indexOf('\t') >= 0 || args[i].indexOf('\n') >= 0 || args[i].indexOf('\r') >= 0) {
+                return null;
+            }
+            if (i > 0) {
+                request.append('\t');
+            }
+            request.append(args[i]);
+        }
+        request.append('\n');
+
+        try (SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(socketPath))) {
+            ByteBuffer buffer = ByteBuffer.wrap(request.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8));
+            String status = reader.readLine();
+            if (status == null || status.equals(UNSUPPORTED)) {
+                return null;
+            }
+            int exitCode = Integer.parseInt(status);
+
+            // la commande a été exécutée : on ne retombe plus sur l'exécution locale
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith(OUT_PREFIX)) {
+                        System.out.println(line.substring(OUT_PREFIX.length()));
+                    } else if (line.startsWith(ERR_PREFIX)) {
+                        System.err.println(line.substring(ERR_PREFIX.length()));
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("Warning: incomplete response from local daemon: " + e.getMessage());
+            }
+            return exitCode;
+        } catch (IOException | NumberFormatException e) {
+            // socket orphelin ou serveur arrêté : exécution locale
+            return null;
+        }
+    }
+
+    /// vrai si un serveur accepte les connexions sur ce socket
+    static boolean isReachable(Path socketPath) {
+        try {
+            SocketChannel.open(UnixDomainSocketAddress.of(socketPath)).close();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
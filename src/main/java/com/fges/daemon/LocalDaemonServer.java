@@ -0,0 +1,168 @@
+package com.fges.daemon;
+
+import com.fges.command.Command;
+import com.fges.command.CommandFactory;
+import com.fges.command.InstrumentedCommand;
+import com.fges.metrics.Metrics;
+import com.fges.storage.GroceryListStorage;
+import com.fges.util.CliParser;
+import org.apache.commons.cli.CommandLine;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Serveur local gardant la liste de courses en mémoire derrière un socket Unix.
+ * Protocole, une requête par connexion :
+ * - requête : les arguments de la ligne de commande séparés par des tabulations, sur une ligne
+ * - réponse : le code de sortie (ou "unsupported"), puis les lignes de sortie préfixées par "out\t" ou "err\t"
+ * Les requêtes sont traitées une par une, ce qui permet de capturer System.out et System.err.
+ */
+public class LocalDaemonServer implements Closeable {
+    private final Path socketPath;
+    private final GroceryListStorage storage;
+    private final String format;
+    private final CliParser cliParser = new CliParser();
+    private ServerSocketChannel serverChannel;
+
+    /**
+     * @param socketPath Chemin du socket à créer
+     * @param storage Stockage servant les requêtes, normalement gardé en mémoire
+     * @param format Format du fichier servi ; les requêtes demandant un autre format ne sont pas prises en charge
+     */
+    public LocalDaemonServer(Path socketPath, GroceryListStorage storage, String format) {
+        this.socketPath = socketPath;
+        this.storage = storage;
+        this.format = format;
+    }
+
+    /// ouvre le socket ; échoue si un autre serveur répond déjà sur ce chemin
+    public synchronized void bind() throws IOException {
+        if (Files.exists(socketPath)) {
+            if (LocalDaemonClient.isReachable(socketPath)) {
+                throw new IOException("A local daemon is already listening on " + socketPath);
+            }
+            // socket laissé par un serveur arrêté brutalement
+            Files.delete(socketPath);
+        }
+
+        serverChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        serverChannel.bind(UnixDomainSocketAddress.of(socketPath));
+    }
+
+    /// traite les requêtes jusqu'à la fermeture du serveur
+    public void serve() throws IOException {
+        ServerSocketChannel channel;
+        synchronized (this) {
+            channel = serverChannel;
+        }
+        if (channel == null) {
+            throw new IllegalStateException("Local daemon is not bound");
+        }
+
+        while (true) {
+            try (SocketChannel client = channel.accept()) {
+                handle(client);
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                System.err.println("Warning: local daemon request failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /// ferme le socket et supprime son fichier
+    @Override
+    public synchronized void close() throws IOException {
+        if (serverChannel != null) {
+            serverChannel.close();
+            serverChannel = null;
+            Files.deleteIfExists(socketPath);
+        }
+    }
+
+    private void handle(SocketChannel client) throws IOException {
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(Channels.newInputStream(client), StandardCharsets.UTF_8));
+        String line = reader.readLine();
+        if (line == null) {
+            return;
+        }
+        String[] args = line.isEmpty() ? new String[0] : line.split("\t", -1);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        Integer exitCode;
+
+        PrintStream originalOut = System.out;
+        PrintStream originalErr = System.err;
+        try (PrintStream capturedOut = new PrintStream(out, true, StandardCharsets.UTF_8);
+             PrintStream capturedErr = new PrintStream(err, true, StandardCharsets.UTF_8)) {
+            System.setOut(capturedOut);
+            System.setErr(capturedErr);
+            exitCode = execute(args);
+        } finally {
+            System.setOut(originalOut);
+            System.setErr(originalErr);
+        }
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(client), StandardCharsets.UTF_8));
+        writer.write(exitCode == null ? LocalDaemonClient.UNSUPPORTED : Integer.toString(exitCode));
+        writer.write('\n');
+        writeLines(writer, LocalDaemonClient.OUT_PREFIX, out.toString(StandardCharsets.UTF_8));
+        writeLines(writer, LocalDaemonClient.ERR_PREFIX, err.toString(StandardCharsets.UTF_8));
+        writer.flush();
+    }
+
+    /// exécute la commande comme Main.exec ; null si elle doit être exécutée par le client
+    private Integer execute(String[] args) {
+        CommandLine cmd = cliParser.parse(args);
+        if (cmd == null) {
+            return 1;
+        }
+
+        List<String> positionalArgs = cmd.getArgList();
+        if (positionalArgs.isEmpty() || !LocalDaemonClient.isForwarded(positionalArgs.getFirst())
+                || !format.equalsIgnoreCase(cmd.getOptionValue("f", "json"))) {
+            return null;
+        }
+
+        try {
+            Command command = CommandFactory.getCommand(positionalArgs.getFirst(), storage, positionalArgs, cmd);
+            return new InstrumentedCommand(positionalArgs.getFirst(), command).execute();
+        } catch (Exception e) {
+            System.err.println("Error executing command: " + e.getMessage());
+            return 1;
+        } finally {
+            // mesures cumulées depuis le démarrage du serveur
+            if (cmd.hasOption("metrics")) {
+                Metrics.dump(System.err);
+            }
+        }
+    }
+
+    private void writeLines(Writer writer, String prefix, String text) throws IOException {
+        for (String line : text.lines().toList()) {
+            writer.write(prefix);
+            writer.write(line);
+            writer.write('\n');
+        }
+    }
+}
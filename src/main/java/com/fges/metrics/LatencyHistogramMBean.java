@@ -0,0 +1,21 @@
+package com.fges.metrics;
+
+/**
+ * Vue JMX d'un histogramme de latence, en microsecondes
+ */
+public interface LatencyHistogramMBean {
+
+    long getCount();
+
+    long getErrors();
+
+    double getMeanMicros();
+
+    double getP50Micros();
+
+    double getP99Micros();
+
+    double getMaxMicros();
+
+    void reset();
+}
@@ -0,0 +1,77 @@
+package com.fges.metrics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Registre des histogrammes de latence de l'application, nommés par point de mesure
+ * (storage.json.load, command.add, web.getGroceries...).
+ * Les appelants gardent l'histogramme dans un champ : l'enregistrement ne passe pas par le registre.
+ * Les histogrammes sont publiés en JMX (com.fges:type=Metrics,name=...) une fois registerJmx() appelé,
+ * ce que font les commandes qui tournent longtemps : le démarrage de JMX coûte trop cher à une commande courte.
+ */
+public final class Metrics {
+    private static final Map<String, LatencyHistogram> HISTOGRAMS = new ConcurrentSkipListMap<>();
+    private static volatile boolean jmxEnabled;
+
+    private Metrics() {
+    }
+
+    /// histogramme de ce nom, créé au premier appel
+    public static LatencyHistogram histogram(String name) {
+        LatencyHistogram histogram = HISTOGRAMS.get(name);
+        if (histogram != null) {
+            return histogram;
+        }
+        histogram = HISTOGRAMS.computeIfAbsent(name, LatencyHistogram::new);
+        if (jmxEnabled) {
+            register(histogram);
+        }
+        return histogram;
+    }
+
+    /// publie les histogrammes existants et futurs en JMX
+    public static synchronized void registerJmx() {
+        if (jmxEnabled) {
+            return;
+        }
+        jmxEnabled = true;
+        for (LatencyHistogram histogram : HISTOGRAMS.values()) {
+            register(histogram);
+        }
+    }
+
+    /// écrit un tableau des points de mesure appelés au moins une fois, par ordre de nom ; rien si aucun ne l'a été
+    public static void dump(PrintStream out) {
+        if (HISTOGRAMS.values().stream().allMatch(histogram -> histogram.getCount() == 0)) {
+            return;
+        }
+        out.printf("%-32s %10s %8s %12s %12s %12s %12s%n", "metric", "count", "errors", "mean us", "p50 us", "p99 us", "max us");
+        for (LatencyHistogram histogram : HISTOGRAMS.values()) {
+            if (histogram.getCount() == 0) {
+                continue;
+            }
+            out.printf("%-32s %10d %8d %12.1f %12.1f %12.1f %12.1f%n", histogram.name(), histogram.getCount(),
+                    histogram.getErrors(), histogram.getMeanMicros(), histogram.getP50Micros(),
+                    histogram.getP99Micros(), histogram.getMaxMicros());
+        }
+        out.flush();
+    }
+
+    private static void register(LatencyHistogram histogram) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.registerMBean(histogram, new ObjectName("com.fges:type=Metrics,name=" + ObjectName.quote(histogram.name())));
+        } catch (InstanceAlreadyExistsException e) {
+            // déjà publié par un appel concurrent
+        } catch (JMException e) {
+            System.err.println("Warning: Cannot publish metric " + histogram.name() + " over JMX: " + e.getMessage());
+        }
+    }
+}
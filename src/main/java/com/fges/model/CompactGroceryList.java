@@ -0,0 +1,251 @@
+package com.fges.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Liste de courses rangée en colonnes, pour garder de très grandes listes en mémoire :
+ * - chaque catégorie n'est stockée qu'une fois et les articles n'en gardent que l'identifiant (int)
+ * - les quantités sont dans un tableau d'int
+ * - les noms sont encodés en UTF-8 les uns à la suite des autres dans un seul tableau d'octets
+ * Un article coûte ainsi une douzaine d'octets plus son nom, contre 80 environ pour un GroceryItem
+ * et ses deux String. get() et le parcours ne rendent que des vues en lecture seule (Item) ;
+ * les GroceryItem ne sont créés qu'à la demande, par toList().
+ * Comme la liste renvoyée par load(), elle garde l'ordre d'ajout et accepte les doublons.
+ * Une fois figée (freeze), elle n'est plus modifiable et peut être partagée entre threads.
+ */
+public class CompactGroceryList implements Iterable<CompactGroceryList.Item> {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final List<String> categories = new ArrayList<>();
+    private final Map<String, Integer> categoryIds = new HashMap<>();
+
+    private int[] categoryOf;
+    private int[] quantities;
+    // fin du nom de chaque article dans `names` ; il commence à la fin du précédent.
+    // Un nom absent (null, anciens fichiers) est noté ~fin, sans octets
+    private int[] nameEnds;
+    private byte[] names;
+    private int namesLength;
+    private int size;
+    private volatile boolean frozen;
+
+    public CompactGroceryList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /// prépare la place de `expectedSize` articles, pour éviter les agrandissements au chargement
+    public CompactGroceryList(int expectedSize) {
+        int capacity = Math.max(DEFAULT_CAPACITY, expectedSize);
+        categoryOf = new int[capacity];
+        quantities = new int[capacity];
+        nameEnds = new int[capacity];
+        names = new byte[(int) Math.min(capacity * 8L, Integer.MAX_VALUE - 8)];
+    }
+
+    /// copie une liste d'articles
+    public CompactGroceryList(List<GroceryItem> items) {
+        this(items.size());
+        for (GroceryItem item : items) {
+            add(item.getName(), item.getQuantity(), item.getCategory());
+        }
+    }
+
+    /// ajoute un article à la fin de la liste et renvoie sa position
+    public int add(String name, int quantity, String category) {
+        checkNotFrozen();
+        if (size == quantities.length) {
+            int capacity = Math.max(DEFAULT_CAPACITY, size + (size >> 1));
+            categoryOf = Arrays.copyOf(categoryOf, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+            nameEnds = Arrays.copyOf(nameEnds, capacity);
+        }
+
+        if (name == null) {
+            categoryOf[size] = categoryId(category);
+            quantities[size] = quantity;
+            nameEnds[size] = ~namesLength;
+            return size++;
+        }
+
+        byte[] encoded = name.getBytes(StandardCharsets.UTF_8);
+        if (namesLength + encoded.length > names.length) {
+            long capacity = Math.max((long) namesLength + encoded.length, names.length + ((long) names.length >> 1));
+            if (capacity > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("Item names exceed 2 GB");
+            }
+            names = Arrays.copyOf(names, (int) capacity);
+        }
+        System.arraycopy(encoded, 0, names, namesLength, encoded.length);
+        namesLength += encoded.length;
+
+        categoryOf[size] = categoryId(category);
+        quantities[size] = quantity;
+        nameEnds[size] = namesLength;
+        return size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /// nom de l'article à cette position, décodé à chaque appel (null si l'article n'en a pas)
+    public String name(int index) {
+        checkIndex(index);
+        if (nameEnds[index] < 0) {
+            return null;
+        }
+        int start = index == 0 ? 0 : end(nameEnds[index - 1]);
+        return new String(names, start, nameEnds[index] - start, StandardCharsets.UTF_8);
+    }
+
+    public int quantity(int index) {
+        checkIndex(index);
+        return quantities[index];
+    }
+
+    public void setQuantity(int index, int quantity) {
+        checkNotFrozen();
+        checkIndex(index);
+        quantities[index] = quantity;
+    }
+
+    /// catégorie de l'article à cette position, partagée par tous les articles de la catégorie
+    public String category(int index) {
+        checkIndex(index);
+        return categories.get(categoryOf[index]);
+    }
+
+    /// catégories rencontrées, dans leur ordre d'apparition
+    public List<String> categories() {
+        return Collections.unmodifiableList(categories);
+    }
+
+    /// vue en lecture seule de l'article à cette position
+    public Item get(int index) {
+        checkIndex(index);
+        return new Item(index);
+    }
+
+    /// copie des articles sous forme de liste de GroceryItem indépendants
+    public List<GroceryItem> toList() {
+        List<GroceryItem> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(new GroceryItem(name(i), quantities[i], category(i)));
+        }
+        return items;
+    }
+
+    /// libère la place réservée et non utilisée
+    public void trimToSize() {
+        checkNotFrozen();
+        categoryOf = Arrays.copyOf(categoryOf, size);
+        quantities = Arrays.copyOf(quantities, size);
+        nameEnds = Arrays.copyOf(nameEnds, size);
+        names = Arrays.copyOf(names, namesLength);
+    }
+
+    /// rend la liste définitivement non modifiable : add, setQuantity et trimToSize lèvent alors UnsupportedOperationException
+    public void freeze() {
+        frozen = true;
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /// parcourt les articles dans l'ordre d'ajout, sous forme de vues
+    @Override
+    public Iterator<Item> iterator() {
+        return new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public Item next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return new Item(next++);
+            }
+        };
+    }
+
+    private int categoryId(String category) {
+        String normalized = (category != null && !category.isEmpty()) ? category : "default";
+        Integer id = categoryIds.get(normalized);
+        if (id == null) {
+            id = categories.size();
+            categories.add(normalized);
+            categoryIds.put(normalized, id);
+        }
+        return id;
+    }
+
+    private static int end(int nameEnd) {
+        return nameEnd < 0 ? ~nameEnd : nameEnd;
+    }
+
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new UnsupportedOperationException("Compact grocery list is frozen");
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+    }
+
+    /// article de la liste, en lecture seule : sa quantité se modifie par setQuantity(index, quantité) de la liste
+    public final class Item {
+        private final int index;
+
+        private Item(int index) {
+            this.index = index;
+        }
+
+        /// position de l'article dans la liste
+        public int index() {
+            return index;
+        }
+
+        public String getName() {
+            return name(index);
+        }
+
+        public int getQuantity() {
+            return quantities[index];
+        }
+
+        public String getCategory() {
+            return categories.get(categoryOf[index]);
+        }
+
+        /// copie indépendante de l'article
+        public GroceryItem toGroceryItem() {
+            return new GroceryItem(getName(), getQuantity(), getCategory());
+        }
+
+        @Override
+        public String toString() {
+            return getName() + ": " + getQuantity();
+        }
+    }
+}
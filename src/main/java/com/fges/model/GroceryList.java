@@ -0,0 +1,158 @@
+package com.fges.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Liste de courses indexée par (catégorie, nom).
+ * Les recherches, ajouts et suppressions se font en temps constant ; les articles sont rangés
+ * par catégorie et parcourus dans un ordre déterministe (ordre d'insertion des catégories puis des articles).
+ */
+public class GroceryList implements Iterable<GroceryItem> {
+    // catégorie -> nom -> article : sert à la fois d'index (catégorie, nom) et d'ordre de parcours
+    private final Map<String, Map<String, GroceryItem>> buckets = new LinkedHashMap<>();
+    private int size;
+
+    public GroceryList() {
+    }
+
+    /// construit la liste indexée ; un doublon (catégorie, nom) remplace le précédent
+    public GroceryList(Collection<GroceryItem> items) {
+        for (GroceryItem item : items) {
+            put(item);
+        }
+    }
+
+    /// retourne l'article (nom, catégorie) ou null s'il est absent
+    public GroceryItem get(String name, String category) {
+        Map<String, GroceryItem> bucket = buckets.get(normalize(category));
+        return bucket == null ? null : bucket.get(name);
+    }
+
+    /// ajoute l'article en remplaçant un éventuel article de même nom dans la même catégorie
+    public void put(GroceryItem item) {
+        String category = normalize(item.getCategory());
+        if (buckets.computeIfAbsent(category, ignored -> new LinkedHashMap<>()).put(item.getName(), item) == null) {
+            size++;
+        }
+    }
+
+    /// ajoute delta à la quantité de l'article, en le créant s'il n'existe pas
+    public GroceryItem upsert(String name, String category, int delta) {
+        GroceryItem item = get(name, category);
+        if (item != null) {
+            item.incrementQuantity(delta);
+            return item;
+        }
+
+        item = new GroceryItem(name, delta, category);
+        put(item);
+        return item;
+    }
+
+    /**
+     * Supprime un article
+     * @param category Catégorie de l'article, ou null pour le supprimer de toutes les catégories
+     * @return true si au moins un article a été supprimé
+     */
+    public boolean remove(String name, String category) {
+        if (category != null) {
+            return removeFromCategory(name, normalize(category));
+        }
+
+        boolean removed = false;
+        for (String candidate : new ArrayList<>(buckets.keySet())) {
+            removed |= removeFromCategory(name, candidate);
+        }
+        return removed;
+    }
+
+    /// articles portant ce nom, toutes catégories confondues
+    public List<GroceryItem> findByName(String name) {
+        List<GroceryItem> found = new ArrayList<>();
+        for (Map<String, GroceryItem> bucket : buckets.values()) {
+            GroceryItem item = bucket.get(name);
+            if (item != null) {
+                found.add(item);
+            }
+        }
+        return found;
+    }
+
+    /// catégories non vides, dans leur ordre d'apparition
+    public Set<String> categories() {
+        return Collections.unmodifiableSet(buckets.keySet());
+    }
+
+    /// articles d'une catégorie, dans leur ordre d'apparition
+    public Collection<GroceryItem> itemsIn(String category) {
+        Map<String, GroceryItem> bucket = buckets.get(normalize(category));
+        return bucket == null ? Collections.emptyList() : Collections.unmodifiableCollection(bucket.values());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /// copie des articles sous forme de liste, groupés par catégorie
+    public List<GroceryItem> toList() {
+        List<GroceryItem> items = new ArrayList<>(size);
+        for (Map<String, GroceryItem> bucket : buckets.values()) {
+            items.addAll(bucket.values());
+        }
+        return items;
+    }
+
+    /// parcourt les articles catégorie par catégorie
+    @Override
+    public Iterator<GroceryItem> iterator() {
+        return new Iterator<>() {
+            private final Iterator<Map<String, GroceryItem>> bucketIterator = buckets.values().iterator();
+            private Iterator<GroceryItem> itemIterator = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!itemIterator.hasNext() && bucketIterator.hasNext()) {
+                    itemIterator = bucketIterator.next().values().iterator();
+                }
+                return itemIterator.hasNext();
+            }
+
+            @Override
+            public GroceryItem next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return itemIterator.next();
+            }
+        };
+    }
+
+    private boolean removeFromCategory(String name, String category) {
+        Map<String, GroceryItem> bucket = buckets.get(category);
+        if (bucket == null || bucket.remove(name) == null) {
+            return false;
+        }
+
+        size--;
+        if (bucket.isEmpty()) {
+            buckets.remove(category);
+        }
+        return true;
+    }
+
+    private static String normalize(String category) {
+        return (category != null && !category.isEmpty()) ? category : "default";
+    }
+}
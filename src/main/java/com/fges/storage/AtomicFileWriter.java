@@ -0,0 +1,125 @@
+package com.fges.storage;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Remplace un fichier de façon atomique : le nouveau contenu est écrit dans un fichier temporaire
+ * du même répertoire, forcé sur disque si demandé, puis renommé par-dessus l'original.
+ * Après un arrêt brutal on trouve soit l'ancien fichier, soit le nouveau, jamais un fichier tronqué.
+ * Sans commit(), la fermeture supprime le fichier temporaire et laisse l'original intact.
+ */
+final class AtomicFileWriter implements Closeable {
+    private final Path target;
+    private final Path temporary;
+    private final boolean fsync;
+    private final FileChannel channel;
+    private final OutputStream outputStream;
+    private boolean committed;
+
+    private AtomicFileWriter(Path target, Path temporary, boolean fsync, FileChannel channel) {
+        this.target = target;
+        this.temporary = temporary;
+        this.fsync = fsync;
+        this.channel = channel;
+        // fermer le flux (JsonGenerator, CSVWriter...) ne ferme pas le canal : commit() doit encore le forcer
+        this.outputStream = new FilterOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel))) {
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                out.write(bytes, offset, length);
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        };
+    }
+
+    /**
+     * Crée le fichier temporaire à côté de la cible
+     * @param target Fichier à remplacer
+     * @param fsync true pour forcer le contenu sur disque avant le renommage
+     */
+    static AtomicFileWriter open(Path target, boolean fsync) throws IOException {
+        Path directory = target.toAbsolutePath().getParent();
+        String prefix = target.getFileName().toString() + ".";
+
+        while (true) {
+            Path temporary = directory.resolve(prefix + Long.toHexString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+            try {
+                // CREATE_NEW respecte l'umask, contrairement à Files.createTempFile (0600)
+                FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                copyPermissions(target, temporary);
+                return new AtomicFileWriter(target, temporary, fsync, channel);
+            } catch (FileAlreadyExistsException e) {
+                // nom déjà pris, on en tire un autre
+            }
+        }
+    }
+
+    /// flux vers le fichier temporaire
+    OutputStream outputStream() {
+        return outputStream;
+    }
+
+    /// force le contenu sur disque si demandé puis remplace la cible
+    void commit() throws IOException {
+        outputStream.flush();
+        if (fsync) {
+            channel.force(true);
+        }
+        channel.close();
+
+        try {
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        committed = true;
+
+        if (fsync) {
+            forceDirectory(temporary.getParent());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+        if (!committed) {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static void copyPermissions(Path from, Path to) throws IOException {
+        if (!Files.exists(from)) {
+            return;
+        }
+        try {
+            Files.setPosixFilePermissions(to, Files.getPosixFilePermissions(from));
+        } catch (UnsupportedOperationException e) {
+            // système de fichiers non POSIX : permissions par défaut
+        }
+    }
+
+    /// rend le renommage durable ; certains systèmes (Windows) ne permettent pas d'ouvrir un répertoire
+    private static void forceDirectory(Path directory) {
+        try (FileChannel directoryChannel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            directoryChannel.force(true);
+        } catch (IOException e) {
+            // le contenu du fichier est déjà sur disque
+        }
+    }
+}
@@ -0,0 +1,359 @@
+package com.fges.storage;
+
+import com.fges.model.GroceryItem;
+import com.fges.model.GroceryList;
+import com.fges.util.FormatValidator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Implémentation du stockage dans un format binaire compact.
+ * Disposition du fichier :
+ * - en-tête : "GLB", version (1 octet), drapeaux (1 octet ; bit 0 : catégories et articles triés)
+ * - table des catégories : nombre de catégories puis chaque nom (longueur + UTF-8)
+ * - articles : nombre d'articles puis, pour chacun, l'indice de sa catégorie, son nom (longueur + UTF-8)
+ *   et sa quantité (zigzag, pour que les quantités négatives restent courtes)
+ * Les entiers sont des varints : 7 bits par octet, le bit de poids fort indique qu'un octet suit.
+ * La lecture projette le fichier en mémoire : list parcourt les articles sans créer de GroceryItem.
+ */
+public class BinaryGroceryListStorage implements GroceryListStorage {
+    static final byte[] MAGIC = {'G', 'L', 'B'};
+    static final byte VERSION = 1;
+    static final int FLAG_SORTED = 1;
+    private static final int HEADER_SIZE = MAGIC.length + 2;
+
+    private final String fileName;
+    private final boolean fsync;
+    private final boolean sorted;
+    private final FormatValidator formatValidator;
+
+    public BinaryGroceryListStorage(String fileName) {
+        this(fileName, true);
+    }
+
+    /**
+     * @param fileName Fichier de la liste
+     * @param fsync true pour forcer chaque sauvegarde sur disque avant de remplacer le fichier
+     */
+    public BinaryGroceryListStorage(String fileName, boolean fsync) {
+        this(fileName, fsync, false);
+    }
+
+    /**
+     * @param fileName Fichier de la liste
+     * @param fsync true pour forcer chaque sauvegarde sur disque avant de remplacer le fichier
+     * @param sorted true pour écrire catégories et articles triés et le signaler dans l'en-tête ;
+     *               un fichier déjà marqué reste trié même sans cette option
+     */
+    public BinaryGroceryListStorage(String fileName, boolean fsync, boolean sorted) {
+        this.fileName = fileName;
+        this.fsync = fsync;
+        this.sorted = sorted;
+        this.formatValidator = new FormatValidator();
+    }
+
+    /// charge la liste de courses à partir du fichier binaire
+    @Override
+    public List<GroceryItem> load() throws IOException {
+        List<GroceryItem> groceryList = new ArrayList<>();
+        try (GroceryItemCursor cursor = openCursor()) {
+            while (cursor.next()) {
+                groceryList.add(new GroceryItem(cursor.name(), cursor.quantity(), cursor.category()));
+            }
+        }
+        return groceryList;
+    }
+
+    /// parcourt le fichier projeté en mémoire ; seules les catégories sont décodées d'avance
+    @Override
+    public GroceryItemCursor openCursor() throws IOException {
+        Path filePath = Paths.get(fileName);
+
+        // Si le fichier n'existe pas ou est vide, la liste est vide
+        if (!Files.exists(filePath) || Files.size(filePath) == 0) {
+            return GroceryItemCursor.of(List.of());
+        }
+
+        // Valider le format du fichier
+        formatValidator.validateFileFormat(filePath, "bin");
+
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Binary grocery list larger than 2 GiB is not supported");
+            }
+            // la projection reste valide après la fermeture du canal
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        int flags = readHeader(buffer);
+        return new MappedCursor(buffer, (flags & FLAG_SORTED) != 0);
+    }
+
+    /**
+     * Sauvegarde la liste de courses dans le fichier binaire, écrite en flux par catégorie (CategoryGroups) :
+     * ni copie de la liste, sauf pour la trier, ni quantité en boîte. Pour un même article (catégorie, nom),
+     * la dernière quantité l'emporte, comme en JSON.
+     */
+    @Override
+    public void save(List<GroceryItem> groceryList) throws IOException {
+        writeFile((out, writeSorted) -> writeGrouped(out, groceryList, writeSorted));
+    }
+
+    /// écrit la liste indexée catégorie par catégorie : ses articles sont déjà uniques et groupés
+    @Override
+    public void saveGroceryList(GroceryList groceryList) throws IOException {
+        writeFile((out, writeSorted) -> {
+            if (writeSorted) {
+                writeGrouped(out, groceryList.toList(), true);
+                return;
+            }
+            writeVarint(out, groceryList.categories().size());
+            for (String category : groceryList.categories()) {
+                writeString(out, category);
+            }
+
+            writeVarint(out, groceryList.size());
+            int categoryIndex = 0;
+            for (String category : groceryList.categories()) {
+                for (GroceryItem item : groceryList.itemsIn(category)) {
+                    writeItem(out, categoryIndex, item);
+                }
+                categoryIndex++;
+            }
+        });
+    }
+
+    /// tables des catégories et des articles, écrites après l'en-tête ; writeSorted : à écrire triées
+    private interface ContentWriter {
+        void write(OutputStream out, boolean writeSorted) throws IOException;
+    }
+
+    /// remplace le fichier par l'en-tête suivi de ce qu'écrit `content`
+    private void writeFile(ContentWriter content) throws IOException {
+        Path filePath = Paths.get(fileName);
+        if (Files.exists(filePath) && Files.size(filePath) > 0) {
+            formatValidator.validateFileFormat(filePath, "bin");
+        }
+        boolean writeSorted = sorted || isSortedFile(filePath);
+
+        // fichier temporaire puis renommage : un arrêt brutal ne laisse jamais une liste tronquée
+        try (AtomicFileWriter writer = AtomicFileWriter.open(filePath, fsync)) {
+            OutputStream out = writer.outputStream();
+            out.write(MAGIC);
+            out.write(VERSION);
+            out.write(writeSorted ? FLAG_SORTED : 0);
+            content.write(out, writeSorted);
+            writer.commit();
+        }
+    }
+
+    /// catégories dans leur ordre d'apparition (ou triées), un article par (catégorie, nom)
+    private static void writeGrouped(OutputStream out, List<GroceryItem> groceryList, boolean writeSorted) throws IOException {
+        CategoryGroups groups = CategoryGroups.of(writeSorted ? CategoryGroups.sorted(groceryList) : groceryList);
+
+        // le nombre d'articles distincts précède les articles : une première passe de la table de doublons
+        int itemCount = 0;
+        writeVarint(out, groups.size());
+        for (int c = 0; c < groups.size(); c++) {
+            writeString(out, groups.category(c));
+            itemCount += groups.index(c);
+        }
+
+        writeVarint(out, itemCount);
+        for (int c = 0; c < groups.size(); c++) {
+            groups.index(c);
+            for (int position = groups.from(c); position < groups.to(c); position++) {
+                if (groups.isLast(position)) {
+                    writeItem(out, c, groups.item(position));
+                }
+            }
+        }
+    }
+
+    private static void writeItem(OutputStream out, int categoryIndex, GroceryItem item) throws IOException {
+        writeVarint(out, categoryIndex);
+        writeString(out, item.getName());
+        writeVarint(out, zigzag(item.getQuantity()));
+    }
+
+    /// vrai si le fichier existant a le drapeau de tri ; seul l'en-tête est lu
+    private boolean isSortedFile(Path filePath) throws IOException {
+        if (!Files.exists(filePath) || Files.size(filePath) < HEADER_SIZE) {
+            return false;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // un fichier local rend l'en-tête en une lecture, la boucle couvre les lectures partielles
+            }
+        }
+        header.flip();
+
+        try {
+            return (readHeader(header) & FLAG_SORTED) != 0;
+        } catch (IOException e) {
+            // pas un fichier binaire : il sera remplacé
+            return false;
+        }
+    }
+
+    /// vérifie l'en-tête et renvoie ses drapeaux
+    private int readHeader(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < HEADER_SIZE) {
+            throw new IOException("Not a binary grocery list: " + fileName);
+        }
+        for (byte expected : MAGIC) {
+            if (buffer.get() != expected) {
+                throw new IOException("Not a binary grocery list: " + fileName);
+            }
+        }
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IOException("Unsupported binary grocery list version " + version + ": " + fileName);
+        }
+        return buffer.get();
+    }
+
+    static int readVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint too long");
+    }
+
+    static void writeVarint(OutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static void writeString(OutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length);
+        out.write(bytes);
+    }
+
+    /// entier signé vers non signé : 0, -1, 1, -2... deviennent 0, 1, 2, 3...
+    static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Curseur sur le fichier projeté : la table des catégories est décodée à l'ouverture,
+     * chaque article à la demande. Les noms de catégories sont partagés entre les articles.
+     */
+    private final class MappedCursor implements GroceryItemCursor {
+        private final ByteBuffer buffer;
+        private final String[] categories;
+        private final boolean sorted;
+        private byte[] scratch = new byte[64];
+        private int remaining;
+
+        private String name;
+        private int quantity;
+        private String category;
+
+        MappedCursor(ByteBuffer buffer, boolean sorted) throws IOException {
+            this.buffer = buffer;
+            this.sorted = sorted;
+            try {
+                int categoryCount = readVarint(buffer);
+                // chaque catégorie occupe au moins un octet
+                if (categoryCount < 0 || categoryCount > buffer.remaining()) {
+                    throw new IllegalArgumentException("Invalid category count " + categoryCount);
+                }
+                categories = new String[categoryCount];
+                for (int i = 0; i < categories.length; i++) {
+                    categories[i] = readString();
+                }
+                remaining = readVarint(buffer);
+                if (remaining < 0) {
+                    throw new IllegalArgumentException("Invalid item count " + remaining);
+                }
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                throw corrupted(e);
+            }
+        }
+
+        @Override
+        public boolean next() throws IOException {
+            if (remaining == 0) {
+                return false;
+            }
+            try {
+                int categoryIndex = readVarint(buffer);
+                if (categoryIndex < 0 || categoryIndex >= categories.length) {
+                    throw new IllegalArgumentException("Unknown category index " + categoryIndex);
+                }
+                category = categories[categoryIndex];
+                name = readString();
+                quantity = unzigzag(readVarint(buffer));
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                throw corrupted(e);
+            }
+            remaining--;
+            return true;
+        }
+
+        @Override
+        public boolean isSorted() {
+            return sorted;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public int quantity() {
+            return quantity;
+        }
+
+        @Override
+        public String category() {
+            return category;
+        }
+
+        /// chaîne préfixée par sa longueur, copiée dans un tampon réutilisé avant décodage
+        private String readString() {
+            int length = readVarint(buffer);
+            if (length < 0 || length > buffer.remaining()) {
+                throw new BufferUnderflowException();
+            }
+            if (length > scratch.length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            buffer.get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        private IOException corrupted(RuntimeException cause) {
+            return new IOException("Corrupted binary grocery list: " + fileName, cause);
+        }
+    }
+}
@@ -0,0 +1,418 @@
+package com.fges.storage;
+
+import com.fges.model.GroceryItem;
+import com.fges.model.GroceryList;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Décorateur gardant la liste en mémoire après le premier chargement.
+ * Les lectures sont servies depuis la mémoire. Deux modes d'écriture :
+ * - écriture immédiate (seuil de 1) : chaque modification est transmise au stockage sous-jacent
+ * - écriture groupée (seuil supérieur à 1) : les modifications restent en mémoire et toute la liste
+ *   est sauvegardée une fois le seuil atteint, à chaque intervalle, ou à la fermeture
+ * Le cache est sûr entre threads : les lectures se font en parallèle sous verrou de lecture,
+ * les modifications sont sérialisées sous verrou d'écriture. Un article déjà rendu par une lecture
+ * n'est jamais modifié : une modification remplace l'article dans le cache.
+ * Le fichier n'est jamais écrit sous le verrou de lecture/écriture : une écriture lente sur disque
+ * ne bloque pas les lectures, qui voient l'état précédent jusqu'à la fin de l'écriture.
+ * Avec les threads virtuels, la sauvegarde déclenchée par le seuil part sur un thread virtuel
+ * au lieu d'être faite par le thread de la modification.
+ * Le cache suppose que le fichier n'est modifié que par son intermédiaire, sauf s'il le surveille (watch) :
+ * la liste est alors relue au premier accès après un changement du fichier, à moins que des modifications
+ * soient en attente, auquel cas leur sauvegarde remplacera le fichier.
+ */
+public class CachedGroceryListStorage implements GroceryListStorage, Closeable {
+    private final GroceryListStorage delegate;
+    private final int flushThreshold;
+    private final ScheduledExecutorService flusher;
+    // sauvegardes déclenchées par le seuil, null pour les faire sur le thread de la modification
+    private final ExecutorService backgroundFlusher;
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // sérialise les écritures du stockage sous-jacent pour qu'une liste plus ancienne n'écrase jamais une plus récente ;
+    // pas de synchronized : un thread virtuel bloqué dessus pendant une écriture immobiliserait son thread porteur
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private GroceryList cache;
+    private int dirtyWrites;
+    // fichier changé sur disque depuis le dernier chargement (watch)
+    private volatile boolean stale;
+
+    /// cache en écriture immédiate
+    public CachedGroceryListStorage(GroceryListStorage delegate) {
+        this(delegate, Duration.ZERO, 1);
+    }
+
+    /**
+     * @param delegate Stockage sous-jacent
+     * @param flushInterval Délai entre deux sauvegardes des modifications en attente, Duration.ZERO pour aucune sauvegarde périodique
+     * @param flushThreshold Nombre de modifications en attente déclenchant une sauvegarde ; 1 pour écrire chaque modification
+     */
+    public CachedGroceryListStorage(GroceryListStorage delegate, Duration flushInterval, int flushThreshold) {
+        this(delegate, flushInterval, flushThreshold, false);
+    }
+
+    /**
+     * @param delegate Stockage sous-jacent
+     * @param flushInterval Délai entre deux sauvegardes des modifications en attente, Duration.ZERO pour aucune sauvegarde périodique
+     * @param flushThreshold Nombre de modifications en attente déclenchant une sauvegarde ; 1 pour écrire chaque modification
+     * @param virtualThreads true pour faire la sauvegarde déclenchée par le seuil sur un thread virtuel,
+     *                       sans faire attendre la modification qui l'a déclenchée ; refusé avec un seuil de 1
+     */
+    public CachedGroceryListStorage(GroceryListStorage delegate, Duration flushInterval, int flushThreshold, boolean virtualThreads) {
+        if (flushThreshold < 1) {
+            throw new IllegalArgumentException("Flush threshold must be at least 1");
+        }
+        // en écriture immédiate, chaque modification attend sa sauvegarde : il n'y a rien à faire en arrière-plan
+        if (virtualThreads && flushThreshold == 1) {
+            throw new IllegalArgumentException("Virtual-thread flushes need a flush threshold above 1");
+        }
+        this.delegate = delegate;
+        this.flushThreshold = flushThreshold;
+
+        if (flushThreshold > 1 && !flushInterval.isZero() && !flushInterval.isNegative()) {
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "grocery-list-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long intervalMillis = Math.max(1, flushInterval.toMillis());
+            flusher.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            flusher = null;
+        }
+
+        backgroundFlusher = virtualThreads
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("grocery-list-flush-", 0).factory())
+                : null;
+    }
+
+    @Override
+    public List<GroceryItem> load() throws IOException {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            return cache.toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /// copie de la liste en mémoire ; les articles sont partagés avec le cache et ne doivent pas être modifiés
+    @Override
+    public GroceryList loadGroceryList() throws IOException {
+        return new GroceryList(load());
+    }
+
+    /// sauvegarde toujours immédiatement et remplace le contenu du cache
+    @Override
+    public void save(List<GroceryItem> groceryList) throws IOException {
+        flushLock.lock();
+        try {
+            delegate.save(groceryList);
+            lock.writeLock().lock();
+            try {
+                cache = new GroceryList(groceryList);
+                dirtyWrites = 0;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    public void upsert(String name, String category, int delta) throws IOException {
+        ensureLoaded();
+        if (!isWriteBehind()) {
+            // fichier d'abord, hors verrou de lecture, puis mémoire
+            flushLock.lock();
+            try {
+                delegate.upsert(name, category, delta);
+                lock.writeLock().lock();
+                try {
+                    replace(name, category, delta);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            } finally {
+                flushLock.unlock();
+            }
+            return;
+        }
+
+        boolean flushNow;
+        lock.writeLock().lock();
+        try {
+            replace(name, category, delta);
+            flushNow = ++dirtyWrites >= flushThreshold;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (flushNow) {
+            requestFlush();
+        }
+    }
+
+    @Override
+    public boolean remove(String name, String category) throws IOException {
+        ensureLoaded();
+        if (!isWriteBehind()) {
+            flushLock.lock();
+            try {
+                // article absent : inutile de toucher au fichier
+                lock.readLock().lock();
+                try {
+                    if (!isPresent(name, category)) {
+                        return false;
+                    }
+                } finally {
+                    lock.readLock().unlock();
+                }
+
+                delegate.remove(name, category);
+                lock.writeLock().lock();
+                try {
+                    return cache.remove(name, category);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            } finally {
+                flushLock.unlock();
+            }
+        }
+
+        boolean flushNow;
+        lock.writeLock().lock();
+        try {
+            if (!isPresent(name, category)) {
+                return false;
+            }
+
+            cache.remove(name, category);
+            flushNow = ++dirtyWrites >= flushThreshold;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (flushNow) {
+            requestFlush();
+        }
+        return true;
+    }
+
+    /// sauvegarde les modifications en attente ; les lectures restent servies pendant l'écriture
+    public void flush() throws IOException {
+        flushLock.lock();
+        try {
+            List<GroceryItem> snapshot;
+            int flushed;
+            lock.writeLock().lock();
+            try {
+                if (dirtyWrites == 0) {
+                    return;
+                }
+                // les articles ne sont jamais modifiés sur place : la copie de la liste suffit
+                snapshot = cache.toList();
+                flushed = dirtyWrites;
+                dirtyWrites = 0;
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            try {
+                delegate.save(snapshot);
+            } catch (IOException e) {
+                // les modifications restent en attente pour la prochaine sauvegarde
+                lock.writeLock().lock();
+                try {
+                    dirtyWrites += flushed;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /// nombre de modifications pas encore sauvegardées
+    public int pendingWrites() {
+        lock.readLock().lock();
+        try {
+            return dirtyWrites;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /// arrête la sauvegarde périodique et sauvegarde les modifications en attente
+    @Override
+    public void close() throws IOException {
+        awaitShutdown(flusher);
+        awaitShutdown(backgroundFlusher);
+
+        try {
+            flush();
+        } finally {
+            if (delegate instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    /// surveille le fichier du stockage sous-jacent ; chaque changement fait relire la liste au prochain accès
+    @Override
+    public boolean watch(Runnable onChange) throws IOException {
+        return delegate.watch(() -> {
+            stale = true;
+            onChange.run();
+        });
+    }
+
+    private boolean isWriteBehind() {
+        return flushThreshold > 1;
+    }
+
+    /// sauvegarde due au seuil : sur un thread virtuel si possible, sinon tout de suite
+    private void requestFlush() throws IOException {
+        if (backgroundFlusher == null) {
+            flush();
+            return;
+        }
+        // une sauvegarde demandée et pas encore commencée emportera aussi cette modification
+        if (flushQueued.compareAndSet(false, true)) {
+            try {
+                backgroundFlusher.execute(() -> {
+                    flushQueued.set(false);
+                    flushQuietly();
+                });
+            } catch (RejectedExecutionException e) {
+                // cache fermé
+                flushQueued.set(false);
+                flush();
+            }
+        }
+    }
+
+    private static void awaitShutdown(ExecutorService executor) {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                System.err.println("Warning: grocery list flush still running");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /// vrai si l'article est dans le cache ; à appeler sous verrou
+    private boolean isPresent(String name, String category) {
+        return category != null
+                ? cache.get(name, category) != null
+                : !cache.findByName(name).isEmpty();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException e) {
+            System.err.println("Warning: grocery list flush failed: " + e.getMessage());
+        }
+    }
+
+    /// ajoute delta à la quantité en remplaçant l'article, sans modifier l'instance déjà publiée
+    private void replace(String name, String category, int delta) {
+        GroceryItem current = cache.get(name, category);
+        if (current == null) {
+            cache.put(new GroceryItem(name, delta, category));
+        } else {
+            cache.put(new GroceryItem(name, current.getQuantity() + delta, current.getCategory()));
+        }
+    }
+
+    /// charge la liste au premier accès, et la relit si le fichier a changé
+    private void ensureLoaded() throws IOException {
+        if (stale) {
+            reload();
+        }
+
+        lock.readLock().lock();
+        try {
+            if (cache != null) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (cache == null) {
+                cache = loadFromDelegate();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /// remplit la liste indexée au fil d'un curseur : ni liste intermédiaire, ni copie de la liste gardée par le stockage
+    private GroceryList loadFromDelegate() throws IOException {
+        GroceryList groceryList = new GroceryList();
+        try (GroceryItemCursor cursor = delegate.openCursor()) {
+            while (cursor.next()) {
+                groceryList.put(new GroceryItem(cursor.name(), cursor.quantity(), cursor.category()));
+            }
+        }
+        return groceryList;
+    }
+
+    /// relit le fichier changé ; les lectures sont servies par l'ancienne liste pendant la lecture
+    private void reload() {
+        // aucune écriture du fichier pendant sa lecture : en écriture immédiate, aucune modification non plus
+        flushLock.lock();
+        try {
+            if (!stale) {
+                return;
+            }
+            stale = false;
+            GroceryList reloaded;
+            try {
+                reloaded = loadFromDelegate();
+            } catch (IOException e) {
+                // fichier en cours d'édition ou invalide : la liste en mémoire reste servie jusqu'au prochain changement
+                System.err.println("Warning: grocery list reload failed: " + e.getMessage());
+                return;
+            }
+            lock.writeLock().lock();
+            try {
+                // des modifications en attente l'emportent : leur sauvegarde remplacera le fichier
+                if (dirtyWrites == 0) {
+                    cache = reloaded;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.fges.storage;
+
+import com.fges.model.GroceryItem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Articles d'une liste regroupés par catégorie pour l'écriture, sans copie de la liste.
+ * Catégories dans leur ordre d'apparition, articles dans l'ordre de la liste : une liste déjà groupée
+ * (load()) est parcourue telle quelle, sinon un seul tableau d'indices (un int par article) la regroupe.
+ * Pour un même article (catégorie, nom), seule la dernière occurrence compte : index(c) remplit une table
+ * de hachage d'indices (sondage linéaire), réutilisée d'une catégorie à l'autre, sans créer d'objet.
+ */
+final class CategoryGroups {
+    /// ordre d'un fichier marqué trié
+    static final Comparator<GroceryItem> SORTED_ORDER = Comparator
+            .comparing(CategoryGroups::categoryOf)
+            .thenComparing(GroceryItem::getName);
+
+    private final List<GroceryItem> items;
+    private final String[] categories;
+    /// fin (exclue) de chaque catégorie dans order
+    private final int[] ends;
+    /// indices des articles groupés par catégorie, ou null si la liste l'est déjà
+    private final int[] order;
+    /// table de travail, d'au moins quatre fois la taille de la plus grande catégorie
+    private final int[] lastIndex;
+    private int mask;
+
+    private CategoryGroups(List<GroceryItem> items, String[] categories, int[] ends, int[] order, int largest) {
+        this.items = items;
+        this.categories = categories;
+        this.ends = ends;
+        this.order = order;
+        this.lastIndex = new int[Integer.highestOneBit(Math.max(1, largest)) << 2];
+    }
+
+    static CategoryGroups of(List<GroceryItem> items) {
+        // une passe : taille de chaque catégorie, et la liste est-elle déjà groupée ?
+        Map<String, int[]> counts = new LinkedHashMap<>();
+        boolean grouped = true;
+        String previous = null;
+        int[] count = null;
+        for (GroceryItem item : items) {
+            String category = categoryOf(item);
+            if (!category.equals(previous)) {
+                count = counts.get(category);
+                if (count == null) {
+                    count = new int[1];
+                    counts.put(category, count);
+                } else {
+                    grouped = false;
+                }
+                previous = category;
+            }
+            count[0]++;
+        }
+
+        String[] categories = counts.keySet().toArray(new String[0]);
+        int[] ends = new int[categories.length];
+        int largest = 0;
+        int start = 0;
+        for (int c = 0; c < categories.length; c++) {
+            int[] categoryCount = counts.get(categories[c]);
+            int size = categoryCount[0];
+            largest = Math.max(largest, size);
+            // tri par dénombrement : count devient le début de la catégorie dans order
+            categoryCount[0] = start;
+            start += size;
+            ends[c] = start;
+        }
+        if (grouped) {
+            return new CategoryGroups(items, categories, ends, null, largest);
+        }
+
+        int[] order = new int[items.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[counts.get(categoryOf(items.get(i)))[0]++] = i;
+        }
+        return new CategoryGroups(items, categories, ends, order, largest);
+    }
+
+    /// la liste elle-même si elle suit déjà SORTED_ORDER, sinon une copie triée
+    static List<GroceryItem> sorted(List<GroceryItem> items) {
+        for (int i = 1; i < items.size(); i++) {
+            if (SORTED_ORDER.compare(items.get(i - 1), items.get(i)) > 0) {
+                List<GroceryItem> copy = new ArrayList<>(items);
+                copy.sort(SORTED_ORDER);
+                return copy;
+            }
+        }
+        return items;
+    }
+
+    static String categoryOf(GroceryItem item) {
+        return item.getCategory() != null ? item.getCategory() : "default";
+    }
+
+    int size() {
+        return categories.length;
+    }
+
+    String category(int c) {
+        return categories[c];
+    }
+
+    /// première position (incluse) de la catégorie c
+    int from(int c) {
+        return c == 0 ? 0 : ends[c - 1];
+    }
+
+    /// dernière position (exclue) de la catégorie c
+    int to(int c) {
+        return ends[c];
+    }
+
+    GroceryItem item(int position) {
+        return items.get(indexAt(position));
+    }
+
+    /// remplit la table de doublons de la catégorie c et renvoie son nombre d'articles distincts
+    int index(int c) {
+        int from = from(c);
+        int to = to(c);
+        mask = Integer.highestOneBit(Math.max(1, to - from)) * 4 - 1;
+        Arrays.fill(lastIndex, 0, mask + 1, -1);
+        int distinct = 0;
+        for (int position = from; position < to; position++) {
+            int index = indexAt(position);
+            int slot = slotOf(items.get(index).getName());
+            if (lastIndex[slot] < 0) {
+                distinct++;
+            }
+            lastIndex[slot] = index;
+        }
+        return distinct;
+    }
+
+    /// vrai si l'article à cette position (de la dernière catégorie indexée) est la dernière occurrence de son nom
+    boolean isLast(int position) {
+        int index = indexAt(position);
+        return lastIndex[slotOf(items.get(index).getName())] == index;
+    }
+
+    private int indexAt(int position) {
+        return order == null ? position : order[position];
+    }
+
+    /// case de la table occupée par ce nom, ou première case libre sur son chemin
+    private int slotOf(String name) {
+        int hash = name.hashCode() * 0x9E3779B9;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (lastIndex[slot] >= 0 && !items.get(lastIndex[slot]).getName().equals(name)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+}
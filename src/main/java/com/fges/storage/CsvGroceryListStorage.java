@@ -1,107 +1,293 @@
 package com.fges.storage;
 
+import com.fges.metrics.LatencyHistogram;
+import com.fges.metrics.Metrics;
+import com.fges.model.CompactGroceryList;
 import com.fges.model.GroceryItem;
 import com.fges.util.FormatValidator;
 import com.opencsv.CSVReader;
 import com.opencsv.CSVWriter;
 import com.opencsv.exceptions.CsvValidationException;
 
+import java.io.Closeable;
 import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Implémentation du stockage en format CSV
  */
-public class CsvGroceryListStorage implements GroceryListStorage {
+public class CsvGroceryListStorage implements GroceryListStorage, Closeable {
+    /// lecture du fichier seule, sans la validation du format (format.validate)
+    private static final LatencyHistogram PARSES = Metrics.histogram("csv.parse");
     private final String fileName;
+    private final boolean fsync;
     private final FormatValidator formatValidator;
+    private final FileLoadCache loadCache;
 
     public CsvGroceryListStorage(String fileName) {
+        this(fileName, true);
+    }
+
+    /**
+     * @param fileName Fichier de la liste
+     * @param fsync true pour forcer chaque écriture sur disque
+     */
+    public CsvGroceryListStorage(String fileName, boolean fsync) {
         this.fileName = fileName;
+        this.fsync = fsync;
         this.formatValidator = new FormatValidator();
+        this.loadCache = new FileLoadCache(Paths.get(fileName));
+    }
+
+    /// liste gardée entre deux chargements du fichier inchangé
+    public FileLoadCache loadCache() {
+        return loadCache;
+    }
+
+    /// oublie la liste gardée et prévient onChange dès que le fichier change (FileLoadCache.watch)
+    @Override
+    public boolean watch(Runnable onChange) throws IOException {
+        loadCache.watch(onChange);
+        return true;
     }
 
     ///charge la liste de courses à partir d'un fichier CSV
     @Override
     public List<GroceryItem> load() throws IOException {
         Path filePath = Paths.get(fileName);
-        List<GroceryItem> groceryList = new ArrayList<>();
 
-        // Si le fichier n'existe pas ou est vide, retourner une liste vide
-        if (!Files.exists(filePath)) {
+        // Si le fichier n'existe pas, retourner une liste vide
+        BasicFileAttributes attributes = FileLoadCache.attributesOf(filePath);
+        if (attributes == null) {
+            return new ArrayList<>();
+        }
+
+        // fichier inchangé depuis le dernier chargement : ni validation ni parsing, mais une copie
+        // des articles (O(n)), load() rendant des articles modifiables ; les lecteurs passent par openCursor ou loadCompact
+        CompactGroceryList cached = loadCache.get(attributes);
+        if (cached != null) {
+            return cached.toList();
+        }
+
+        if (attributes.size() > 0) {
+            formatValidator.validateFileFormat(filePath, "csv");
+        }
+
+        // Lecture en un seul passage sur les octets du fichier
+        long start = System.nanoTime();
+        try {
+            List<GroceryItem> items;
+            if (loadCache.readBefore(attributes)) {
+                // deuxième lecture de cet état : le cache est rempli en flux, la copie vient de la liste gardée
+                try (GroceryItemCursor cursor = new StreamingCsvLoader().open(filePath)) {
+                    items = loadCache.fill(attributes, cursor).toList();
+                }
+            } else {
+                items = new StreamingCsvLoader().load(filePath);
+                loadCache.noteRead(attributes);
+            }
+            PARSES.record(System.nanoTime() - start);
+            return items;
+        } catch (IOException | RuntimeException e) {
+            PARSES.recordFailure(System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    /// liste gardée par le cache (figée, sans copie) si le fichier n'a pas changé, sinon lue en flux
+    @Override
+    public CompactGroceryList loadCompact() throws IOException {
+        BasicFileAttributes attributes = FileLoadCache.attributesOf(Paths.get(fileName));
+        CompactGroceryList cached = attributes != null ? loadCache.get(attributes) : null;
+        if (cached != null) {
+            return cached;
+        }
+
+        try (GroceryItemCursor cursor = openCursor()) {
+            // deuxième lecture : openCursor vient de garder la liste, rendue sans copie
+            CompactGroceryList kept = attributes != null ? loadCache.get(attributes) : null;
+            if (kept != null) {
+                return kept;
+            }
+            CompactGroceryList groceryList = new CompactGroceryList();
+            while (cursor.next()) {
+                groceryList.add(cursor.name(), cursor.quantity(), cursor.category());
+            }
+            groceryList.trimToSize();
             return groceryList;
         }
+    }
+
+    /// parcourt le fichier CSV au fil de la lecture
+    @Override
+    public GroceryItemCursor openCursor() throws IOException {
+        Path filePath = Paths.get(fileName);
+        BasicFileAttributes attributes = FileLoadCache.attributesOf(filePath);
+        if (attributes == null) {
+            return GroceryItemCursor.of(List.of());
+        }
+
+        GroceryItemCursor cached = loadCache.openCursor(attributes);
+        if (cached != null) {
+            return cached;
+        }
 
-        if (Files.size(filePath) > 0) {
+        if (attributes.size() > 0) {
             formatValidator.validateFileFormat(filePath, "csv");
         }
+        if (!loadCache.readBefore(attributes)) {
+            loadCache.noteRead(attributes);
+            return new StreamingCsvLoader().open(filePath);
+        }
 
-        // Lire le fichier CSV
-        try (CSVReader reader = new CSVReader(new FileReader(fileName))) {
-            String[] header = reader.readNext();
+        // deuxième lecture de cet état : la liste est gardée au passage, puis parcourue en mémoire
+        try (GroceryItemCursor cursor = new StreamingCsvLoader().open(filePath)) {
+            return GroceryItemCursor.of(loadCache.fill(attributes, cursor), false);
+        }
+    }
 
-            boolean hasCategory = false;
-            if (header != null && header.length >= 3 &&
-                    header[0].equalsIgnoreCase("name") &&
-                    header[1].equalsIgnoreCase("quantity") &&
-                    header[2].equalsIgnoreCase("category")) {
-                hasCategory = true;
-            } else if (header == null || header.length < 2 ||
-                    !header[0].equalsIgnoreCase("name") ||
-                    !header[1].equalsIgnoreCase("quantity")) {
-                System.err.println("Warning: CSV file has invalid header format");
-                return groceryList;
+    /// sauvegarde la liste de courses dans un fichier CSV
+    @Override
+    public void save(List<GroceryItem> groceryList) throws IOException {
+        try (Closeable ignored = loadCache.writing()) {
+            Path filePath = Paths.get(fileName);
+            loadCache.invalidate();
+            if (Files.exists(filePath) && Files.size(filePath) > 0) {
+                formatValidator.validateFileFormat(filePath, "csv");
             }
 
-            String[] line;
-            while ((line = reader.readNext()) != null) {
-                if (line.length >= 2) {
-                    try {
-                        String name = line[0];
-                        int quantity = Integer.parseInt(line[1]);
-
-                        String category = "default";
-                        if (hasCategory && line.length >= 3 && line[2] != null && !line[2].isEmpty()) {
-                            category = line[2];
-                        }
-
-                        groceryList.add(new GroceryItem(name, quantity, category));
-                    } catch (NumberFormatException e) {
-                        System.err.println("Warning: Ignoring row with non-numeric quantity: " + line[0]);
+            // fichier temporaire puis renommage : un arrêt brutal ne laisse jamais une liste tronquée
+            try (AtomicFileWriter file = AtomicFileWriter.open(filePath, fsync)) {
+                try (CSVWriter writer = new CSVWriter(new OutputStreamWriter(file.outputStream(), StandardCharsets.UTF_8))) {
+                    writer.writeNext(new String[]{"name", "quantity", "category"});
+
+                    for (GroceryItem item : groceryList) {
+                        writer.writeNext(new String[]{
+                                item.getName(),
+                                String.valueOf(item.getQuantity()),
+                                item.getCategory() != null ? item.getCategory() : "default"
+                        });
                     }
                 }
+                file.commit();
             }
-        } catch (CsvValidationException e) {
-            throw new IOException("Error reading CSV file: " + e.getMessage(), e);
+            loadCache.written();
         }
+    }
+
+    /// incrémente un article existant, ou ajoute une ligne en fin de fichier sans le réécrire
+    @Override
+    public void upsert(String name, String category, int delta) throws IOException {
+        try (Closeable ignored = loadCache.writing()) {
+            String targetCategory = (category != null && !category.isEmpty()) ? category : "default";
+            Path filePath = Paths.get(fileName);
+            loadCache.invalidate();
+
+            if (!hasFullHeader(filePath)) {
+                GroceryListStorage.super.upsert(name, targetCategory, delta);
+                return;
+            }
+
+            if (rewrite(name, targetCategory, delta, true) != RewriteResult.UNCHANGED) {
+                return;
+            }
+
+            // article absent : une seule ligne à ajouter
+            try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                ByteBuffer lastByte = ByteBuffer.allocate(1);
+                channel.read(lastByte, channel.size() - 1);
+                boolean endsWithNewline = lastByte.get(0) == '\n' || lastByte.get(0) == '\r';
 
-        return groceryList;
+                channel.position(channel.size());
+                Writer fileWriter = new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8);
+                if (!endsWithNewline) {
+                    fileWriter.write("\n");
+                }
+                CSVWriter writer = new CSVWriter(fileWriter);
+                writer.writeNext(new String[]{name, String.valueOf(delta), targetCategory});
+                writer.flush();
+
+                if (fsync) {
+                    channel.force(false);
+                }
+            }
+            loadCache.written();
+        }
     }
 
-    /// sauvegarde la liste de courses dans un fichier CSV
+    /// supprime les lignes correspondantes en recopiant le fichier ligne par ligne
     @Override
-    public void save(List<GroceryItem> groceryList) throws IOException {
-        Path filePath = Paths.get(fileName);
-        if (Files.exists(filePath) && Files.size(filePath) > 0) {
-            formatValidator.validateFileFormat(filePath, "csv");
+    public boolean remove(String name, String category) throws IOException {
+        try (Closeable ignored = loadCache.writing()) {
+            loadCache.invalidate();
+            if (!hasFullHeader(Paths.get(fileName))) {
+                return GroceryListStorage.super.remove(name, category);
+            }
+            return rewrite(name, category, 0, false) == RewriteResult.CHANGED;
         }
+    }
+
+    /// arrête la surveillance du fichier (FileLoadCache.watch)
+    @Override
+    public void close() throws IOException {
+        loadCache.close();
+    }
+
+    /// résultat d'une réécriture en flux
+    private enum RewriteResult {
+        CHANGED,
+        UNCHANGED
+    }
+
+    /// vrai si le fichier existe et commence par l'en-tête name,quantity,category
+    private boolean hasFullHeader(Path filePath) throws IOException {
+        if (!Files.exists(filePath) || Files.size(filePath) == 0) {
+            return false;
+        }
+
+        formatValidator.validateFileFormat(filePath, "csv");
+
+        try (CSVReader reader = new CSVReader(new FileReader(fileName))) {
+            String[] header = reader.readNext();
+            return header != null && header.length >= 3 &&
+                    header[0].equalsIgnoreCase("name") &&
+                    header[1].equalsIgnoreCase("quantity") &&
+                    header[2].equalsIgnoreCase("category");
+        } catch (CsvValidationException e) {
+            throw new IOException("Error reading CSV file: " + e.getMessage(), e);
+        }
+    }
 
-        try (CSVWriter writer = new CSVWriter(new FileWriter(fileName))) {
-            writer.writeNext(new String[]{"name", "quantity", "category"});
+    /**
+     * Recopie le fichier dans un fichier temporaire en une seule lecture, en modifiant (keep) ou en omettant
+     * (suppression) l'article (name, category), puis remplace l'original.
+     * Si aucune ligne ne correspond, le fichier temporaire est supprimé et l'original reste intact.
+     * @param category Catégorie visée, ou null pour toutes les catégories
+     */
+    private RewriteResult rewrite(String name, String category, int delta, boolean keep) throws IOException {
+        Path filePath = Paths.get(fileName);
 
-            for (GroceryItem item : groceryList) {
-                writer.writeNext(new String[]{
-                        item.getName(),
-                        String.valueOf(item.getQuantity()),
-                        item.getCategory() != null ? item.getCategory() : "default"
-                });
+        try (AtomicFileWriter file = AtomicFileWriter.open(filePath, fsync)) {
+            if (!new StreamingCsvLoader().rewrite(filePath, file.outputStream(), name, category, delta, keep)) {
+                return RewriteResult.UNCHANGED;
             }
+
+            file.commit();
+            loadCache.written();
+            return RewriteResult.CHANGED;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,223 @@
+package com.fges.storage;
+
+import com.fges.model.CompactGroceryList;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Dernière liste chargée d'un fichier, resservie sans relire le fichier tant qu'il n'a pas changé.
+ * Le fichier est reconnu par son identifiant (inode), sa taille et sa date de modification ;
+ * une sauvegarde atomique remplace le fichier, qui change alors d'identifiant.
+ * La liste n'est gardée qu'au deuxième chargement d'un même état du fichier :
+ * une commande qui ne charge qu'une fois ne garde rien en mémoire.
+ * Ce deuxième chargement lit le fichier en flux (curseur) et range les articles directement en colonnes (fill),
+ * sans passer par une liste de GroceryItem.
+ * La liste est gardée en colonnes (CompactGroceryList), soit une douzaine d'octets par article plus son nom :
+ * un serveur garde ainsi les plus grandes listes sans doubler la mémoire de chaque chargement.
+ * La liste gardée est figée et partagée telle quelle par loadCompact() et les curseurs, sans copie ;
+ * seul load(), qui rend des GroceryItem modifiables, en fait une copie à chaque appel.
+ * En option, un WatchService oublie la liste dès que le fichier est touché, même par une écriture en place
+ * qui ne changerait ni sa taille ni sa date (dates à la seconde sur certains systèmes de fichiers).
+ * Les événements de ses propres écritures (notées par written()) sont ignorés : le fichier y est encore
+ * tel que ce stockage l'a écrit. Seule exception, une écriture extérieure en place juste après une sauvegarde,
+ * qui garderait la même taille, la même date et le même inode, passe alors inaperçue.
+ */
+public class FileLoadCache implements Closeable {
+    private final Path filePath;
+    private volatile boolean enabled = true;
+    // état du fichier au dernier chargement, avec la liste lue si cet état a déjà été chargé deux fois
+    private volatile Snapshot snapshot;
+    // état du fichier juste après la dernière écriture de ce stockage, que la surveillance n'a pas à signaler
+    private volatile Snapshot written;
+    // tenu pendant chaque écriture de ce stockage, jusqu'à written() : la surveillance attend qu'elle soit notée
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private WatchService watchService;
+    // prévenu par la surveillance après chaque oubli de la liste
+    private volatile Runnable onChange = () -> {
+    };
+
+    // sorted : articles gardés triés par catégorie puis par nom, chacun une seule fois, comme un fichier "@sorted"
+    private record Snapshot(Object fileKey, long size, FileTime lastModified, CompactGroceryList items, boolean sorted) {
+        boolean matches(BasicFileAttributes attributes) {
+            return size == attributes.size()
+                    && lastModified.equals(attributes.lastModifiedTime())
+                    && Objects.equals(fileKey, attributes.fileKey());
+        }
+    }
+
+    FileLoadCache(Path filePath) {
+        this.filePath = filePath.toAbsolutePath();
+    }
+
+    /// attributs du fichier, null s'il n'existe pas
+    static BasicFileAttributes attributesOf(Path filePath) throws IOException {
+        try {
+            return Files.readAttributes(filePath, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /// liste gardée, figée et partagée, si le fichier est dans le même état ; null s'il faut le relire
+    CompactGroceryList get(BasicFileAttributes attributes) {
+        Snapshot current = snapshot;
+        if (current == null || current.items() == null || !current.matches(attributes)) {
+            return null;
+        }
+        return current.items();
+    }
+
+    /// curseur sur la liste gardée si le fichier est dans le même état, null s'il faut le relire
+    GroceryItemCursor openCursor(BasicFileAttributes attributes) {
+        Snapshot current = snapshot;
+        if (current == null || current.items() == null || !current.matches(attributes)) {
+            return null;
+        }
+        // un fichier trié reste trié en mémoire : list n'a toujours rien à trier
+        return GroceryItemCursor.of(current.items(), current.sorted());
+    }
+
+    /// vrai si cet état du fichier a déjà été lu : la lecture suivante doit alors remplir le cache (fill)
+    boolean readBefore(BasicFileAttributes attributes) {
+        Snapshot current = snapshot;
+        return enabled && current != null && current.matches(attributes);
+    }
+
+    /// note une lecture de cet état du fichier, sans rien garder
+    void noteRead(BasicFileAttributes attributes) {
+        if (enabled) {
+            snapshot = new Snapshot(attributes.fileKey(), attributes.size(), attributes.lastModifiedTime(), null, false);
+        }
+    }
+
+    /**
+     * Garde les articles lus par le curseur pour cet état du fichier, directement en colonnes :
+     * aucune liste de GroceryItem n'est créée, la mémoire ne dépasse pas celle de la liste gardée.
+     * @return La liste gardée, figée
+     */
+    CompactGroceryList fill(BasicFileAttributes attributes, GroceryItemCursor cursor) throws IOException {
+        CompactGroceryList kept = new CompactGroceryList();
+        while (cursor.next()) {
+            kept.add(cursor.name(), cursor.quantity(), cursor.category());
+        }
+        kept.trimToSize();
+        kept.freeze();
+        if (enabled) {
+            snapshot = new Snapshot(attributes.fileKey(), attributes.size(), attributes.lastModifiedTime(), kept, cursor.isSorted());
+        }
+        return kept;
+    }
+
+    /// à tenir pendant une écriture de ce stockage : try (Closeable ignored = loadCache.writing()) { ...; written(); }
+    Closeable writing() {
+        writeLock.lock();
+        return writeLock::unlock;
+    }
+
+    /// note l'état du fichier après une écriture de ce stockage : la surveillance ignore ensuite les événements qui le retrouvent
+    void written() throws IOException {
+        BasicFileAttributes attributes = attributesOf(filePath);
+        written = attributes == null ? null
+                : new Snapshot(attributes.fileKey(), attributes.size(), attributes.lastModifiedTime(), null, false);
+    }
+
+    /// oublie la liste gardée ; le prochain chargement relit le fichier
+    public void invalidate() {
+        snapshot = null;
+    }
+
+    /// relit le fichier à chaque chargement, comme sans cache (mesures du parsing)
+    public void disable() {
+        enabled = false;
+        invalidate();
+    }
+
+    /// surveille le répertoire du fichier et oublie la liste dès qu'il est créé, modifié ou supprimé
+    public void watch() throws IOException {
+        watch(() -> {
+        });
+    }
+
+    /// comme watch(), en appelant aussi onChange (sur le thread de surveillance) à chaque changement du fichier
+    public synchronized void watch(Runnable onChange) throws IOException {
+        this.onChange = onChange;
+        if (watchService != null) {
+            return;
+        }
+
+        Path directory = filePath.getParent();
+        WatchService service = FileSystems.getDefault().newWatchService();
+        directory.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        watchService = service;
+
+        Thread watcher = new Thread(() -> watchLoop(service), "grocery-list-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /// arrête la surveillance du fichier
+    @Override
+    public synchronized void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+            watchService = null;
+        }
+    }
+
+    /// vrai si le fichier est encore tel que ce stockage l'a écrit : l'événement vient de sa propre sauvegarde
+    private boolean isOwnWrite() {
+        // une écriture en cours n'est pas encore notée : son événement peut arriver avant written()
+        writeLock.lock();
+        try {
+            Snapshot own = written;
+            BasicFileAttributes attributes = own != null ? attributesOf(filePath) : null;
+            return attributes != null && own.matches(attributes);
+        } catch (IOException e) {
+            return false;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void watchLoop(WatchService service) {
+        Path fileName = filePath.getFileName();
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    // OVERFLOW : des événements ont été perdus, le fichier a pu changer
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        invalidate();
+                        onChange.run();
+                    } else if (fileName.equals(event.context()) && !isOwnWrite()) {
+                        invalidate();
+                        onChange.run();
+                    }
+                }
+                if (!key.reset()) {
+                    // répertoire supprimé
+                    invalidate();
+                    onChange.run();
+                    return;
+                }
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // arrêt de la surveillance
+        }
+    }
+}
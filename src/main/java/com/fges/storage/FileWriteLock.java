@@ -0,0 +1,78 @@
+package com.fges.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Verrou exclusif des écritures d'une liste, partagé entre processus et entre threads.
+ * Entre processus : FileChannel.lock sur un fichier voisin <liste>.lock, jamais supprimé
+ * (supprimer le fichier de verrou laisserait deux processus verrouiller deux fichiers différents).
+ * Le verrou de la liste elle-même ne servirait à rien : chaque sauvegarde la remplace par un nouveau fichier.
+ * Dans la JVM : FileChannel.lock appartient au processus entier, un ReentrantLock par liste départage donc les threads.
+ * Le verrou est réentrant : une sauvegarde faite sous lockForUpdate() ne le reprend pas.
+ */
+final class FileWriteLock {
+    private static final Map<Path, FileWriteLock> LOCKS = new ConcurrentHashMap<>();
+
+    private final Path lockPath;
+    private final ReentrantLock threadLock = new ReentrantLock();
+    // tenus par le thread propriétaire de threadLock
+    private FileChannel channel;
+    private FileLock fileLock;
+
+    private FileWriteLock(Path lockPath) {
+        this.lockPath = lockPath;
+    }
+
+    /// verrou des écritures de ce fichier (ou répertoire), unique dans la JVM
+    static FileWriteLock of(Path target) {
+        Path normalized = target.toAbsolutePath().normalize();
+        return LOCKS.computeIfAbsent(normalized, path -> new FileWriteLock(path.resolveSibling(path.getFileName() + ".lock")));
+    }
+
+    Path lockPath() {
+        return lockPath;
+    }
+
+    /// attend le verrou, puis le rend à la fermeture du résultat
+    Closeable acquire() throws IOException {
+        threadLock.lock();
+        if (threadLock.getHoldCount() == 1) {
+            try {
+                channel = FileChannel.open(lockPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                fileLock = channel.lock();
+            } catch (IOException | RuntimeException e) {
+                if (channel != null) {
+                    channel.close();
+                    channel = null;
+                }
+                threadLock.unlock();
+                throw e;
+            }
+        }
+        return this::release;
+    }
+
+    private void release() throws IOException {
+        try {
+            if (threadLock.getHoldCount() == 1) {
+                try {
+                    fileLock.release();
+                } finally {
+                    fileLock = null;
+                    channel.close();
+                    channel = null;
+                }
+            }
+        } finally {
+            threadLock.unlock();
+        }
+    }
+}
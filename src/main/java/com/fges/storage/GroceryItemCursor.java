@@ -0,0 +1,143 @@
+package com.fges.storage;
+
+import com.fges.model.CompactGroceryList;
+import com.fges.model.GroceryItem;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * Parcours des articles d'un stockage un par un, sans créer de GroceryItem.
+ * next() avance sur l'article suivant ; name(), quantity() et category() décrivent l'article courant
+ * et ne sont valides qu'entre deux appels à next().
+ */
+public interface GroceryItemCursor extends Closeable {
+
+    /// avance sur l'article suivant, false une fois la liste parcourue
+    boolean next() throws IOException;
+
+    /// nom de l'article courant
+    String name();
+
+    /// quantité de l'article courant
+    int quantity();
+
+    /// catégorie de l'article courant
+    String category();
+
+    /// vrai si les articles sortent triés par catégorie puis par nom, chacun une seule fois
+    default boolean isSorted() {
+        return false;
+    }
+
+    @Override
+    default void close() throws IOException {
+    }
+
+    /// ne garde que les articles d'une catégorie, en conservant l'ordre de la source
+    static GroceryItemCursor inCategory(GroceryItemCursor source, String category) {
+        return new GroceryItemCursor() {
+            @Override
+            public boolean next() throws IOException {
+                while (source.next()) {
+                    if (category.equals(source.category())) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+
+            @Override
+            public String name() {
+                return source.name();
+            }
+
+            @Override
+            public int quantity() {
+                return source.quantity();
+            }
+
+            @Override
+            public String category() {
+                return source.category();
+            }
+
+            @Override
+            public boolean isSorted() {
+                return source.isSorted();
+            }
+
+            @Override
+            public void close() throws IOException {
+                source.close();
+            }
+        };
+    }
+
+    /// curseur sur des articles déjà en mémoire
+    static GroceryItemCursor of(Iterable<GroceryItem> items) {
+        Iterator<GroceryItem> iterator = items.iterator();
+        return new GroceryItemCursor() {
+            private GroceryItem current;
+
+            @Override
+            public boolean next() {
+                current = iterator.hasNext() ? iterator.next() : null;
+                return current != null;
+            }
+
+            @Override
+            public String name() {
+                return current.getName();
+            }
+
+            @Override
+            public int quantity() {
+                return current.getQuantity();
+            }
+
+            @Override
+            public String category() {
+                return current.getCategory();
+            }
+        };
+    }
+
+    /// curseur sur une liste compacte, qui ne crée que les noms ; sorted si elle est déjà triée (voir isSorted)
+    static GroceryItemCursor of(CompactGroceryList items, boolean sorted) {
+        return new GroceryItemCursor() {
+            private int index = -1;
+
+            @Override
+            public boolean next() {
+                if (index + 1 >= items.size()) {
+                    index = items.size();
+                    return false;
+                }
+                index++;
+                return true;
+            }
+
+            @Override
+            public String name() {
+                return items.name(index);
+            }
+
+            @Override
+            public int quantity() {
+                return items.quantity(index);
+            }
+
+            @Override
+            public String category() {
+                return items.category(index);
+            }
+
+            @Override
+            public boolean isSorted() {
+                return sorted;
+            }
+        };
+    }
+}
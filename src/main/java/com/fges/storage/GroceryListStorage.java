@@ -1,7 +1,10 @@
 package com.fges.storage;
 
+import com.fges.model.CompactGroceryList;
 import com.fges.model.GroceryItem;
+import com.fges.model.GroceryList;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.util.List;
 
@@ -23,4 +26,118 @@ public interface GroceryListStorage {
      * @throws IOException Si une erreur d'écriture se produit
      */
     void save(List<GroceryItem> groceryList) throws IOException;
-}
\ No newline at end of file
+
+    /**
+     * Charge la liste de courses indexée par (catégorie, nom)
+     * @return Liste indexée
+     * @throws IOException Si une erreur de lecture se produit
+     */
+    default GroceryList loadGroceryList() throws IOException {
+        return new GroceryList(load());
+    }
+
+    /**
+     * Charge la liste dans sa forme compacte (colonnes), sans créer de GroceryItem
+     * quand le stockage sait parcourir son fichier en flux.
+     * Un stockage qui garde la liste en mémoire (json, csv) peut rendre sa propre liste, figée (isFrozen) :
+     * à copier avant de la modifier.
+     * @return Liste compacte, dans l'ordre du fichier
+     * @throws IOException Si une erreur de lecture se produit
+     */
+    default CompactGroceryList loadCompact() throws IOException {
+        CompactGroceryList groceryList = new CompactGroceryList();
+        try (GroceryItemCursor cursor = openCursor()) {
+            while (cursor.next()) {
+                groceryList.add(cursor.name(), cursor.quantity(), cursor.category());
+            }
+        }
+        groceryList.trimToSize();
+        return groceryList;
+    }
+
+    /**
+     * Ouvre un curseur sur les articles de la liste.
+     * L'implémentation par défaut charge toute la liste puis la parcourt.
+     * @return Curseur à fermer après usage
+     * @throws IOException Si une erreur de lecture se produit
+     */
+    default GroceryItemCursor openCursor() throws IOException {
+        return GroceryItemCursor.of(load());
+    }
+
+    /**
+     * Ouvre un curseur sur les articles d'une seule catégorie.
+     * L'implémentation par défaut parcourt toute la liste et écarte les autres catégories.
+     * @param category Catégorie à parcourir ("default" si null ou vide)
+     * @return Curseur à fermer après usage
+     * @throws IOException Si une erreur de lecture se produit
+     */
+    default GroceryItemCursor openCursor(String category) throws IOException {
+        return GroceryItemCursor.inCategory(openCursor(), category != null && !category.isEmpty() ? category : "default");
+    }
+
+    /**
+     * Sauvegarde une liste indexée
+     * @param groceryList Liste indexée à sauvegarder
+     * @throws IOException Si une erreur d'écriture se produit
+     */
+    default void saveGroceryList(GroceryList groceryList) throws IOException {
+        save(groceryList.toList());
+    }
+
+    /**
+     * Surveille le fichier de la liste : onChange est appelé, sur un thread de surveillance,
+     * dès que le fichier est modifié, par ce stockage comme par un autre processus.
+     * L'implémentation par défaut ne surveille rien.
+     * @param onChange Action à chaque changement du fichier
+     * @return true si le fichier est surveillé, false si ce stockage ne sait pas le faire
+     * @throws IOException Si la surveillance ne peut pas démarrer
+     */
+    default boolean watch(Runnable onChange) throws IOException {
+        return false;
+    }
+
+    /**
+     * Verrouille les écritures de la liste, pour enchaîner un chargement et une sauvegarde
+     * sans qu'un autre processus n'écrive entre les deux. Les lectures restent libres.
+     * L'implémentation par défaut ne verrouille rien.
+     * @return Verrou à fermer après la sauvegarde
+     * @throws IOException Si le verrou ne peut pas être pris
+     */
+    default Closeable lockForUpdate() throws IOException {
+        return () -> {
+        };
+    }
+
+    /**
+     * Ajoute delta à la quantité d'un article, en le créant s'il n'existe pas encore.
+     * L'implémentation par défaut recharge et réécrit toute la liste.
+     * @param name Nom de l'article
+     * @param category Catégorie de l'article ("default" si null ou vide)
+     * @param delta Quantité à ajouter
+     * @throws IOException Si une erreur de lecture ou d'écriture se produit
+     */
+    default void upsert(String name, String category, int delta) throws IOException {
+        GroceryList groceryList = loadGroceryList();
+        groceryList.upsert(name, category, delta);
+        saveGroceryList(groceryList);
+    }
+
+    /**
+     * Supprime un article de la liste.
+     * L'implémentation par défaut recharge et réécrit toute la liste.
+     * @param name Nom de l'article
+     * @param category Catégorie de l'article, ou null pour le supprimer de toutes les catégories
+     * @return true si un article a été supprimé, false s'il était absent
+     * @throws IOException Si une erreur de lecture ou d'écriture se produit
+     */
+    default boolean remove(String name, String category) throws IOException {
+        GroceryList groceryList = loadGroceryList();
+
+        boolean removed = groceryList.remove(name, category);
+        if (removed) {
+            saveGroceryList(groceryList);
+        }
+        return removed;
+    }
+}
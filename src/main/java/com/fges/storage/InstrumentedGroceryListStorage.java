@@ -0,0 +1,209 @@
+package com.fges.storage;
+
+import com.fges.metrics.LatencyHistogram;
+import com.fges.metrics.Metrics;
+import com.fges.model.CompactGroceryList;
+import com.fges.model.GroceryItem;
+import com.fges.model.GroceryList;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Décorateur mesurant chaque opération d'un stockage (storage.<format>.load, .save, .upsert, .remove, .cursor).
+ * Chaque appel est transmis tel quel, si bien que les optimisations du stockage décoré sont conservées.
+ * Un parcours par curseur est mesuré de son ouverture à sa fermeture.
+ */
+public class InstrumentedGroceryListStorage implements GroceryListStorage, Closeable {
+    private final GroceryListStorage delegate;
+    private final LatencyHistogram loads;
+    private final LatencyHistogram saves;
+    private final LatencyHistogram upserts;
+    private final LatencyHistogram removes;
+    private final LatencyHistogram cursors;
+
+    /**
+     * @param name Nom du stockage dans les mesures, en général son format
+     * @param delegate Stockage mesuré
+     */
+    public InstrumentedGroceryListStorage(String name, GroceryListStorage delegate) {
+        this.delegate = delegate;
+        String prefix = "storage." + name.toLowerCase() + ".";
+        this.loads = Metrics.histogram(prefix + "load");
+        this.saves = Metrics.histogram(prefix + "save");
+        this.upserts = Metrics.histogram(prefix + "upsert");
+        this.removes = Metrics.histogram(prefix + "remove");
+        this.cursors = Metrics.histogram(prefix + "cursor");
+    }
+
+    @Override
+    public List<GroceryItem> load() throws IOException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            List<GroceryItem> groceryList = delegate.load();
+            failed = false;
+            return groceryList;
+        } finally {
+            record(loads, start, failed);
+        }
+    }
+
+    @Override
+    public GroceryList loadGroceryList() throws IOException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            GroceryList groceryList = delegate.loadGroceryList();
+            failed = false;
+            return groceryList;
+        } finally {
+            record(loads, start, failed);
+        }
+    }
+
+    @Override
+    public CompactGroceryList loadCompact() throws IOException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            CompactGroceryList groceryList = delegate.loadCompact();
+            failed = false;
+            return groceryList;
+        } finally {
+            record(loads, start, failed);
+        }
+    }
+
+    @Override
+    public GroceryItemCursor openCursor() throws IOException {
+        return timed(System.nanoTime(), delegate.openCursor());
+    }
+
+    @Override
+    public GroceryItemCursor openCursor(String category) throws IOException {
+        return timed(System.nanoTime(), delegate.openCursor(category));
+    }
+
+    @Override
+    public void save(List<GroceryItem> groceryList) throws IOException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            delegate.save(groceryList);
+            failed = false;
+        } finally {
+            record(saves, start, failed);
+        }
+    }
+
+    @Override
+    public void saveGroceryList(GroceryList groceryList) throws IOException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            delegate.saveGroceryList(groceryList);
+            failed = false;
+        } finally {
+            record(saves, start, failed);
+        }
+    }
+
+    @Override
+    public void upsert(String name, String category, int delta) throws IOException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            delegate.upsert(name, category, delta);
+            failed = false;
+        } finally {
+            record(upserts, start, failed);
+        }
+    }
+
+    @Override
+    public boolean remove(String name, String category) throws IOException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            boolean removed = delegate.remove(name, category);
+            failed = false;
+            return removed;
+        } finally {
+            record(removes, start, failed);
+        }
+    }
+
+    @Override
+    public boolean watch(Runnable onChange) throws IOException {
+        return delegate.watch(onChange);
+    }
+
+    @Override
+    public Closeable lockForUpdate() throws IOException {
+        return delegate.lockForUpdate();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (delegate instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+    private static void record(LatencyHistogram histogram, long start, boolean failed) {
+        long elapsed = System.nanoTime() - start;
+        if (failed) {
+            histogram.recordFailure(elapsed);
+        } else {
+            histogram.record(elapsed);
+        }
+    }
+
+    /// curseur qui enregistre la durée du parcours à sa fermeture
+    private GroceryItemCursor timed(long start, GroceryItemCursor cursor) {
+        return new GroceryItemCursor() {
+            private boolean failed;
+
+            @Override
+            public boolean next() throws IOException {
+                try {
+                    return cursor.next();
+                } catch (IOException | RuntimeException e) {
+                    failed = true;
+                    throw e;
+                }
+            }
+
+            @Override
+            public String name() {
+                return cursor.name();
+            }
+
+            @Override
+            public int quantity() {
+                return cursor.quantity();
+            }
+
+            @Override
+            public String category() {
+                return cursor.category();
+            }
+
+            @Override
+            public boolean isSorted() {
+                return cursor.isSorted();
+            }
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    cursor.close();
+                } finally {
+                    record(cursors, start, failed);
+                }
+            }
+        };
+    }
+}
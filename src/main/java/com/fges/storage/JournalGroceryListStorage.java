@@ -0,0 +1,469 @@
+package com.fges.storage;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fges.model.GroceryItem;
+import com.fges.model.GroceryList;
+import com.fges.util.JsonCodec;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Implémentation du stockage sous forme de journal en ajout seul.
+ * Chaque modification ajoute une ligne au fichier source au lieu de réécrire toute la liste :
+ * - ["add", categorie, article, quantite] : l'article vaut désormais quantite
+ * - ["inc", categorie, article, delta] : ajoute delta à l'article (le crée au besoin)
+ * - ["del", categorie, article] : supprime l'article
+ * Quand le journal dépasse un seuil, il est scellé en segment (fichier.N) puis compacté
+ * en arrière-plan dans fichier.snapshot, qui commence par ["gen", N].
+ */
+public class JournalGroceryListStorage implements GroceryListStorage, Closeable {
+    public static final long DEFAULT_COMPACTION_THRESHOLD = 1024 * 1024;
+
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+
+    private final Path journalPath;
+    private final Path snapshotPath;
+    private final long compactionThreshold;
+    private final JsonFactory jsonFactory;
+
+    // protège l'échange snapshot/segments pendant une compaction
+    private final ReentrantReadWriteLock compactionLock = new ReentrantReadWriteLock();
+    private ExecutorService compactor;
+
+    // état connu après le dernier load()/save(), pour calculer les différences sans relire
+    private GroceryList knownState;
+    private long knownJournalSize = -1;
+    // dernière génération scellée ou compactée connue : un scellement remet le journal à zéro,
+    // la taille seule ne distingue donc pas un journal inchangé d'un journal scellé puis réécrit
+    private long knownGeneration = -1;
+
+    public JournalGroceryListStorage(String fileName) {
+        this(fileName, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    public JournalGroceryListStorage(String fileName, long compactionThreshold) {
+        this.journalPath = Paths.get(fileName);
+        this.snapshotPath = Paths.get(fileName + SNAPSHOT_SUFFIX);
+        this.compactionThreshold = compactionThreshold;
+        this.jsonFactory = JsonCodec.factory();
+    }
+
+    /// charge la liste en rejouant snapshot, segments scellés puis journal actif
+    @Override
+    public synchronized List<GroceryItem> load() throws IOException {
+        GroceryList state = replay();
+
+        List<GroceryItem> groceryList = new ArrayList<>(state.size());
+        for (GroceryItem item : state) {
+            groceryList.add(new GroceryItem(item.getName(), item.getQuantity(), item.getCategory()));
+        }
+        return groceryList;
+    }
+
+    /// n'ajoute au journal que les différences avec l'état connu
+    @Override
+    public synchronized void save(List<GroceryItem> groceryList) throws IOException {
+        GroceryList previous = currentState();
+        GroceryList next = new GroceryList(groceryList);
+
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+        try (JsonGenerator generator = jsonFactory.createGenerator(records, JsonEncoding.UTF8)) {
+            generator.setRootValueSeparator(null);
+            for (GroceryItem item : previous) {
+                if (next.get(item.getName(), item.getCategory()) == null) {
+                    writeRecord(generator, "del", item.getCategory(), item.getName(), null);
+                }
+            }
+            for (GroceryItem item : next) {
+                GroceryItem before = previous.get(item.getName(), item.getCategory());
+                if (before == null) {
+                    writeRecord(generator, "add", item.getCategory(), item.getName(), item.getQuantity());
+                } else if (before.getQuantity() != item.getQuantity()) {
+                    writeRecord(generator, "inc", item.getCategory(), item.getName(),
+                            item.getQuantity() - before.getQuantity());
+                }
+            }
+        }
+
+        GroceryList saved = new GroceryList();
+        for (GroceryItem item : next) {
+            saved.put(new GroceryItem(item.getName(), item.getQuantity(), item.getCategory()));
+        }
+
+        append(records.toByteArray());
+        knownState = saved;
+    }
+
+    /// ajoute un unique enregistrement "inc", sans relire le journal
+    @Override
+    public synchronized void upsert(String name, String category, int delta) throws IOException {
+        GroceryItem added = new GroceryItem(name, delta, category);
+        GroceryList state = upToDateKnownState();
+
+        ByteArrayOutputStream record = new ByteArrayOutputStream();
+        try (JsonGenerator generator = jsonFactory.createGenerator(record, JsonEncoding.UTF8)) {
+            generator.setRootValueSeparator(null);
+            writeRecord(generator, "inc", added.getCategory(), name, delta);
+        }
+        append(record.toByteArray());
+
+        if (state != null) {
+            state.upsert(name, added.getCategory(), delta);
+        }
+        // un état périmé ne doit pas paraître à jour après l'ajout
+        knownState = state;
+    }
+
+    /**
+     * Ajoute un enregistrement "del" par article supprimé. Sans état déjà chargé, le journal est rejoué
+     * pour savoir si l'article existe : un article absent n'ajoute aucun enregistrement et la méthode retourne false.
+     */
+    @Override
+    public synchronized boolean remove(String name, String category) throws IOException {
+        GroceryList state = upToDateKnownState();
+        if (state == null) {
+            state = replay();
+        }
+
+        List<GroceryItem> removedItems = new ArrayList<>();
+        if (category == null) {
+            removedItems.addAll(state.findByName(name));
+        } else if (state.get(name, category) != null) {
+            removedItems.add(state.get(name, category));
+        }
+        if (removedItems.isEmpty()) {
+            return false;
+        }
+
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+        try (JsonGenerator generator = jsonFactory.createGenerator(records, JsonEncoding.UTF8)) {
+            generator.setRootValueSeparator(null);
+            for (GroceryItem item : removedItems) {
+                writeRecord(generator, "del", item.getCategory(), item.getName(), null);
+            }
+        }
+        append(records.toByteArray());
+
+        state.remove(name, category);
+        knownState = state;
+        return true;
+    }
+
+    /// attend la fin d'une éventuelle compaction en cours
+    @Override
+    public synchronized void close() throws IOException {
+        if (compactor == null) {
+            return;
+        }
+        compactor.shutdown();
+        try {
+            if (!compactor.awaitTermination(1, TimeUnit.MINUTES)) {
+                System.err.println("Warning: journal compaction still running");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        compactor = null;
+    }
+
+    /// ajoute des enregistrements au journal et déclenche la compaction au-delà du seuil
+    private void append(byte[] records) throws IOException {
+        if (records.length == 0) {
+            return;
+        }
+
+        try (OutputStream out = Files.newOutputStream(journalPath,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            out.write(records);
+        }
+
+        knownJournalSize = Files.size(journalPath);
+        if (knownJournalSize > compactionThreshold) {
+            sealAndCompact();
+        }
+    }
+
+    /// retourne l'état connu s'il est encore à jour, sinon rejoue le journal
+    private GroceryList currentState() throws IOException {
+        GroceryList state = upToDateKnownState();
+        return state != null ? state : replay();
+    }
+
+    /**
+     * État connu s'il correspond encore aux fichiers sur disque, sinon null (sans relire).
+     * D'une génération à l'autre le journal ne fait que grandir : même génération et même taille, rien n'a changé.
+     * Coût : la taille du journal, une lecture du répertoire et la première ligne du snapshot.
+     */
+    private GroceryList upToDateKnownState() throws IOException {
+        if (knownState == null) {
+            return null;
+        }
+        long journalSize = Files.exists(journalPath) ? Files.size(journalPath) : 0;
+        return journalSize == knownJournalSize && currentGeneration() == knownGeneration ? knownState : null;
+    }
+
+    /**
+     * Reconstruit l'état complet à partir des fichiers sur disque.
+     * Un autre processus peut sceller le journal ou compacter (et supprimer des segments) pendant la lecture :
+     * la lecture recommence tant que la génération a changé entre son début et sa fin.
+     */
+    private GroceryList replay() throws IOException {
+        GroceryList state;
+
+        compactionLock.readLock().lock();
+        try {
+            while (true) {
+                state = new GroceryList();
+                long generation = replayFile(snapshotPath, state, -1);
+                TreeMap<Long, Path> segments = sealedSegments();
+                long journalSize = Files.exists(journalPath) ? Files.size(journalPath) : 0;
+                try {
+                    for (Map.Entry<Long, Path> segment : segments.entrySet()) {
+                        if (segment.getKey() > generation) {
+                            replayFile(segment.getValue(), state, generation);
+                        }
+                    }
+                    replayFile(journalPath, state, generation);
+                } catch (NoSuchFileException e) {
+                    // segment compacté puis supprimé, ou journal scellé, entre la liste et la lecture
+                    continue;
+                }
+
+                long lastSegment = segments.isEmpty() ? -1 : segments.lastKey();
+                if (snapshotGeneration() == generation && lastSegmentGeneration() == lastSegment) {
+                    knownGeneration = Math.max(generation, lastSegment);
+                    knownJournalSize = journalSize;
+                    break;
+                }
+            }
+        } finally {
+            compactionLock.readLock().unlock();
+        }
+
+        knownState = state;
+        return state;
+    }
+
+    /// rejoue un fichier d'enregistrements, retourne la génération lue (snapshot) ou celle fournie
+    private long replayFile(Path file, GroceryList state, long generation) throws IOException {
+        if (!Files.exists(file)) {
+            return generation;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    generation = applyRecord(line, state, generation);
+                } catch (IOException e) {
+                    // une ligne tronquée par un arrêt brutal est ignorée
+                    System.err.println("Warning: Ignoring corrupted journal record at " + file + ":" + lineNumber);
+                }
+            }
+        }
+        return generation;
+    }
+
+    /// applique un enregistrement à l'état
+    private long applyRecord(String line, GroceryList state, long generation) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(line)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Journal record must be an array");
+            }
+            String operation = parser.nextTextValue();
+            if ("gen".equals(operation)) {
+                parser.nextToken();
+                return parser.getValueAsLong();
+            }
+
+            String category = parser.nextTextValue();
+            String name = parser.nextTextValue();
+            if (operation == null || category == null || name == null) {
+                throw new IOException("Incomplete journal record");
+            }
+            switch (operation) {
+                case "add" -> {
+                    parser.nextToken();
+                    state.put(new GroceryItem(name, parser.getValueAsInt(), category));
+                }
+                case "inc" -> {
+                    parser.nextToken();
+                    state.upsert(name, category, parser.getValueAsInt());
+                }
+                case "del" -> state.remove(name, category);
+                default -> throw new IOException("Unknown journal operation: " + operation);
+            }
+
+            if (parser.nextToken() != JsonToken.END_ARRAY) {
+                throw new IOException("Malformed journal record");
+            }
+        }
+        return generation;
+    }
+
+    /// scelle le journal actif en segment et planifie sa compaction
+    private void sealAndCompact() throws IOException {
+        long generation = currentGeneration() + 1;
+        Path segment = segmentPath(generation);
+        Files.move(journalPath, segment, StandardCopyOption.ATOMIC_MOVE);
+        knownJournalSize = 0;
+        knownGeneration = generation;
+
+        if (compactor == null) {
+            compactor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "journal-compactor");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        compactor.submit(() -> {
+            try {
+                compact(generation);
+            } catch (IOException e) {
+                System.err.println("Warning: journal compaction failed: " + e.getMessage());
+            }
+        });
+    }
+
+    /// fusionne snapshot et segments jusqu'à `generation` dans un nouveau snapshot
+    void compact(long generation) throws IOException {
+        // un autre processus peut compacter la même liste : un seul à la fois écrit snapshot.tmp
+        try (Closeable ignored = FileWriteLock.of(journalPath).acquire()) {
+            compactLocked(generation);
+        }
+    }
+
+    private void compactLocked(long generation) throws IOException {
+        GroceryList state = new GroceryList();
+        long snapshotGeneration = replayFile(snapshotPath, state, -1);
+        List<Path> compacted = new ArrayList<>();
+        for (Map.Entry<Long, Path> segment : sealedSegments().entrySet()) {
+            if (segment.getKey() <= generation) {
+                if (segment.getKey() > snapshotGeneration) {
+                    replayFile(segment.getValue(), state, snapshotGeneration);
+                }
+                compacted.add(segment.getValue());
+            }
+        }
+
+        Path temporary = Paths.get(snapshotPath + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temporary);
+             JsonGenerator generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+            generator.setRootValueSeparator(null);
+            generator.writeStartArray();
+            generator.writeString("gen");
+            generator.writeNumber(generation);
+            generator.writeEndArray();
+            generator.writeRaw('\n');
+            for (GroceryItem item : state) {
+                writeRecord(generator, "add", item.getCategory(), item.getName(), item.getQuantity());
+            }
+        }
+
+        compactionLock.writeLock().lock();
+        try {
+            Files.move(temporary, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            for (Path segment : compacted) {
+                Files.deleteIfExists(segment);
+            }
+        } finally {
+            compactionLock.writeLock().unlock();
+        }
+    }
+
+    /// écrit un enregistrement suivi d'un retour à la ligne
+    private void writeRecord(JsonGenerator generator, String operation, String category, String name,
+                             Integer quantity) throws IOException {
+        generator.writeStartArray();
+        generator.writeString(operation);
+        generator.writeString(category);
+        generator.writeString(name);
+        if (quantity != null) {
+            generator.writeNumber(quantity);
+        }
+        generator.writeEndArray();
+        generator.writeRaw('\n');
+    }
+
+    /// segments scellés triés par génération
+    private TreeMap<Long, Path> sealedSegments() throws IOException {
+        TreeMap<Long, Path> segments = new TreeMap<>();
+        Path directory = journalPath.toAbsolutePath().getParent();
+        String prefix = journalPath.getFileName() + ".";
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, prefix + "*")) {
+            for (Path candidate : stream) {
+                String suffix = candidate.getFileName().toString().substring(prefix.length());
+                if (isGeneration(suffix)) {
+                    segments.put(Long.parseLong(suffix), candidate);
+                }
+            }
+        }
+        return segments;
+    }
+
+    private static boolean isGeneration(String suffix) {
+        if (suffix.isEmpty() || suffix.length() > 18) {
+            return false;
+        }
+        for (int i = 0; i < suffix.length(); i++) {
+            if (!Character.isDigit(suffix.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long lastSegmentGeneration() throws IOException {
+        TreeMap<Long, Path> segments = sealedSegments();
+        return segments.isEmpty() ? -1 : segments.lastKey();
+    }
+
+    /// dernière génération scellée (segment) ou compactée (snapshot)
+    private long currentGeneration() throws IOException {
+        return Math.max(snapshotGeneration(), lastSegmentGeneration());
+    }
+
+    private long snapshotGeneration() throws IOException {
+        if (!Files.exists(snapshotPath)) {
+            return -1;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(snapshotPath, StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            return header == null ? -1 : applyRecord(header, new GroceryList(), -1);
+        }
+    }
+
+    private Path segmentPath(long generation) {
+        return Paths.get(journalPath + "." + generation);
+    }
+}
@@ -1,35 +1,83 @@
 package com.fges.storage;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fges.metrics.LatencyHistogram;
+import com.fges.metrics.Metrics;
+import com.fges.model.CompactGroceryList;
 import com.fges.model.GroceryItem;
+import com.fges.model.GroceryList;
 import com.fges.util.FormatValidator;
+import com.fges.util.JsonCodec;
 
-import java.io.File;
+import java.io.Closeable;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Iterator;
 
 /**
  * Implémentation du stockage en format JSON avec support des catégories
  */
-public class JsonGroceryListStorage implements GroceryListStorage {
+public class JsonGroceryListStorage implements GroceryListStorage, Closeable {
+    /// lecture du fichier seule, sans la validation du format (format.validate)
+    private static final LatencyHistogram PARSES = Metrics.histogram("json.parse");
+    /// au-delà, le chargement complet répartit les catégories sur plusieurs threads
+    static final long PARALLEL_LOAD_THRESHOLD = 16L << 20;
+
     private final String fileName;
-    private final ObjectMapper objectMapper;
+    private final boolean fsync;
+    private final boolean sorted;
     private final FormatValidator formatValidator;
+    private final StreamingJsonLoader streamingLoader;
+    private final ParallelJsonLoader parallelLoader;
+    private final FileLoadCache loadCache;
 
     public JsonGroceryListStorage(String fileName) {
+        this(fileName, true);
+    }
+
+    /**
+     * @param fileName Fichier de la liste
+     * @param fsync true pour forcer chaque sauvegarde sur disque avant de remplacer le fichier
+     */
+    public JsonGroceryListStorage(String fileName, boolean fsync) {
+        this(fileName, fsync, false);
+    }
+
+    /**
+     * @param fileName Fichier de la liste
+     * @param fsync true pour forcer chaque sauvegarde sur disque avant de remplacer le fichier
+     * @param sorted true pour écrire catégories et articles triés, avec le marqueur "@sorted" ;
+     *               un fichier déjà marqué reste trié même sans cette option
+     */
+    public JsonGroceryListStorage(String fileName, boolean fsync, boolean sorted) {
         this.fileName = fileName;
-        this.objectMapper = new ObjectMapper();
+        this.fsync = fsync;
+        this.sorted = sorted;
         this.formatValidator = new FormatValidator();
+        this.streamingLoader = new StreamingJsonLoader(JsonCodec.factory());
+        this.parallelLoader = new ParallelJsonLoader(JsonCodec.factory());
+        this.loadCache = new FileLoadCache(Paths.get(fileName));
+    }
+
+    /// liste gardée entre deux chargements du fichier inchangé
+    public FileLoadCache loadCache() {
+        return loadCache;
+    }
+
+    /// oublie la liste gardée et prévient onChange dès que le fichier change (FileLoadCache.watch)
+    @Override
+    public boolean watch(Runnable onChange) throws IOException {
+        loadCache.watch(onChange);
+        return true;
     }
 
     /// charge la liste de courses à partir d'un fichier JSON
@@ -39,111 +87,376 @@ public class JsonGroceryListStorage implements GroceryListStorage {
         List<GroceryItem> groceryList = new ArrayList<>();
 
         // Si le fichier n'existe pas ou est vide, retourner une liste vide
-        if (!Files.exists(filePath) || Files.size(filePath) == 0) {
+        BasicFileAttributes attributes = FileLoadCache.attributesOf(filePath);
+        if (attributes == null || attributes.size() == 0) {
             return groceryList;
         }
 
+        // fichier inchangé depuis le dernier chargement : ni validation ni parsing, mais une copie
+        // des articles (O(n)), load() rendant des articles modifiables ; les lecteurs passent par openCursor ou loadCompact
+        CompactGroceryList cached = loadCache.get(attributes);
+        if (cached != null) {
+            return cached.toList();
+        }
+
         // Valider le format du fichier
         formatValidator.validateFileFormat(filePath, "json");
 
+        long start = System.nanoTime();
         try {
-            JsonNode rootNode = objectMapper.readTree(filePath.toFile());
-
-            if (rootNode.isObject()) {
-                Iterator<Map.Entry<String, JsonNode>> categoryFields = rootNode.fields();
-                while (categoryFields.hasNext()) {
-                    Map.Entry<String, JsonNode> categoryEntry = categoryFields.next();
-                    String category = categoryEntry.getKey();
-                    JsonNode categoryItems = categoryEntry.getValue();
-
-                    if (categoryItems.isObject()) {
-                        Iterator<Map.Entry<String, JsonNode>> itemFields = categoryItems.fields();
-                        while (itemFields.hasNext()) {
-                            Map.Entry<String, JsonNode> itemEntry = itemFields.next();
-                            String itemName = itemEntry.getKey();
-                            int quantity = itemEntry.getValue().asInt();
-                            groceryList.add(new GroceryItem(itemName, quantity, category));
-                        }
-                    }
+            List<GroceryItem> items;
+            if (loadCache.readBefore(attributes)) {
+                // deuxième lecture de cet état : le cache est rempli en flux, la copie vient de la liste gardée
+                try (GroceryItemCursor cursor = streamingLoader.open(filePath)) {
+                    items = loadCache.fill(attributes, cursor).toList();
                 }
+            } else {
+                items = Files.size(filePath) >= PARALLEL_LOAD_THRESHOLD && Runtime.getRuntime().availableProcessors() > 1
+                        ? parallelLoader.load(filePath)
+                        : streamingLoader.load(filePath);
+                loadCache.noteRead(attributes);
+            }
+            PARSES.record(System.nanoTime() - start);
+            return items;
+        } catch (Exception e) {
+            PARSES.recordFailure(System.nanoTime() - start);
+            System.err.println("Error reading JSON file: " + e.getMessage());
+            throw new IOException("Failed to parse JSON file", e);
+        }
+    }
 
-                if (!groceryList.isEmpty()) {
-                    return groceryList;
-                }
+    /// liste gardée par le cache (figée, sans copie) si le fichier n'a pas changé, sinon lue en flux
+    @Override
+    public CompactGroceryList loadCompact() throws IOException {
+        BasicFileAttributes attributes = FileLoadCache.attributesOf(Paths.get(fileName));
+        CompactGroceryList cached = attributes != null ? loadCache.get(attributes) : null;
+        if (cached != null) {
+            return cached;
+        }
+
+        try (GroceryItemCursor cursor = openCursor()) {
+            // deuxième lecture : openCursor vient de garder la liste, rendue sans copie
+            CompactGroceryList kept = attributes != null ? loadCache.get(attributes) : null;
+            if (kept != null) {
+                return kept;
+            }
+            CompactGroceryList groceryList = new CompactGroceryList();
+            while (cursor.next()) {
+                groceryList.add(cursor.name(), cursor.quantity(), cursor.category());
             }
+            groceryList.trimToSize();
+            return groceryList;
+        }
+    }
+
+    /// parcourt le fichier JSON au fil de la lecture
+    @Override
+    public GroceryItemCursor openCursor() throws IOException {
+        Path filePath = Paths.get(fileName);
+        BasicFileAttributes attributes = FileLoadCache.attributesOf(filePath);
+        if (attributes == null || attributes.size() == 0) {
+            return GroceryItemCursor.of(List.of());
+        }
+
+        GroceryItemCursor cached = loadCache.openCursor(attributes);
+        if (cached != null) {
+            return cached;
+        }
+
+        formatValidator.validateFileFormat(filePath, "json");
+        if (!loadCache.readBefore(attributes)) {
+            loadCache.noteRead(attributes);
+            return streamingLoader.open(filePath);
+        }
+
+        // deuxième lecture de cet état : la liste est gardée au passage, puis parcourue en mémoire
+        try (GroceryItemCursor cursor = streamingLoader.open(filePath)) {
+            return GroceryItemCursor.of(loadCache.fill(attributes, cursor), cursor.isSorted());
+        }
+    }
 
-            try {
-                Map<String, Integer> groceryMap = objectMapper.readValue(filePath.toFile(),
-                        new TypeReference<Map<String, Integer>>() {});
+    /**
+     * Sauvegarde la liste de courses dans un fichier JSON, écrite en flux par catégorie.
+     * Aucune copie de la liste : une liste déjà groupée par catégorie (load()) s'écrit en une passe,
+     * sinon un seul tableau d'indices (un int par article) la regroupe. Pour un même article (catégorie, nom),
+     * la dernière quantité l'emporte : une table de doublons d'environ quatre int par article de la plus grande
+     * catégorie est donc nécessaire. saveGroceryList, dont les articles sont déjà uniques, s'en passe.
+     */
+    @Override
+    public void save(List<GroceryItem> groceryList) throws IOException {
+        writeFile((generator, writeSorted) -> {
+            if (writeSorted) {
+                writeSorted(generator, groceryList);
+            } else {
+                writeGrouped(generator, groceryList);
+            }
+        });
+    }
 
-                for (Map.Entry<String, Integer> entry : groceryMap.entrySet()) {
-                    groceryList.add(new GroceryItem(entry.getKey(), entry.getValue(), "default"));
+    /// écrit la liste indexée catégorie par catégorie : un article par (catégorie, nom), ni regroupement ni table de doublons
+    @Override
+    public void saveGroceryList(GroceryList groceryList) throws IOException {
+        writeFile((generator, writeSorted) -> {
+            if (writeSorted) {
+                writeSorted(generator, groceryList.toList());
+                return;
+            }
+            for (String category : groceryList.categories()) {
+                generator.writeObjectFieldStart(category);
+                for (GroceryItem item : groceryList.itemsIn(category)) {
+                    generator.writeNumberField(item.getName(), item.getQuantity());
                 }
-                return groceryList;
-            } catch (Exception e) {
-                try {
-                    List<GroceryItem> oldItems = objectMapper.readValue(filePath.toFile(),
-                            new TypeReference<List<GroceryItem>>() {});
-
-                    for (GroceryItem item : oldItems) {
-                        if (item.getCategory() == null) {
-                            item.setCategory("default");
-                        }
-                        groceryList.add(item);
-                    }
-                    return groceryList;
-                } catch (Exception e2) {
-                    try {
-                        List<String> oldFormatList = objectMapper.readValue(filePath.toFile(),
-                                new TypeReference<List<String>>() {});
-
-                        for (String item : oldFormatList) {
-                            if (item.contains(":")) {
-                                String[] parts = item.split(":");
-                                String name = parts[0].trim();
-                                try {
-                                    int quantity = Integer.parseInt(parts[1].trim());
-                                    groceryList.add(new GroceryItem(name, quantity, "default"));
-                                } catch (NumberFormatException nfe) {
-                                    System.err.println("Warning: Ignoring malformed entry: " + item);
-                                }
-                            } else {
-                                groceryList.add(new GroceryItem(item.trim(), 1, "default"));
-                            }
-                        }
-                        return groceryList;
-                    } catch (Exception e3) {
-                        System.err.println("Error reading JSON file: " + e.getMessage());
-                        throw new IOException("Failed to parse JSON file in any supported format", e);
+                generator.writeEndObject();
+            }
+        });
+    }
+
+    /// contenu de l'objet racine ; writeSorted : catégories et articles à écrire triés
+    private interface ContentWriter {
+        void write(JsonGenerator generator, boolean writeSorted) throws IOException;
+    }
+
+    /// remplace le fichier par l'objet racine écrit par `content`, précédé du marqueur de tri si besoin
+    private void writeFile(ContentWriter content) throws IOException {
+        try (Closeable ignored = loadCache.writing()) {
+            Path filePath = Paths.get(fileName);
+            loadCache.invalidate();
+            if (Files.exists(filePath) && Files.size(filePath) > 0) {
+                formatValidator.validateFileFormat(filePath, "json");
+            }
+
+            boolean writeSorted = sorted || isSortedFile(filePath);
+
+            // fichier temporaire puis renommage : un arrêt brutal ne laisse jamais une liste tronquée
+            try (AtomicFileWriter writer = AtomicFileWriter.open(filePath, fsync)) {
+                try (JsonGenerator generator = JsonCodec.factory().createGenerator(writer.outputStream(), JsonEncoding.UTF8)) {
+                    generator.writeStartObject();
+                    if (writeSorted) {
+                        // en tête, pour que list sache dès le premier champ qu'il n'a rien à trier
+                        generator.writeBooleanField(StreamingJsonLoader.SORTED_MARKER, true);
                     }
+                    content.write(generator, writeSorted);
+                    generator.writeEndObject();
                 }
+                writer.commit();
             }
-        } catch (Exception e) {
-            System.err.println("Error reading JSON file: " + e.getMessage());
-            throw new IOException("Failed to parse JSON file", e);
+            loadCache.written();
         }
     }
 
-    /// saugegarde la liste de courses dans un fichier JSON
+    /// catégories dans leur ordre d'apparition, articles dans l'ordre de la liste
+    private static void writeGrouped(JsonGenerator generator, List<GroceryItem> groceryList) throws IOException {
+        CategoryGroups groups = CategoryGroups.of(groceryList);
+        for (int c = 0; c < groups.size(); c++) {
+            groups.index(c);
+            generator.writeObjectFieldStart(groups.category(c));
+            for (int position = groups.from(c); position < groups.to(c); position++) {
+                if (groups.isLast(position)) {
+                    GroceryItem item = groups.item(position);
+                    generator.writeNumberField(item.getName(), item.getQuantity());
+                }
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    /// catégories puis articles triés ; pour un même article, la dernière quantité l'emporte
+    private static void writeSorted(JsonGenerator generator, List<GroceryItem> groceryList) throws IOException {
+        // une liste chargée d'un fichier trié l'est déjà : pas de copie dans ce cas
+        List<GroceryItem> items = CategoryGroups.sorted(groceryList);
+
+        String previous = null;
+        for (int i = 0; i < items.size(); i++) {
+            GroceryItem item = items.get(i);
+            if (i + 1 < items.size() && CategoryGroups.SORTED_ORDER.compare(item, items.get(i + 1)) == 0) {
+                continue;
+            }
+            String category = CategoryGroups.categoryOf(item);
+            if (!category.equals(previous)) {
+                if (previous != null) {
+                    generator.writeEndObject();
+                }
+                generator.writeObjectFieldStart(category);
+                previous = category;
+            }
+            generator.writeNumberField(item.getName(), item.getQuantity());
+        }
+        if (previous != null) {
+            generator.writeEndObject();
+        }
+    }
+
+    /// vrai si le fichier existant porte le marqueur de tri
+    private boolean isSortedFile(Path filePath) throws IOException {
+        if (!Files.exists(filePath) || Files.size(filePath) == 0) {
+            return false;
+        }
+        try (GroceryItemCursor cursor = streamingLoader.open(filePath)) {
+            return cursor.isSorted();
+        } catch (JsonProcessingException e) {
+            // fichier illisible : il sera remplacé
+            return false;
+        }
+    }
+
+    /// ajoute delta à un article en réécrivant le fichier en flux, sans charger la liste
     @Override
-    public void save(List<GroceryItem> groceryList) throws IOException {
+    public void upsert(String name, String category, int delta) throws IOException {
+        try (Closeable ignored = loadCache.writing()) {
+            String targetCategory = (category != null && !category.isEmpty()) ? category : "default";
+            if (rewriteCategorized(name, targetCategory, delta, false) == RewriteResult.UNSUPPORTED) {
+                GroceryListStorage.super.upsert(name, targetCategory, delta);
+            }
+        }
+    }
+
+    /// supprime un article en réécrivant le fichier en flux, sans charger la liste
+    @Override
+    public boolean remove(String name, String category) throws IOException {
+        try (Closeable ignored = loadCache.writing()) {
+            RewriteResult result = rewriteCategorized(name, category, 0, true);
+            if (result == RewriteResult.UNSUPPORTED) {
+                return GroceryListStorage.super.remove(name, category);
+            }
+            return result == RewriteResult.CHANGED;
+        }
+    }
+
+    /// arrête la surveillance du fichier (FileLoadCache.watch)
+    @Override
+    public void close() throws IOException {
+        loadCache.close();
+    }
+
+    /// résultat d'une réécriture en flux
+    private enum RewriteResult {
+        CHANGED,
+        UNCHANGED,
+        UNSUPPORTED
+    }
+
+    /**
+     * Recopie le fichier catégorisé jeton par jeton dans un fichier temporaire en ne modifiant que l'article visé,
+     * puis remplace l'original. Les anciens formats (et les fichiers absents) ne sont pas gérés ici.
+     * Dans un fichier marqué trié, un nouvel article ou une nouvelle catégorie est inséré à sa place.
+     * @param category Catégorie visée, ou null pour toutes les catégories (suppression uniquement)
+     */
+    private RewriteResult rewriteCategorized(String name, String category, int delta, boolean removal) throws IOException {
         Path filePath = Paths.get(fileName);
-        if (Files.exists(filePath) && Files.size(filePath) > 0) {
-            formatValidator.validateFileFormat(filePath, "json");
+        loadCache.invalidate();
+        if (!Files.exists(filePath) || Files.size(filePath) == 0) {
+            return RewriteResult.UNSUPPORTED;
         }
 
-        Map<String, Map<String, Integer>> categorizedItems = new HashMap<>();
+        formatValidator.validateFileFormat(filePath, "json");
+
+        JsonFactory jsonFactory = JsonCodec.factory();
+        RewriteResult result = RewriteResult.UNCHANGED;
+
+        try (AtomicFileWriter writer = AtomicFileWriter.open(filePath, fsync)) {
+            try (JsonParser parser = jsonFactory.createParser(filePath.toFile());
+                 JsonGenerator generator = jsonFactory.createGenerator(writer.outputStream(), JsonEncoding.UTF8)) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    return RewriteResult.UNSUPPORTED;
+                }
+
+                generator.writeStartObject();
+                boolean targetSeen = false;
+                boolean sortedFile = false;
+
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String currentCategory = parser.currentName();
+                    JsonToken valueToken = parser.nextToken();
+
+                    if (valueToken.isBoolean() && currentCategory.equals(StreamingJsonLoader.SORTED_MARKER)) {
+                        sortedFile = valueToken == JsonToken.VALUE_TRUE;
+                        generator.writeBooleanField(currentCategory, sortedFile);
+                        continue;
+                    }
+                    if (valueToken.isScalarValue()) {
+                        // ancien format {"article": quantite}
+                        return RewriteResult.UNSUPPORTED;
+                    }
+                    if (!removal && sortedFile && !targetSeen && category.compareTo(currentCategory) < 0) {
+                        // nouvelle catégorie, avant la première qui la suit dans l'ordre
+                        generator.writeObjectFieldStart(category);
+                        generator.writeNumberField(name, delta);
+                        generator.writeEndObject();
+                        targetSeen = true;
+                        result = RewriteResult.CHANGED;
+                    }
+                    if (valueToken != JsonToken.START_OBJECT
+                            || (category != null && !category.equals(currentCategory))) {
+                        generator.writeFieldName(currentCategory);
+                        generator.copyCurrentStructure(parser);
+                        continue;
+                    }
+
+                    targetSeen = true;
+                    boolean found = false;
+                    boolean opened = false;
+
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String itemName = parser.currentName();
+                        JsonToken quantityToken = parser.nextToken();
 
-        for (GroceryItem item : groceryList) {
-            String category = item.getCategory();
-            if (category == null) {
-                category = "default";
+                        if (!removal && sortedFile && !found && name.compareTo(itemName) < 0) {
+                            // nouvel article, avant le premier qui le suit dans l'ordre
+                            opened = openCategory(generator, currentCategory, opened);
+                            generator.writeNumberField(name, delta);
+                            found = true;
+                            result = RewriteResult.CHANGED;
+                        }
+                        if (!itemName.equals(name)) {
+                            opened = openCategory(generator, currentCategory, opened);
+                            generator.writeFieldName(itemName);
+                            generator.copyCurrentStructure(parser);
+                            continue;
+                        }
+
+                        found = true;
+                        result = RewriteResult.CHANGED;
+                        if (!removal) {
+                            int quantity = quantityToken.isScalarValue() ? parser.getValueAsInt() : 0;
+                            opened = openCategory(generator, currentCategory, opened);
+                            generator.writeNumberField(itemName, quantity + delta);
+                        }
+                        parser.skipChildren();
+                    }
+
+                    if (!removal && !found) {
+                        opened = openCategory(generator, currentCategory, opened);
+                        generator.writeNumberField(name, delta);
+                        result = RewriteResult.CHANGED;
+                    }
+                    if (opened) {
+                        generator.writeEndObject();
+                    }
+                }
+
+                if (!removal && !targetSeen) {
+                    generator.writeObjectFieldStart(category);
+                    generator.writeNumberField(name, delta);
+                    generator.writeEndObject();
+                    result = RewriteResult.CHANGED;
+                }
+
+                generator.writeEndObject();
             }
 
-            categorizedItems.putIfAbsent(category, new HashMap<>());
-            categorizedItems.get(category).put(item.getName(), item.getQuantity());
+            if (result == RewriteResult.CHANGED) {
+                writer.commit();
+                loadCache.written();
+            }
+            return result;
         }
+    }
 
-        objectMapper.writeValue(new File(fileName), categorizedItems);
+    /// écrit l'ouverture d'une catégorie au premier article conservé (les catégories vidées disparaissent)
+    private boolean openCategory(JsonGenerator generator, String category, boolean opened) throws IOException {
+        if (!opened) {
+            generator.writeObjectFieldStart(category);
+        }
+        return true;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,104 @@
+package com.fges.storage;
+
+import com.fges.model.CompactGroceryList;
+import com.fges.model.GroceryItem;
+import com.fges.model.GroceryList;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Décorateur sérialisant les écritures d'une liste entre processus (FileWriteLock, fichier <liste>.lock) :
+ * deux commandes add lancées en même temps sur le même fichier ne perdent plus de modification.
+ * Les lectures ne prennent aucun verrou et ne sont jamais bloquées : les sauvegardes json, csv et bin
+ * remplacent le fichier par renommage atomique, une lecture voit l'ancienne ou la nouvelle liste.
+ * Exceptions, écrites en place en fin de fichier : l'ajout d'un nouvel article par upsert en csv
+ * et chaque enregistrement du journal. Une lecture concurrente peut alors voir la dernière ligne à moitié écrite ;
+ * le journal l'ignore (avertissement, ancienne liste), le csv peut la lire incomplète ou échouer.
+ * Un lecteur qui a besoin d'une liste cohérente prend lockForUpdate() le temps de sa lecture.
+ */
+public class LockedGroceryListStorage implements GroceryListStorage, Closeable {
+    private final GroceryListStorage delegate;
+    private final FileWriteLock writeLock;
+
+    /**
+     * @param target Fichier (ou répertoire réparti) de la liste ; le verrou est le fichier voisin target.lock
+     * @param delegate Stockage dont les écritures sont verrouillées
+     */
+    public LockedGroceryListStorage(Path target, GroceryListStorage delegate) {
+        this.delegate = delegate;
+        this.writeLock = FileWriteLock.of(target);
+    }
+
+    @Override
+    public List<GroceryItem> load() throws IOException {
+        return delegate.load();
+    }
+
+    @Override
+    public GroceryList loadGroceryList() throws IOException {
+        return delegate.loadGroceryList();
+    }
+
+    @Override
+    public CompactGroceryList loadCompact() throws IOException {
+        return delegate.loadCompact();
+    }
+
+    @Override
+    public GroceryItemCursor openCursor() throws IOException {
+        return delegate.openCursor();
+    }
+
+    @Override
+    public GroceryItemCursor openCursor(String category) throws IOException {
+        return delegate.openCursor(category);
+    }
+
+    @Override
+    public void save(List<GroceryItem> groceryList) throws IOException {
+        try (Closeable ignored = writeLock.acquire()) {
+            delegate.save(groceryList);
+        }
+    }
+
+    @Override
+    public void saveGroceryList(GroceryList groceryList) throws IOException {
+        try (Closeable ignored = writeLock.acquire()) {
+            delegate.saveGroceryList(groceryList);
+        }
+    }
+
+    @Override
+    public void upsert(String name, String category, int delta) throws IOException {
+        try (Closeable ignored = writeLock.acquire()) {
+            delegate.upsert(name, category, delta);
+        }
+    }
+
+    @Override
+    public boolean remove(String name, String category) throws IOException {
+        try (Closeable ignored = writeLock.acquire()) {
+            return delegate.remove(name, category);
+        }
+    }
+
+    @Override
+    public boolean watch(Runnable onChange) throws IOException {
+        return delegate.watch(onChange);
+    }
+
+    @Override
+    public Closeable lockForUpdate() throws IOException {
+        return writeLock.acquire();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (delegate instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+}
@@ -0,0 +1,377 @@
+package com.fges.storage;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fges.model.GroceryItem;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Chargeur JSON parallèle pour le format catégorisé {"categorie": {"article": quantite}}.
+ * Une première passe sur les octets repère les membres de la racine : les petits membres voisins sont regroupés
+ * en un même morceau, les grosses catégories découpées entre deux articles, pour des morceaux d'environ chunkBytes.
+ * Chaque morceau est ensuite analysé sur un ForkJoinPool par StreamingJsonLoader,
+ * dans sa propre liste. Les listes sont concaténées dans l'ordre du fichier, si bien que le résultat
+ * est identique à celui du chargement séquentiel.
+ * Les autres formats (racine tableau) et les fichiers mal formés passent par le chargement séquentiel.
+ * Le fichier doit être en UTF-8, comme l'écrit JsonGroceryListStorage.
+ */
+public class ParallelJsonLoader {
+    private static final int SCAN_BUFFER_SIZE = 1 << 20;
+    private static final long MIN_CHUNK_BYTES = 1 << 20;
+
+    private final JsonFactory jsonFactory;
+    private final StreamingJsonLoader sequentialLoader;
+    private final ForkJoinPool pool;
+    private final long minChunkBytes;
+
+    public ParallelJsonLoader(JsonFactory jsonFactory) {
+        this(jsonFactory, ForkJoinPool.commonPool(), MIN_CHUNK_BYTES);
+    }
+
+    /**
+     * @param jsonFactory Fabrique des parsers de chaque morceau
+     * @param pool Pool exécutant l'analyse des morceaux
+     * @param minChunkBytes Taille minimale d'un morceau ; une catégorie plus petite n'est pas découpée
+     */
+    public ParallelJsonLoader(JsonFactory jsonFactory, ForkJoinPool pool, long minChunkBytes) {
+        this.jsonFactory = jsonFactory;
+        this.sequentialLoader = new StreamingJsonLoader(jsonFactory);
+        this.pool = pool;
+        this.minChunkBytes = minChunkBytes;
+    }
+
+    /// charge tous les articles du fichier, en parallèle si sa forme le permet
+    public List<GroceryItem> load(Path filePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            long chunkBytes = Math.max(minChunkBytes, channel.size() / (4L * pool.getParallelism()));
+            List<Chunk> chunks = new BoundaryScanner(chunkBytes).scan(channel);
+            if (chunks == null) {
+                return sequentialLoader.load(filePath);
+            }
+            if (chunks.isEmpty()) {
+                return new ArrayList<>();
+            }
+
+            List<List<GroceryItem>> buckets = new ArrayList<>(Collections.nCopies(chunks.size(), null));
+            try {
+                pool.invoke(new ParseTask(channel, chunks, buckets, 0, chunks.size()));
+            } catch (UncheckedIOException e) {
+                // l'exception peut être recopiée en traversant les threads du pool
+                Throwable cause = e.getCause();
+                while (cause instanceof UncheckedIOException unchecked) {
+                    cause = unchecked.getCause();
+                }
+                if (cause instanceof IOException ioException) {
+                    throw ioException;
+                }
+                throw e;
+            }
+
+            int size = 0;
+            for (List<GroceryItem> bucket : buckets) {
+                size += bucket.size();
+            }
+            List<GroceryItem> groceryList = new ArrayList<>(size);
+            for (List<GroceryItem> bucket : buckets) {
+                groceryList.addAll(bucket);
+            }
+            return groceryList;
+        }
+    }
+
+    /**
+     * Morceau du fichier analysable seul, un intervalle d'octets.
+     * Si `items` est vrai, l'intervalle contient une suite d'articles de la catégorie dont la clé brute
+     * (guillemets compris) est entre keyStart et keyEnd, sans les accolades ;
+     * sinon il contient un ou plusieurs membres entiers de la racine, séparés par leurs virgules.
+     */
+    record Chunk(long keyStart, long keyEnd, long start, long end, boolean items) {
+    }
+
+    /// analyse par moitiés une plage de morceaux, chaque feuille remplit sa propre liste
+    private final class ParseTask extends RecursiveAction {
+        private final FileChannel channel;
+        private final List<Chunk> chunks;
+        private final List<List<GroceryItem>> buckets;
+        private final int from;
+        private final int to;
+
+        ParseTask(FileChannel channel, List<Chunk> chunks, List<List<GroceryItem>> buckets, int from, int to) {
+            this.channel = channel;
+            this.chunks = chunks;
+            this.buckets = buckets;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                if (from == to) {
+                    return;
+                }
+                try {
+                    buckets.set(from, parse(channel, chunks.get(from)));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ParseTask(channel, chunks, buckets, from, middle),
+                    new ParseTask(channel, chunks, buckets, middle, to));
+        }
+    }
+
+    /// rend le morceau autonome en le plaçant dans {"clé": {...}} ou {...} puis le confie au chargeur séquentiel
+    private List<GroceryItem> parse(FileChannel channel, Chunk chunk) throws IOException {
+        List<InputStream> parts = new ArrayList<>(5);
+        parts.add(bytes("{"));
+        if (chunk.items()) {
+            parts.add(new RegionInputStream(channel, chunk.keyStart(), chunk.keyEnd()));
+            parts.add(bytes(":{"));
+        }
+        parts.add(new RegionInputStream(channel, chunk.start(), chunk.end()));
+        parts.add(bytes(chunk.items() ? "}}" : "}"));
+
+        try (JsonParser parser = jsonFactory.createParser(new SequenceInputStream(Collections.enumeration(parts)))) {
+            return sequentialLoader.read(parser);
+        }
+    }
+
+    private static InputStream bytes(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Première passe : suit la profondeur d'imbrication et les chaînes pour repérer les membres de la racine
+     * et les virgules séparant les articles d'une catégorie.
+     */
+    static final class BoundaryScanner {
+        private final long chunkBytes;
+        private final List<Chunk> chunks = new ArrayList<>();
+
+        private int depth;
+        private boolean inString;
+        private boolean escaped;
+        private boolean rootSeen;
+        private boolean rootClosed;
+
+        // membre de la racine en cours
+        private boolean expectingKey = true;
+        private long keyStart = -1;
+        private long keyEnd = -1;
+        private boolean objectValue;
+        private long itemsStart = -1;
+        // la catégorie en cours a été découpée : ses morceaux sont déjà notés
+        private boolean split;
+
+        // membres entiers déjà lus et pas encore notés, regroupés jusqu'à chunkBytes
+        private long groupStart = -1;
+        private long groupEnd = -1;
+
+        BoundaryScanner(long chunkBytes) {
+            this.chunkBytes = chunkBytes;
+        }
+
+        /// morceaux dans l'ordre du fichier, ou null si la racine n'est pas un objet bien formé
+        List<Chunk> scan(FileChannel channel) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+            byte[] bytes = buffer.array();
+            long offset = 0;
+
+            int read;
+            while ((read = channel.read(buffer, offset)) > 0) {
+                for (int i = 0; i < read; i++) {
+                    if (!accept(bytes[i], offset + i)) {
+                        return null;
+                    }
+                }
+                offset += read;
+                buffer.clear();
+            }
+            return rootClosed && !inString ? chunks : null;
+        }
+
+        /// traite un octet ; false si le fichier sort du format catégorisé
+        private boolean accept(byte b, long position) {
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (b == '\\') {
+                    escaped = true;
+                } else if (b == '"') {
+                    inString = false;
+                    if (depth == 1 && expectingKey) {
+                        keyEnd = position + 1;
+                    }
+                }
+                return true;
+            }
+
+            if (rootClosed) {
+                return isBlank(b);
+            }
+            if (!rootSeen) {
+                if (b == '{') {
+                    rootSeen = true;
+                    depth = 1;
+                    return true;
+                }
+                return isBlank(b);
+            }
+
+            switch (b) {
+                case '"' -> {
+                    inString = true;
+                    if (depth == 1 && expectingKey) {
+                        keyStart = position;
+                    }
+                }
+                case ':' -> {
+                    if (depth == 1) {
+                        expectingKey = false;
+                    }
+                }
+                case '{', '[' -> {
+                    if (depth == 1 && b == '{' && !objectValue) {
+                        objectValue = true;
+                        itemsStart = position + 1;
+                    }
+                    depth++;
+                }
+                case '}', ']' -> {
+                    depth--;
+                    if (depth == 1 && split) {
+                        chunks.add(new Chunk(keyStart, keyEnd, itemsStart, position, true));
+                    } else if (depth == 0) {
+                        endMember(position);
+                        endGroup();
+                        rootClosed = true;
+                    } else if (depth < 0) {
+                        return false;
+                    }
+                }
+                case ',' -> {
+                    if (depth == 1) {
+                        endMember(position);
+                    } else if (depth == 2 && objectValue && position - itemsStart >= chunkBytes) {
+                        // coupe la catégorie entre deux articles, après les membres qui la précèdent
+                        endGroup();
+                        chunks.add(new Chunk(keyStart, keyEnd, itemsStart, position, true));
+                        itemsStart = position + 1;
+                        split = true;
+                    }
+                }
+                default -> {
+                    // valeurs et blancs : rien à repérer
+                }
+            }
+            return true;
+        }
+
+        /// termine le membre courant de la racine, qui s'arrête avant `position`
+        private void endMember(long position) {
+            if (!split && keyStart >= 0) {
+                // membre entier (catégorie, ancien format, marqueur de tri) : rejoint le groupe en cours
+                if (groupStart < 0) {
+                    groupStart = keyStart;
+                }
+                groupEnd = position;
+                if (groupEnd - groupStart >= chunkBytes) {
+                    endGroup();
+                }
+            }
+            expectingKey = true;
+            keyStart = -1;
+            keyEnd = -1;
+            objectValue = false;
+            itemsStart = -1;
+            split = false;
+        }
+
+        /// note le groupe de membres entiers en cours comme un morceau
+        private void endGroup() {
+            if (groupStart >= 0) {
+                chunks.add(new Chunk(-1, -1, groupStart, groupEnd, false));
+                groupStart = -1;
+                groupEnd = -1;
+            }
+        }
+
+        private static boolean isBlank(byte b) {
+            return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+        }
+    }
+
+    /// lecture d'un intervalle du fichier par lectures positionnelles, sûre entre threads
+    private static final class RegionInputStream extends InputStream {
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private long position;
+        private final long end;
+
+        RegionInputStream(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.position = start;
+            this.end = end;
+            // une clé ou un petit morceau n'a pas besoin de 64 Kio
+            this.buffer = ByteBuffer.allocate((int) Math.max(1, Math.min(64 * 1024, end - start)));
+            buffer.limit(0);
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!fill()) {
+                return -1;
+            }
+            return buffer.get() & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        private boolean fill() throws IOException {
+            if (buffer.hasRemaining()) {
+                return true;
+            }
+            if (position >= end) {
+                return false;
+            }
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), end - position));
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                throw new IOException("Unexpected end of JSON file");
+            }
+            position += read;
+            buffer.flip();
+            return true;
+        }
+    }
+}
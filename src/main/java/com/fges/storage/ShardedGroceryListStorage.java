@@ -0,0 +1,316 @@
+package com.fges.storage;
+
+import com.fges.model.GroceryItem;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Stockage réparti dans un répertoire : chaque catégorie est un fichier au format demandé
+ * (json, csv, bin ou journal), nommé d'après la catégorie encodée comme dans une URL.
+ * Ajouter ou supprimer un article ne réécrit que le fichier de sa catégorie.
+ * Les catégories sont lues en parallèle, quelques-unes d'avance, et chacune est triée par le thread
+ * qui la lit : le curseur rend la liste déjà triée.
+ */
+public class ShardedGroceryListStorage implements GroceryListStorage, Closeable {
+    private final Path directory;
+    private final String format;
+    private final String extension;
+    private final boolean fsync;
+    private final boolean sorted;
+    private final ForkJoinPool pool;
+
+    // un stockage par catégorie, gardé pour être fermé (journal)
+    private final Map<String, GroceryListStorage> shards = new ConcurrentHashMap<>();
+
+    /**
+     * @param directory Répertoire des fichiers de catégorie, créé à la première écriture
+     * @param format Format de chaque fichier (json, csv, journal, bin)
+     * @param fsync true pour forcer chaque sauvegarde sur disque
+     * @param sorted true pour écrire chaque fichier trié (json et bin)
+     */
+    public ShardedGroceryListStorage(String directory, String format, boolean fsync, boolean sorted) {
+        this(directory, format, fsync, sorted, ForkJoinPool.commonPool());
+    }
+
+    ShardedGroceryListStorage(String directory, String format, boolean fsync, boolean sorted, ForkJoinPool pool) {
+        this.directory = Paths.get(directory);
+        this.format = format;
+        this.extension = "." + format.toLowerCase();
+        this.fsync = fsync;
+        this.sorted = sorted;
+        this.pool = pool;
+    }
+
+    @Override
+    public List<GroceryItem> load() throws IOException {
+        List<GroceryItem> groceryList = new ArrayList<>();
+        try (GroceryItemCursor cursor = openCursor()) {
+            while (cursor.next()) {
+                groceryList.add(new GroceryItem(cursor.name(), cursor.quantity(), cursor.category()));
+            }
+        }
+        return groceryList;
+    }
+
+    /// toutes les catégories, lues en parallèle et rendues triées
+    @Override
+    public GroceryItemCursor openCursor() throws IOException {
+        return new ShardCursor(categories());
+    }
+
+    /// n'ouvre que le fichier de la catégorie demandée
+    @Override
+    public GroceryItemCursor openCursor(String category) throws IOException {
+        String shardCategory = normalize(category);
+        List<String> categories = Files.exists(shardPath(shardCategory)) ? List.of(shardCategory) : List.of();
+        return new ShardCursor(categories);
+    }
+
+    /// réécrit chaque catégorie de la liste et supprime les fichiers des catégories disparues
+    @Override
+    public void save(List<GroceryItem> groceryList) throws IOException {
+        Map<String, List<GroceryItem>> byCategory = new LinkedHashMap<>();
+        for (GroceryItem item : groceryList) {
+            byCategory.computeIfAbsent(normalize(item.getCategory()), key -> new ArrayList<>()).add(item);
+        }
+
+        Files.createDirectories(directory);
+        for (Map.Entry<String, List<GroceryItem>> category : byCategory.entrySet()) {
+            shard(category.getKey()).save(category.getValue());
+        }
+        for (String category : categories()) {
+            if (!byCategory.containsKey(category)) {
+                deleteShard(category);
+            }
+        }
+    }
+
+    /// ne touche qu'au fichier de la catégorie
+    @Override
+    public void upsert(String name, String category, int delta) throws IOException {
+        String shardCategory = normalize(category);
+        Files.createDirectories(directory);
+        shard(shardCategory).upsert(name, shardCategory, delta);
+    }
+
+    /// ne touche qu'au fichier de la catégorie, ou à chaque fichier si la catégorie est null
+    @Override
+    public boolean remove(String name, String category) throws IOException {
+        List<String> categories = category != null ? List.of(normalize(category)) : categories();
+
+        boolean removed = false;
+        for (String shardCategory : categories) {
+            if (!Files.exists(shardPath(shardCategory))) {
+                continue;
+            }
+            GroceryListStorage shard = shard(shardCategory);
+            if (shard.remove(name, shardCategory)) {
+                removed = true;
+                if (isEmpty(shard)) {
+                    deleteShard(shardCategory);
+                }
+            }
+        }
+        return removed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (GroceryListStorage shard : shards.values()) {
+            if (shard instanceof Closeable closeable) {
+                try {
+                    closeable.close();
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+        }
+        shards.clear();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /// catégories présentes dans le répertoire, triées
+    List<String> categories() throws IOException {
+        if (!Files.exists(directory)) {
+            return List.of();
+        }
+        if (!Files.isDirectory(directory)) {
+            throw new NotDirectoryException(directory.toString());
+        }
+
+        TreeSet<String> categories = new TreeSet<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + extension)) {
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                categories.add(URLDecoder.decode(fileName.substring(0, fileName.length() - extension.length()), StandardCharsets.UTF_8));
+            }
+        }
+        return new ArrayList<>(categories);
+    }
+
+    /// fichier d'une catégorie ; l'encodage exclut / et les autres caractères interdits dans un nom de fichier
+    Path shardPath(String category) {
+        return directory.resolve(URLEncoder.encode(category, StandardCharsets.UTF_8) + extension);
+    }
+
+    private GroceryListStorage shard(String category) {
+        return shards.computeIfAbsent(category,
+                key -> StorageFactory.getStorage(format, shardPath(key).toString(), fsync, sorted));
+    }
+
+    /// un seul article lu suffit ; le curseur est fermé avant toute suppression du fichier
+    private static boolean isEmpty(GroceryListStorage shard) throws IOException {
+        try (GroceryItemCursor cursor = shard.openCursor()) {
+            return !cursor.next();
+        }
+    }
+
+    private void deleteShard(String category) throws IOException {
+        GroceryListStorage shard = shards.remove(category);
+        if (shard instanceof Closeable closeable) {
+            closeable.close();
+        }
+        Files.deleteIfExists(shardPath(category));
+    }
+
+    private static String normalize(String category) {
+        return category != null && !category.isEmpty() ? category : "default";
+    }
+
+    /// lit une catégorie et la trie par nom ; un article répété garde sa dernière quantité
+    private TreeMap<String, Integer> readShard(String category) throws IOException {
+        TreeMap<String, Integer> items = new TreeMap<>();
+        try (GroceryItemCursor cursor = shard(category).openCursor()) {
+            while (cursor.next()) {
+                if (category.equals(cursor.category())) {
+                    items.put(cursor.name(), cursor.quantity());
+                } else {
+                    System.err.println("Warning: Ignoring item " + cursor.name() + " of category "
+                            + cursor.category() + " in " + shardPath(category));
+                }
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Parcourt les catégories dans l'ordre en gardant quelques lectures d'avance sur le pool :
+     * au plus une catégorie par thread est en mémoire en plus de celle en cours.
+     */
+    private final class ShardCursor implements GroceryItemCursor {
+        private final List<String> categories;
+        private final ArrayDeque<ForkJoinTask<TreeMap<String, Integer>>> pending = new ArrayDeque<>();
+        private final int window;
+        private int submitted;
+        private int consumed;
+
+        private String category;
+        private Iterator<Map.Entry<String, Integer>> items;
+        private Map.Entry<String, Integer> current;
+
+        ShardCursor(List<String> categories) {
+            this.categories = categories;
+            this.window = Math.max(1, pool.getParallelism());
+            fill();
+        }
+
+        @Override
+        public boolean next() throws IOException {
+            while (items == null || !items.hasNext()) {
+                if (pending.isEmpty()) {
+                    current = null;
+                    return false;
+                }
+                category = categories.get(consumed++);
+                items = join(pending.poll()).entrySet().iterator();
+                fill();
+            }
+            current = items.next();
+            return true;
+        }
+
+        @Override
+        public boolean isSorted() {
+            return true;
+        }
+
+        @Override
+        public String name() {
+            return current.getKey();
+        }
+
+        @Override
+        public int quantity() {
+            return current.getValue();
+        }
+
+        @Override
+        public String category() {
+            return category;
+        }
+
+        @Override
+        public void close() {
+            for (ForkJoinTask<?> task : pending) {
+                task.cancel(true);
+            }
+            pending.clear();
+        }
+
+        private void fill() {
+            while (submitted < categories.size() && pending.size() < window) {
+                String shardCategory = categories.get(submitted++);
+                pending.add(pool.submit(() -> {
+                    try {
+                        return readShard(shardCategory);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+            }
+        }
+
+        private TreeMap<String, Integer> join(ForkJoinTask<TreeMap<String, Integer>> task) throws IOException {
+            try {
+                return task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while reading category files", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                while (cause instanceof UncheckedIOException unchecked) {
+                    cause = unchecked.getCause();
+                }
+                if (cause instanceof IOException ioException) {
+                    throw ioException;
+                }
+                throw new IOException("Failed to read category file", cause);
+            }
+        }
+    }
+}
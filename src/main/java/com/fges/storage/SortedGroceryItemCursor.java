@@ -0,0 +1,247 @@
+package com.fges.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Curseur triant les articles d'un autre curseur par catégorie puis par nom, avec une mémoire bornée.
+ * Les articles sont accumulés jusqu'au budget mémoire ; au-delà, le lot est trié et écrit dans un
+ * fichier temporaire (une « série »), puis les séries sont fusionnées à la lecture.
+ * Un article présent plusieurs fois (même catégorie et même nom) n'est rendu qu'une fois :
+ * la dernière occurrence l'emporte, comme dans GroceryList.
+ */
+public class SortedGroceryItemCursor implements GroceryItemCursor {
+    /// taille estimée d'un article en mémoire hors caractères du nom (objet, références, entier)
+    static final long ENTRY_OVERHEAD_BYTES = 64;
+
+    private static final Comparator<Entry> ORDER = Comparator
+            .comparing((Entry entry) -> entry.category)
+            .thenComparing(entry -> entry.name);
+
+    private final List<Path> runFiles = new ArrayList<>();
+    private final List<RunReader> readers = new ArrayList<>();
+
+    // tout tient en mémoire : parcours de la liste triée
+    private Iterator<Entry> memory;
+    // sinon fusion des séries, la plus ancienne d'abord à clé égale
+    private PriorityQueue<RunReader> merge;
+
+    private Entry current;
+
+    /**
+     * Lit entièrement la source, en déversant des séries triées sur disque si nécessaire
+     * @param source Curseur à trier, fermé par ce constructeur
+     * @param memoryBudgetBytes Mémoire que le tri peut occuper avant d'écrire une série sur disque
+     * @param temporaryDirectory Répertoire des séries
+     */
+    public SortedGroceryItemCursor(GroceryItemCursor source, long memoryBudgetBytes, Path temporaryDirectory) throws IOException {
+        List<Entry> batch = new ArrayList<>();
+        long batchBytes = 0;
+
+        try (source) {
+            while (source.next()) {
+                Entry entry = new Entry(source.category(), source.name(), source.quantity());
+                batch.add(entry);
+                // les chaînes de catégorie sont partagées par les chargeurs : seul le nom compte
+                batchBytes += ENTRY_OVERHEAD_BYTES + 2L * entry.name.length();
+
+                if (batchBytes >= memoryBudgetBytes) {
+                    runFiles.add(writeRun(sortAndDeduplicate(batch), temporaryDirectory));
+                    batch = new ArrayList<>();
+                    batchBytes = 0;
+                }
+            }
+
+            if (runFiles.isEmpty()) {
+                memory = sortAndDeduplicate(batch).iterator();
+                return;
+            }
+            if (!batch.isEmpty()) {
+                runFiles.add(writeRun(sortAndDeduplicate(batch), temporaryDirectory));
+            }
+            batch = null;
+
+            // à clé égale, la série la plus récente sort en dernier et remplace les précédentes
+            merge = new PriorityQueue<>(Comparator.comparing((RunReader reader) -> reader.head, ORDER)
+                    .thenComparingInt(reader -> reader.index));
+            for (int i = 0; i < runFiles.size(); i++) {
+                RunReader reader = new RunReader(runFiles.get(i), i);
+                readers.add(reader);
+                if (reader.advance()) {
+                    merge.add(reader);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /// nombre de séries écrites sur disque, 0 si tout a tenu en mémoire
+    public int runCount() {
+        return runFiles.size();
+    }
+
+    @Override
+    public boolean next() throws IOException {
+        if (memory != null) {
+            current = memory.hasNext() ? memory.next() : null;
+            return current != null;
+        }
+
+        RunReader reader = merge.poll();
+        if (reader == null) {
+            current = null;
+            return false;
+        }
+        current = reader.head;
+        requeue(reader);
+
+        while (!merge.isEmpty() && ORDER.compare(merge.peek().head, current) == 0) {
+            RunReader newer = merge.poll();
+            current = newer.head;
+            requeue(newer);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isSorted() {
+        return true;
+    }
+
+    @Override
+    public String name() {
+        return current.name;
+    }
+
+    @Override
+    public int quantity() {
+        return current.quantity;
+    }
+
+    @Override
+    public String category() {
+        return current.category;
+    }
+
+    /// ferme et supprime les séries temporaires
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (RunReader reader : readers) {
+            try {
+                reader.input.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        readers.clear();
+        for (Path runFile : runFiles) {
+            try {
+                Files.deleteIfExists(runFile);
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        runFiles.clear();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void requeue(RunReader reader) throws IOException {
+        if (reader.advance()) {
+            merge.add(reader);
+        }
+    }
+
+    /// tri stable puis conservation de la dernière occurrence de chaque article, sur place
+    private static List<Entry> sortAndDeduplicate(List<Entry> batch) {
+        batch.sort(ORDER);
+        int size = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            Entry entry = batch.get(i);
+            if (size > 0 && ORDER.compare(batch.get(size - 1), entry) == 0) {
+                batch.set(size - 1, entry);
+            } else {
+                batch.set(size++, entry);
+            }
+        }
+        batch.subList(size, batch.size()).clear();
+        return batch;
+    }
+
+    private static Path writeRun(List<Entry> entries, Path temporaryDirectory) throws IOException {
+        Path runFile = Files.createTempFile(temporaryDirectory, "grocery-list-sort", ".run");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(runFile), 1 << 16))) {
+            for (Entry entry : entries) {
+                writeString(output, entry.category);
+                writeString(output, entry.name);
+                output.writeInt(entry.quantity);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(runFile);
+            throw e;
+        }
+        return runFile;
+    }
+
+    /// longueur puis UTF-8 : writeUTF est limité à 64 Ko
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        byte[] bytes = new byte[input.readInt()];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private record Entry(String category, String name, int quantity) {
+    }
+
+    /// lecture séquentielle d'une série ; head est l'article suivant à fusionner
+    private static final class RunReader {
+        private final DataInputStream input;
+        private final int index;
+        private String lastCategory;
+        private Entry head;
+
+        RunReader(Path runFile, int index) throws IOException {
+            this.input = new DataInputStream(new BufferedInputStream(Files.newInputStream(runFile), 1 << 16));
+            this.index = index;
+        }
+
+        boolean advance() throws IOException {
+            String category;
+            try {
+                category = readString(input);
+            } catch (EOFException e) {
+                head = null;
+                return false;
+            }
+            // la série est triée par catégorie : une même chaîne pour toute la catégorie
+            if (category.equals(lastCategory)) {
+                category = lastCategory;
+            }
+            lastCategory = category;
+            head = new Entry(category, readString(input), input.readInt());
+            return true;
+        }
+    }
+}
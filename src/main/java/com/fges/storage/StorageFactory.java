@@ -0,0 +1,72 @@
+package com.fges.storage;
+
+/**
+ * Fabrique pour créer l'implémentation de stockage correspondant au format demandé
+ */
+public class StorageFactory {
+
+    /**
+     * Crée l'instance de stockage appropriée en fonction du format
+     * @param format Format du fichier (json, csv, journal, bin), insensible à la casse
+     * @param fileName Fichier source de la liste de courses
+     * @return Instance de stockage ou null si format inconnu
+     */
+    public static GroceryListStorage getStorage(String format, String fileName) {
+        return getStorage(format, fileName, true);
+    }
+
+    /**
+     * Crée l'instance de stockage appropriée en fonction du format
+     * @param format Format du fichier (json, csv, journal, bin), insensible à la casse
+     * @param fileName Fichier source de la liste de courses
+     * @param fsync true pour forcer les sauvegardes json, csv et bin sur disque avant de remplacer le fichier
+     * @return Instance de stockage ou null si format inconnu
+     */
+    public static GroceryListStorage getStorage(String format, String fileName, boolean fsync) {
+        return getStorage(format, fileName, fsync, false);
+    }
+
+    /**
+     * Crée l'instance de stockage appropriée en fonction du format
+     * @param format Format du fichier (json, csv, journal, bin), insensible à la casse
+     * @param fileName Fichier source de la liste de courses
+     * @param fsync true pour forcer les sauvegardes json, csv et bin sur disque avant de remplacer le fichier
+     * @param sorted true pour que les sauvegardes json et bin écrivent la liste triée, list n'ayant alors plus à trier
+     * @return Instance de stockage ou null si format inconnu
+     */
+    public static GroceryListStorage getStorage(String format, String fileName, boolean fsync, boolean sorted) {
+        return switch (format.toLowerCase()) {
+            case "json" -> new JsonGroceryListStorage(fileName, fsync, sorted);
+            case "csv" -> new CsvGroceryListStorage(fileName, fsync);
+            case "journal" -> new JournalGroceryListStorage(fileName);
+            case "bin" -> new BinaryGroceryListStorage(fileName, fsync, sorted);
+            default -> null;
+        };
+    }
+
+    /// format d'un fichier d'après son extension (.csv, .journal, .bin), json sinon
+    public static String formatOf(String fileName) {
+        String name = fileName.toLowerCase();
+        for (String format : new String[]{"csv", "journal", "bin"}) {
+            if (name.endsWith("." + format)) {
+                return format;
+            }
+        }
+        return "json";
+    }
+
+    /**
+     * Crée un stockage réparti : fileName est un répertoire contenant un fichier par catégorie
+     * @param format Format de chaque fichier de catégorie (json, csv, journal, bin), insensible à la casse
+     * @param directory Répertoire de la liste de courses
+     * @param fsync true pour forcer les sauvegardes json, csv et bin sur disque avant de remplacer le fichier
+     * @param sorted true pour que les sauvegardes json et bin écrivent chaque catégorie triée
+     * @return Instance de stockage ou null si format inconnu
+     */
+    public static GroceryListStorage getShardedStorage(String format, String directory, boolean fsync, boolean sorted) {
+        return switch (format.toLowerCase()) {
+            case "json", "csv", "journal", "bin" -> new ShardedGroceryListStorage(directory, format, fsync, sorted);
+            default -> null;
+        };
+    }
+}
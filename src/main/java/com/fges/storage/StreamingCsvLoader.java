@@ -0,0 +1,488 @@
+package com.fges.storage;
+
+import com.fges.model.GroceryItem;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Chargeur CSV travaillant directement sur les octets lus depuis un FileChannel.
+ * Aucun String[] n'est alloué par ligne : seuls le nom (décodé en UTF-8) et la catégorie
+ * (partagée entre toutes les lignes qui la répètent) deviennent des String,
+ * la quantité est lue chiffre par chiffre dans le tampon.
+ * Les champs suivent la convention d'écriture de CSVWriter : guillemets optionnels, "" pour un guillemet.
+ */
+public class StreamingCsvLoader {
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_FIELDS = 3;
+
+    private final int initialBufferSize;
+
+    // fenêtre courante du fichier : octets valides dans [0, limit)
+    private byte[] buffer;
+    private int limit;
+    private boolean endOfFile;
+
+    // champs de l'enregistrement courant (seuls les trois premiers sont conservés)
+    private final int[] fieldStart = new int[MAX_FIELDS];
+    private final int[] fieldEnd = new int[MAX_FIELDS];
+    private final boolean[] fieldEscaped = new boolean[MAX_FIELDS];
+    private int fieldCount;
+
+    private byte[] scratch = new byte[256];
+    private boolean quantityValid;
+
+    public StreamingCsvLoader() {
+        this(DEFAULT_BUFFER_SIZE);
+    }
+
+    public StreamingCsvLoader(int initialBufferSize) {
+        this.initialBufferSize = initialBufferSize;
+    }
+
+    /// charge tous les articles du fichier en une seule lecture
+    public List<GroceryItem> load(Path filePath) throws IOException {
+        List<GroceryItem> groceryList = new ArrayList<>();
+        try (GroceryItemCursor cursor = open(filePath)) {
+            while (cursor.next()) {
+                groceryList.add(new GroceryItem(cursor.name(), cursor.quantity(), cursor.category()));
+            }
+        }
+        return groceryList;
+    }
+
+    /**
+     * Parcourt les lignes du fichier au fil de la lecture, sans garder la liste en mémoire.
+     * Le tampon appartient au chargeur : un seul curseur ouvert à la fois par instance.
+     */
+    public GroceryItemCursor open(Path filePath) throws IOException {
+        FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ);
+        buffer = new byte[initialBufferSize];
+        limit = 0;
+        endOfFile = false;
+        return new RowCursor(channel);
+    }
+
+    /**
+     * Recopie le fichier dans `out` en une seule lecture, octets inchangés, sauf les articles (name, category) :
+     * omis si keep est faux, sinon réécrits avec leur quantité augmentée de delta, comme les écrit CSVWriter.
+     * L'en-tête est recopié tel quel : le fichier doit en avoir un.
+     * @param category Catégorie visée, ou null pour toutes les catégories
+     * @return true si au moins une ligne correspondait ; sinon `out` a reçu une copie conforme du fichier
+     */
+    public boolean rewrite(Path filePath, OutputStream out, String name, String category, int delta, boolean keep)
+            throws IOException {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        boolean matched = false;
+
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            buffer = new byte[initialBufferSize];
+            limit = 0;
+            endOfFile = false;
+            int position = 0;
+            boolean headerRead = false;
+
+            while (true) {
+                int next = position < limit || endOfFile ? parseRecord(position) : -1;
+                if (next < 0) {
+                    // tout ce qui précède `position` est déjà écrit : refill peut le jeter
+                    position = refill(channel, position);
+                    if (position < 0) {
+                        break;
+                    }
+                    continue;
+                }
+
+                String rowCategory = headerRead ? matchingCategory(nameBytes, name, category) : null;
+                if (rowCategory == null) {
+                    out.write(buffer, position, next - position);
+                } else {
+                    matched = true;
+                    if (keep) {
+                        int quantity = parseQuantity(1) + delta;
+                        writeRow(out, name, String.valueOf(quantity), rowCategory);
+                    }
+                }
+                headerRead = true;
+
+                position = next;
+                if (position >= limit && endOfFile) {
+                    break;
+                }
+            }
+        } finally {
+            buffer = null;
+        }
+        return matched;
+    }
+
+    /// catégorie de l'enregistrement courant s'il est l'article visé (quantité numérique), sinon null
+    private String matchingCategory(byte[] nameBytes, String name, String category) {
+        if (fieldCount < 2) {
+            return null;
+        }
+        // le nom est comparé sur les octets : aucune String pour les lignes d'autres articles
+        boolean sameName = fieldEscaped[0]
+                ? decode(0).equals(name)
+                : Arrays.equals(buffer, fieldStart[0], fieldEnd[0], nameBytes, 0, nameBytes.length);
+        if (!sameName) {
+            return null;
+        }
+        parseQuantity(1);
+        if (!quantityValid) {
+            return null;
+        }
+        String rowCategory = fieldCount >= 3 && fieldEnd[2] > fieldStart[2] ? decode(2) : "default";
+        return category == null || category.equals(rowCategory) ? rowCategory : null;
+    }
+
+    /// écrit une ligne comme CSVWriter : chaque champ entre guillemets, guillemets doublés, fin de ligne \n
+    private static void writeRow(OutputStream out, String... fields) throws IOException {
+        StringBuilder row = new StringBuilder();
+        for (int field = 0; field < fields.length; field++) {
+            if (field > 0) {
+                row.append(',');
+            }
+            row.append('"').append(fields[field].replace("\"", "\"\"")).append('"');
+        }
+        row.append('\n');
+        out.write(row.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Décale les octets non consommés en début de tampon et lit la suite du fichier
+     * @return nouvelle position de l'enregistrement courant, ou -1 s'il n'y a plus rien à lire
+     */
+    private int refill(FileChannel channel, int position) throws IOException {
+        if (endOfFile) {
+            return -1;
+        }
+
+        int remaining = limit - position;
+        if (position == 0 && remaining == buffer.length) {
+            // un seul enregistrement plus grand que le tampon
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        } else {
+            System.arraycopy(buffer, position, buffer, 0, remaining);
+        }
+        limit = remaining;
+
+        ByteBuffer window = ByteBuffer.wrap(buffer, limit, buffer.length - limit);
+        int read = channel.read(window);
+        if (read < 0) {
+            endOfFile = true;
+        } else {
+            limit += read;
+        }
+        return 0;
+    }
+
+    /**
+     * Repère les champs de l'enregistrement commençant à `position`
+     * @return position de l'enregistrement suivant, ou -1 si l'enregistrement dépasse la fin du tampon
+     */
+    private int parseRecord(int position) {
+        fieldCount = 0;
+        int i = position;
+
+        while (true) {
+            if (i < limit && buffer[i] == '"') {
+                int start = i + 1;
+                boolean escaped = false;
+                i = start;
+                while (true) {
+                    if (i >= limit) {
+                        if (!endOfFile) {
+                            return -1;
+                        }
+                        break;
+                    }
+                    if (buffer[i] == '"') {
+                        if (i + 1 >= limit && !endOfFile) {
+                            return -1;
+                        }
+                        if (i + 1 < limit && buffer[i + 1] == '"') {
+                            escaped = true;
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                addField(start, Math.min(i, limit), escaped);
+                // ignore ce qui suit le guillemet fermant jusqu'au séparateur
+                while (i < limit && buffer[i] != ',' && buffer[i] != '\n' && buffer[i] != '\r') {
+                    i++;
+                }
+            } else {
+                int start = i;
+                while (i < limit && buffer[i] != ',' && buffer[i] != '\n' && buffer[i] != '\r') {
+                    i++;
+                }
+                addField(start, i, false);
+            }
+
+            if (i >= limit) {
+                return endOfFile ? limit : -1;
+            }
+            if (buffer[i] == ',') {
+                i++;
+                continue;
+            }
+            if (buffer[i] == '\r') {
+                if (i + 1 >= limit) {
+                    return endOfFile ? limit : -1;
+                }
+                return buffer[i + 1] == '\n' ? i + 2 : i + 1;
+            }
+            return i + 1;
+        }
+    }
+
+    private void addField(int start, int end, boolean escaped) {
+        if (fieldCount < MAX_FIELDS) {
+            fieldStart[fieldCount] = start;
+            fieldEnd[fieldCount] = end;
+            fieldEscaped[fieldCount] = escaped;
+        }
+        fieldCount++;
+    }
+
+    /// vrai si l'enregistrement courant est un en-tête name,quantity[,category] à `columns` colonnes
+    private boolean isHeader(int columns) {
+        if (fieldCount < columns) {
+            return false;
+        }
+        String[] expected = {"name", "quantity", "category"};
+        for (int field = 0; field < columns; field++) {
+            if (!decode(field).equalsIgnoreCase(expected[field])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /// décode un champ en UTF-8 en retirant les guillemets doublés
+    private String decode(int field) {
+        int start = fieldStart[field];
+        int length = fieldEnd[field] - start;
+        if (!fieldEscaped[field]) {
+            return new String(buffer, start, length, StandardCharsets.UTF_8);
+        }
+
+        if (scratch.length < length) {
+            scratch = new byte[length];
+        }
+        int out = 0;
+        for (int i = start; i < start + length; i++) {
+            scratch[out++] = buffer[i];
+            if (buffer[i] == '"' && i + 1 < start + length && buffer[i + 1] == '"') {
+                i++;
+            }
+        }
+        return new String(scratch, 0, out, StandardCharsets.UTF_8);
+    }
+
+    /// lit un entier signé directement dans le tampon, comme Integer.parseInt
+    private int parseQuantity(int field) {
+        int i = fieldStart[field];
+        int end = fieldEnd[field];
+        quantityValid = false;
+
+        if (fieldEscaped[field] || i >= end) {
+            return 0;
+        }
+
+        boolean negative = false;
+        if (buffer[i] == '-' || buffer[i] == '+') {
+            negative = buffer[i] == '-';
+            i++;
+            if (i >= end) {
+                return 0;
+            }
+        }
+
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return 0;
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                return 0;
+            }
+        }
+
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            return 0;
+        }
+        quantityValid = true;
+        return (int) value;
+    }
+
+    /**
+     * Curseur sur les lignes du fichier : chaque appel à next() lit jusqu'à la prochaine ligne valide.
+     */
+    private final class RowCursor implements GroceryItemCursor {
+        private final FileChannel channel;
+        private final CategoryTable categories = new CategoryTable();
+        private int position;
+        private boolean headerRead;
+        private boolean hasCategory;
+        private boolean finished;
+
+        private String name;
+        private int quantity;
+        private String category;
+
+        RowCursor(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public boolean next() throws IOException {
+            while (!finished) {
+                int next = position < limit || endOfFile ? parseRecord(position) : -1;
+                if (next < 0) {
+                    // enregistrement incomplet : on garde la fin du tampon et on lit la suite
+                    position = refill(channel, position);
+                    if (position < 0) {
+                        finish();
+                    }
+                    continue;
+                }
+
+                boolean found = false;
+                if (!headerRead) {
+                    headerRead = true;
+                    hasCategory = isHeader(3);
+                    if (!hasCategory && !isHeader(2)) {
+                        System.err.println("Warning: CSV file has invalid header format");
+                        finished = true;
+                        return false;
+                    }
+                } else if (fieldCount >= 2) {
+                    String rowName = decode(0);
+                    int rowQuantity = parseQuantity(1);
+
+                    if (quantityValid) {
+                        String rowCategory = "default";
+                        if (hasCategory && fieldCount >= 3 && fieldEnd[2] > fieldStart[2]) {
+                            rowCategory = fieldEscaped[2] ? decode(2) : categories.intern(buffer, fieldStart[2], fieldEnd[2]);
+                        }
+                        name = rowName;
+                        quantity = rowQuantity;
+                        category = rowCategory;
+                        found = true;
+                    } else {
+                        System.err.println("Warning: Ignoring row with non-numeric quantity: " + rowName);
+                    }
+                }
+
+                position = next;
+                if (position >= limit && endOfFile) {
+                    finish();
+                }
+                if (found) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public int quantity() {
+            return quantity;
+        }
+
+        @Override
+        public String category() {
+            return category;
+        }
+
+        @Override
+        public void close() throws IOException {
+            buffer = null;
+            channel.close();
+        }
+
+        private void finish() {
+            finished = true;
+            if (!headerRead) {
+                System.err.println("Warning: CSV file has invalid header format");
+            }
+        }
+    }
+
+    /**
+     * Table d'internement des catégories : une ligne dont la catégorie a déjà été vue
+     * réutilise la même String sans allouer.
+     */
+    private static final class CategoryTable {
+        private byte[][] keys = new byte[16][];
+        private String[] values = new String[16];
+        private int size;
+
+        String intern(byte[] bytes, int start, int end) {
+            int hash = 1;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + bytes[i];
+            }
+
+            int mask = keys.length - 1;
+            int slot = (hash ^ (hash >>> 16)) & mask;
+            while (keys[slot] != null) {
+                if (Arrays.equals(keys[slot], 0, keys[slot].length, bytes, start, end)) {
+                    return values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            byte[] key = Arrays.copyOfRange(bytes, start, end);
+            String value = new String(key, StandardCharsets.UTF_8);
+            keys[slot] = key;
+            values[slot] = value;
+            if (++size * 2 > keys.length) {
+                grow();
+            }
+            return value;
+        }
+
+        private void grow() {
+            byte[][] oldKeys = keys;
+            String[] oldValues = values;
+            keys = new byte[oldKeys.length * 2][];
+            values = new String[oldKeys.length * 2];
+            int mask = keys.length - 1;
+
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] == null) {
+                    continue;
+                }
+                int hash = Arrays.hashCode(oldKeys[i]);
+                int slot = (hash ^ (hash >>> 16)) & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
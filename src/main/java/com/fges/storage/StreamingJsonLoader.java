@@ -0,0 +1,272 @@
+package com.fges.storage;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fges.model.GroceryItem;
+import com.fges.util.JsonCodec;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Chargeur JSON en une seule passe basé sur le JsonParser de Jackson.
+ * Reconnaît les quatre formes supportées à partir des premiers jetons, sans construire d'arbre JsonNode :
+ * - {"categorie": {"article": quantite}} (format actuel)
+ * - {"article": quantite} (ancien format, catégorie "default")
+ * - [{"name": ..., "quantity": ..., "category": ...}] (ancienne liste de GroceryItem)
+ * - ["article: quantite"] (ancienne liste de chaînes)
+ * Un premier champ "@sorted": true indique que catégories et articles sont écrits triés.
+ */
+public class StreamingJsonLoader {
+    /// champ booléen en tête d'un fichier catégorisé trié
+    public static final String SORTED_MARKER = "@sorted";
+
+    private final JsonFactory jsonFactory;
+
+    public StreamingJsonLoader() {
+        this(JsonCodec.factory());
+    }
+
+    public StreamingJsonLoader(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    /// charge tous les articles du fichier en une seule lecture
+    public List<GroceryItem> load(Path filePath) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(filePath.toFile())) {
+            return read(parser);
+        }
+    }
+
+    /// parcourt les articles du fichier au fil de la lecture, sans garder la liste en mémoire
+    public GroceryItemCursor open(Path filePath) throws IOException {
+        JsonParser parser = jsonFactory.createParser(filePath.toFile());
+        try {
+            ItemCursor cursor = new ItemCursor(parser);
+            cursor.start();
+            return cursor;
+        } catch (IOException | RuntimeException e) {
+            parser.close();
+            throw e;
+        }
+    }
+
+    /// lit les articles depuis un parser positionné avant le premier jeton
+    public List<GroceryItem> read(JsonParser parser) throws IOException {
+        List<GroceryItem> groceryList = new ArrayList<>();
+        ItemCursor cursor = new ItemCursor(parser);
+        cursor.start();
+        while (cursor.next()) {
+            groceryList.add(new GroceryItem(cursor.name, cursor.quantity, cursor.category));
+        }
+        return groceryList;
+    }
+
+    /**
+     * Curseur avançant dans le parser jusqu'au prochain article.
+     * Racine objet : {"categorie": {"article": quantite}} ou {"article": quantite}.
+     * Racine tableau : [{"name": ..., "quantity": ...}] ou ["article: quantite"].
+     */
+    private static final class ItemCursor implements GroceryItemCursor {
+        private final JsonParser parser;
+        private JsonToken root;
+        private boolean finished;
+        private boolean sorted;
+        // catégorie ouverte dans une racine objet, null entre deux catégories
+        private String openCategory;
+        // premier champ de la racine, lu pour chercher le marqueur de tri et pas encore traité
+        private String pendingKey;
+
+        private String name;
+        private int quantity;
+        private String category;
+
+        ItemCursor(JsonParser parser) {
+            this.parser = parser;
+        }
+
+        /// lit la racine et, pour un objet, son premier champ pour savoir si le fichier est trié
+        void start() throws IOException {
+            root = parser.nextToken();
+            if (root == null) {
+                // fichier ne contenant que des espaces
+                finished = true;
+                return;
+            }
+            if (root != JsonToken.START_OBJECT && root != JsonToken.START_ARRAY) {
+                throw new IOException("Failed to parse JSON file in any supported format");
+            }
+
+            if (root == JsonToken.START_OBJECT && parser.nextToken() == JsonToken.FIELD_NAME) {
+                pendingKey = parser.currentName();
+                JsonToken valueToken = parser.nextToken();
+                sorted = SORTED_MARKER.equals(pendingKey) && valueToken == JsonToken.VALUE_TRUE;
+            } else if (root == JsonToken.START_OBJECT) {
+                // objet vide
+                finished = true;
+            }
+        }
+
+        @Override
+        public boolean next() throws IOException {
+            if (finished) {
+                return false;
+            }
+
+            boolean found = root == JsonToken.START_OBJECT ? nextInObject() : nextInArray();
+            finished = !found;
+            return found;
+        }
+
+        @Override
+        public boolean isSorted() {
+            return sorted;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public int quantity() {
+            return quantity;
+        }
+
+        @Override
+        public String category() {
+            return category;
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+        }
+
+        /// {"categorie": {"article": quantite}} ou {"article": quantite}
+        private boolean nextInObject() throws IOException {
+            while (true) {
+                if (openCategory != null) {
+                    if (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        readCategoryItem();
+                        return true;
+                    }
+                    openCategory = null;
+                }
+
+                String key;
+                JsonToken valueToken;
+                if (pendingKey != null) {
+                    key = pendingKey;
+                    valueToken = parser.currentToken();
+                    pendingKey = null;
+                } else {
+                    if (parser.nextToken() != JsonToken.FIELD_NAME) {
+                        return false;
+                    }
+                    key = parser.currentName();
+                    valueToken = parser.nextToken();
+                }
+
+                if (valueToken.isBoolean() && SORTED_MARKER.equals(key)) {
+                    // marqueur de tri, pas un article
+                    continue;
+                }
+                if (valueToken == JsonToken.START_OBJECT) {
+                    openCategory = key;
+                } else if (valueToken.isScalarValue() && valueToken != JsonToken.VALUE_NULL) {
+                    // ancien format sans catégorie
+                    set(key, parser.getValueAsInt(), "default");
+                    return true;
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        /// lit un article de la catégorie ouverte : "article": quantite
+        private void readCategoryItem() throws IOException {
+            String itemName = parser.currentName();
+            JsonToken valueToken = parser.nextToken();
+
+            int itemQuantity = 0;
+            if (valueToken.isScalarValue()) {
+                itemQuantity = parser.getValueAsInt();
+            } else {
+                parser.skipChildren();
+            }
+            set(itemName, itemQuantity, openCategory);
+        }
+
+        /// [{"name": ..., "quantity": ...}] ou ["article: quantite"]
+        private boolean nextInArray() throws IOException {
+            JsonToken elementToken;
+            while ((elementToken = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (elementToken == null) {
+                    return false;
+                }
+                if (elementToken == JsonToken.START_OBJECT) {
+                    readItemObject();
+                    return true;
+                } else if (elementToken == JsonToken.VALUE_STRING) {
+                    if (readItemString(parser.getText())) {
+                        return true;
+                    }
+                } else if (elementToken == JsonToken.START_ARRAY) {
+                    throw new IOException("Failed to parse JSON file in any supported format");
+                }
+            }
+            return false;
+        }
+
+        /// lit un ancien GroceryItem sérialisé : {"name": ..., "quantity": ..., "category": ...}
+        private void readItemObject() throws IOException {
+            // passe par GroceryItem pour garder ses règles sur la catégorie par défaut
+            GroceryItem item = new GroceryItem();
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken valueToken = parser.nextToken();
+
+                switch (field) {
+                    case "name" -> item.setName(valueToken == JsonToken.VALUE_NULL ? null : parser.getText());
+                    case "quantity" -> item.setQuantity(parser.getValueAsInt());
+                    case "category" -> item.setCategory(valueToken == JsonToken.VALUE_NULL ? null : parser.getText());
+                    default -> parser.skipChildren();
+                }
+            }
+
+            set(item.getName(), item.getQuantity(), item.getCategory());
+        }
+
+        /// lit une entrée de l'ancienne liste de chaînes : "article: quantite" ou "article"
+        private boolean readItemString(String entry) {
+            int separator = entry.indexOf(':');
+            if (separator < 0) {
+                set(entry.trim(), 1, "default");
+                return true;
+            }
+
+            String itemName = entry.substring(0, separator).trim();
+            int end = entry.indexOf(':', separator + 1);
+            String quantityText = entry.substring(separator + 1, end < 0 ? entry.length() : end).trim();
+            try {
+                set(itemName, Integer.parseInt(quantityText), "default");
+                return true;
+            } catch (NumberFormatException nfe) {
+                System.err.println("Warning: Ignoring malformed entry: " + entry);
+                return false;
+            }
+        }
+
+        /// même règle que GroceryItem : catégorie vide ou absente → "default"
+        private void set(String itemName, int itemQuantity, String itemCategory) {
+            name = itemName;
+            quantity = itemQuantity;
+            category = itemCategory != null && !itemCategory.isEmpty() ? itemCategory : "default";
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.fges.util;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
 import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.Option;
 import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
 
@@ -20,12 +21,32 @@ public class CliParser {
         parser = new DefaultParser();
 
         cliOptions.addRequiredOption("s", "source", true, "ficher avec la liste de courses");
-        cliOptions.addOption("f", "format", true, "Format du fichier (json ou csv). Par défaut 'json'");
+        cliOptions.addOption("f", "format", true, "Format du fichier (json, csv, journal ou bin). Par défaut 'json'");
         cliOptions.addOption("c", "category", true, "Catégorie de l'article, par défaut 'default'");
+        cliOptions.addOption(Option.builder().longOpt("no-fsync")
+                .desc("sauvegardes json et csv sans fsync : plus rapides, mais perdables en cas de coupure").build());
+        cliOptions.addOption(Option.builder().longOpt("flush-interval").hasArg()
+                .desc("web : délai en millisecondes avant sauvegarde des modifications, par défaut 1000").build());
+        cliOptions.addOption(Option.builder().longOpt("flush-threshold").hasArg()
+                .desc("web : nombre de modifications déclenchant une sauvegarde, par défaut 100 (1 pour écrire chaque modification)").build());
+        cliOptions.addOption(Option.builder().longOpt("virtual-threads")
+                .desc("web : sauvegardes faites sur des threads virtuels, les requêtes n'attendent plus le disque").build());
+        cliOptions.addOption(Option.builder().longOpt("watch")
+                .desc("web et serve-local, json et csv : relit la liste dès que le fichier est modifié par un autre processus").build());
+        cliOptions.addOption(Option.builder().longOpt("sorted")
+                .desc("json et bin : sauvegardes triées par catégorie puis par nom, list n'a plus à trier").build());
+        cliOptions.addOption(Option.builder().longOpt("sort-memory").hasArg()
+                .desc("list : mémoire du tri en mégaoctets avant passage par des fichiers temporaires, par défaut 64").build());
+        cliOptions.addOption(Option.builder().longOpt("sharded")
+                .desc("-s désigne un répertoire contenant un fichier par catégorie, au format -f").build());
+        cliOptions.addOption(Option.builder().longOpt("metrics")
+                .desc("affiche sur la sortie d'erreur le nombre et la durée des opérations à la fin de la commande").build());
 
         infoOptions.addOption("s", "source", true, "ficher avec la liste de courses");
-        infoOptions.addOption("f", "format", true, "Format du fichier (json ou csv). Par défaut 'json'");
+        infoOptions.addOption("f", "format", true, "Format du fichier (json, csv, journal ou bin). Par défaut 'json'");
         infoOptions.addOption("c", "category", true, "Catégorie de l'article, par défaut 'default'");
+        infoOptions.addOption(Option.builder().longOpt("metrics")
+                .desc("affiche sur la sortie d'erreur le nombre et la durée des opérations à la fin de la commande").build());
     }
 
     /// parse les arguments de la ligne de commande
@@ -1,32 +1,69 @@
 package com.fges.util;
 
+import com.fges.metrics.LatencyHistogram;
+import com.fges.metrics.Metrics;
+
 import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 /**
- * Valide le format des fichiers
+ * Valide le format des fichiers.
+ * Seuls le début et la fin du fichier sont lus, par fenêtres de taille fixe : pour un contenu en forme de JSON
+ * ({…} ou […]) ou un CSV à en-tête, le coût ne dépend pas de la taille du fichier.
+ * Sinon, la détection CSV lit la première ligne jusqu'à son retour à la ligne, quelle que soit sa longueur.
  */
 public class FormatValidator {
+    private static final int WINDOW_SIZE = 8 * 1024;
+    private static final byte[] CSV_HEADER = "name,quantity,category".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NAME = "name".getBytes(StandardCharsets.US_ASCII);
+    // mesuré à part pour distinguer la validation du parsing (json.parse, csv.parse)
+    private static final LatencyHistogram VALIDATIONS = Metrics.histogram("format.validate");
 
     /// Vérifie si le fichier est au format JSON ou CSV
     public void validateFileFormat(Path filePath, String requestedFormat) throws IOException {
-        String content = Files.readString(filePath);
-        content = content.trim();
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            validate(filePath, requestedFormat);
+            failed = false;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            if (failed) {
+                VALIDATIONS.recordFailure(elapsed);
+            } else {
+                VALIDATIONS.record(elapsed);
+            }
+        }
+    }
 
+    private void validate(Path filePath, String requestedFormat) throws IOException {
         boolean seemsToBeJson = false;
         boolean seemsToBeCsv = false;
 
-        // Détection simple du format JSON
-        if ((content.startsWith("{") && content.endsWith("}")) ||
-                (content.startsWith("[") && content.endsWith("]"))) {
-            seemsToBeJson = true;
-        }
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            FileWindow window = new FileWindow(channel);
+
+            // bornes du contenu une fois les blancs retirés, comme String.trim()
+            long first = window.firstNonBlank();
+            if (first >= 0) {
+                long last = window.lastNonBlank();
+                boolean jsonShaped = seemsToBeJson(window, first, last);
 
-        // Détection simple du format CSV
-        if (content.contains(",") && (content.toLowerCase().startsWith("name,quantity,category") ||
-                content.split("\n").length > 1 && content.split("\n")[0].toLowerCase().contains("name"))) {
-            seemsToBeCsv = true;
+                // Détection simple du format JSON
+                if (!requestedFormat.equalsIgnoreCase("json")) {
+                    seemsToBeJson = jsonShaped;
+                }
+
+                // Détection simple du format CSV ; un contenu en forme de JSON n'est pas du CSV,
+                // et une sauvegarde JSON tient sur une seule ligne qu'il faudrait lire en entier
+                if (!requestedFormat.equalsIgnoreCase("csv") && !jsonShaped) {
+                    seemsToBeCsv = seemsToBeCsv(window, first, last);
+                }
+            }
         }
 
         // Vérification de compatibilité
@@ -39,4 +76,142 @@ public class FormatValidator {
                     + requestedFormat.toUpperCase() + ". use option --format csv.");
         }
     }
-}
\ No newline at end of file
+
+    /// le contenu commence par { et finit par }, ou commence par [ et finit par ]
+    private boolean seemsToBeJson(FileWindow window, long first, long last) throws IOException {
+        byte opening = window.byteAt(first);
+        byte closing = window.byteAt(last);
+        return (opening == '{' && closing == '}') || (opening == '[' && closing == ']');
+    }
+
+    /**
+     * Le contenu contient une virgule et, soit commence par l'en-tête name,quantity,category,
+     * soit a plusieurs lignes dont la première contient "name" (sans tenir compte de la casse).
+     * Le parcours s'arrête dès que la réponse est connue, en général dans la première fenêtre,
+     * mais va jusqu'au premier retour à la ligne : à n'appeler que sur un contenu qui n'a pas la forme du JSON.
+     */
+    private boolean seemsToBeCsv(FileWindow window, long first, long last) throws IOException {
+        if (last - first + 1 >= CSV_HEADER.length && startsWithIgnoreCase(window, first, CSV_HEADER)) {
+            return true;
+        }
+
+        boolean newlineSeen = false;
+        boolean nameInFirstLine = false;
+        boolean commaSeen = false;
+        int matched = 0;
+
+        for (long position = first; position <= last; position++) {
+            byte b = window.byteAt(position);
+            if (b == ',') {
+                commaSeen = true;
+            }
+
+            if (!newlineSeen) {
+                if (b == '\n') {
+                    newlineSeen = true;
+                    if (!nameInFirstLine) {
+                        return false;
+                    }
+                } else if (!nameInFirstLine) {
+                    matched = toLowerAscii(b) == NAME[matched] ? matched + 1 : (toLowerAscii(b) == NAME[0] ? 1 : 0);
+                    nameInFirstLine = matched == NAME.length;
+                }
+            }
+
+            if (newlineSeen && commaSeen) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean startsWithIgnoreCase(FileWindow window, long position, byte[] prefix) throws IOException {
+        for (int i = 0; i < prefix.length; i++) {
+            if (toLowerAscii(window.byteAt(position + i)) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte toLowerAscii(byte b) {
+        return (b >= 'A' && b <= 'Z') ? (byte) (b + ('a' - 'A')) : b;
+    }
+
+    /**
+     * Fenêtre glissante de taille fixe sur un FileChannel.
+     * Un accès hors de la fenêtre la recharge vers l'avant ou vers l'arrière selon le sens du parcours.
+     */
+    private static final class FileWindow {
+        private final FileChannel channel;
+        private final long size;
+        private final ByteBuffer buffer = ByteBuffer.allocate(WINDOW_SIZE);
+        private long start;
+        private int length;
+
+        FileWindow(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+        }
+
+        /// position du premier octet non blanc, ou -1 si le fichier ne contient que des blancs
+        long firstNonBlank() throws IOException {
+            for (long position = 0; position < size; position++) {
+                if (!isBlank(byteAt(position))) {
+                    return position;
+                }
+            }
+            return -1;
+        }
+
+        /// position du dernier octet non blanc, ou -1 si le fichier ne contient que des blancs
+        long lastNonBlank() throws IOException {
+            if (size > 0) {
+                loadEndingAt(size - 1);
+            }
+            for (long position = size - 1; position >= 0; position--) {
+                if (!isBlank(byteAt(position))) {
+                    return position;
+                }
+            }
+            return -1;
+        }
+
+        byte byteAt(long position) throws IOException {
+            if (position < start) {
+                loadEndingAt(position);
+            } else if (position >= start + length) {
+                loadStartingAt(position);
+            }
+            return buffer.get((int) (position - start));
+        }
+
+        private void loadStartingAt(long position) throws IOException {
+            load(position, (int) Math.min(WINDOW_SIZE, size - position));
+        }
+
+        private void loadEndingAt(long position) throws IOException {
+            long from = Math.max(0, position - WINDOW_SIZE + 1);
+            load(from, (int) (position - from + 1));
+        }
+
+        private void load(long from, int count) throws IOException {
+            buffer.clear().limit(count);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, from + buffer.position()) < 0) {
+                    break;
+                }
+            }
+            start = from;
+            length = buffer.position();
+            if (length == 0) {
+                throw new IOException("Unexpected end of file while validating its format");
+            }
+        }
+
+        /// même définition du blanc que String.trim()
+        private static boolean isBlank(byte b) {
+            return b >= 0 && b <= ' ';
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.fges.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+
+/**
+ * Fabrique JSON commune à toute l'application, construite une seule fois.
+ * Une JsonFactory est sûre entre threads une fois configurée : stockages, journal et chargeurs
+ * partagent ainsi ses tampons recyclés. Aucun ObjectMapper n'est construit : tout passe en flux.
+ * Les noms de champs ne sont ni internés ni canonicalisés : dans une liste catégorisée, chaque nom d'article
+ * est un nom de champ, presque toujours unique, et String.intern() sur des millions de noms coûtait
+ * plus que le parsing lui-même.
+ */
+public final class JsonCodec {
+    private static final JsonFactory FACTORY = JsonFactory.builder()
+            .disable(JsonFactory.Feature.INTERN_FIELD_NAMES)
+            .disable(JsonFactory.Feature.CANONICALIZE_FIELD_NAMES)
+            .build();
+
+    private JsonCodec() {
+    }
+
+    /// fabrique des parsers et générateurs en flux
+    public static JsonFactory factory() {
+        return FACTORY;
+    }
+}
@@ -1,59 +1,99 @@
 // GroceryShopAdapter.java
 package com.fges.web;
 
-import com.fges.model.GroceryItem;
+import com.fges.metrics.LatencyHistogram;
+import com.fges.metrics.Metrics;
+import com.fges.storage.CachedGroceryListStorage;
+import com.fges.storage.GroceryItemCursor;
 import com.fges.storage.GroceryListStorage;
 import fr.anthonyquere.MyGroceryShop;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Adaptateur entre GroceryListStorage et MyGroceryShop pour le serveur web
+ * Adaptateur entre GroceryListStorage et MyGroceryShop pour le serveur web.
+ * Le serveur appelle l'adaptateur depuis plusieurs threads : le stockage est toujours
+ * protégé par CachedGroceryListStorage (lectures parallèles, écritures sérialisées).
  */
-public class GroceryShopAdapter implements MyGroceryShop {
+public class GroceryShopAdapter implements MyGroceryShop, Closeable {
+    private static final LatencyHistogram GET_GROCERIES = Metrics.histogram("web.getGroceries");
+    private static final LatencyHistogram ADD_GROCERY_ITEM = Metrics.histogram("web.addGroceryItem");
+    private static final LatencyHistogram REMOVE_GROCERY_ITEM = Metrics.histogram("web.removeGroceryItem");
 
     private final GroceryListStorage storage;
 
+    /// lectures servies depuis la mémoire, chaque modification est écrite immédiatement
     public GroceryShopAdapter(GroceryListStorage storage) {
-        this.storage = storage;
+        this(storage, Duration.ZERO, 1);
+    }
+
+    /**
+     * Sert les lectures depuis la mémoire et regroupe les écritures
+     * @param storage Stockage de la liste
+     * @param flushInterval Délai maximal avant sauvegarde des modifications
+     * @param flushThreshold Nombre de modifications déclenchant une sauvegarde immédiate
+     */
+    public GroceryShopAdapter(GroceryListStorage storage, Duration flushInterval, int flushThreshold) {
+        this(storage, flushInterval, flushThreshold, false);
+    }
+
+    /**
+     * Sert les lectures depuis la mémoire et regroupe les écritures
+     * @param storage Stockage de la liste
+     * @param flushInterval Délai maximal avant sauvegarde des modifications
+     * @param flushThreshold Nombre de modifications déclenchant une sauvegarde
+     * @param virtualThreads true pour que la sauvegarde déclenchée par le seuil se fasse sur un thread virtuel,
+     *                       et non sur le thread de la requête
+     */
+    public GroceryShopAdapter(GroceryListStorage storage, Duration flushInterval, int flushThreshold, boolean virtualThreads) {
+        this.storage = new CachedGroceryListStorage(storage, flushInterval, flushThreshold, virtualThreads);
     }
 
     @Override
     public List<WebGroceryItem> getGroceries() {
+        long start = System.nanoTime();
         try {
-            List<GroceryItem> items = storage.load();
+            // parcours par curseur, comme la commande list : aucune liste de GroceryItem n'est construite ici
             List<WebGroceryItem> webItems = new ArrayList<>();
-
-            for (GroceryItem item : items) {
-                webItems.add(new WebGroceryItem(item.getName(), item.getQuantity(), item.getCategory()));
+            try (GroceryItemCursor cursor = storage.openCursor()) {
+                while (cursor.next()) {
+                    webItems.add(new WebGroceryItem(cursor.name(), cursor.quantity(), cursor.category()));
+                }
             }
 
+            GET_GROCERIES.record(System.nanoTime() - start);
             return webItems;
         } catch (Exception e) {
+            GET_GROCERIES.recordFailure(System.nanoTime() - start);
             throw new RuntimeException("Failed to load groceries", e);
         }
     }
 
     @Override
     public void addGroceryItem(String name, int quantity, String category) {
+        long start = System.nanoTime();
         try {
-            List<GroceryItem> items = storage.load();
-            items.add(new GroceryItem(name, quantity, category));
-            storage.save(items);
+            storage.upsert(name, category, quantity);
+            ADD_GROCERY_ITEM.record(System.nanoTime() - start);
         } catch (Exception e) {
+            ADD_GROCERY_ITEM.recordFailure(System.nanoTime() - start);
             throw new RuntimeException("Failed to add grocery item", e);
         }
     }
 
     @Override
     public void removeGroceryItem(String name) {
+        long start = System.nanoTime();
         try {
-            List<GroceryItem> items = storage.load();
-            items.removeIf(item -> item.getName().equals(name));
-            storage.save(items);
+            storage.remove(name, null);
+            REMOVE_GROCERY_ITEM.record(System.nanoTime() - start);
         } catch (Exception e) {
+            REMOVE_GROCERY_ITEM.recordFailure(System.nanoTime() - start);
             throw new RuntimeException("Failed to remove grocery item", e);
         }
     }
@@ -66,4 +106,18 @@ public class GroceryShopAdapter implements MyGroceryShop {
                 System.getProperty("os.name")
         );
     }
-}
\ No newline at end of file
+
+    /// relit la liste dès que son fichier change sur disque ; false si le stockage ne sait pas le surveiller
+    public boolean watch() throws IOException {
+        return storage.watch(() -> {
+        });
+    }
+
+    /// sauvegarde les modifications en attente avant l'arrêt du serveur
+    @Override
+    public void close() throws IOException {
+        if (storage instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package com.fges.command;
 
-import com.fges.model.GroceryItem;
 import com.fges.storage.GroceryListStorage;
 import org.apache.commons.cli.CommandLine;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,8 +12,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
 /**
@@ -47,7 +46,7 @@ public class AddCommandTest {
         int result = command.execute();
 
         assertEquals(1, result);
-        verify(mockStorage, never()).save(any());
+        verify(mockStorage, never()).upsert(any(), any(), anyInt());
     }
 
     @Test
@@ -60,7 +59,7 @@ public class AddCommandTest {
         int result = command.execute();
 
         assertEquals(1, result);
-        verify(mockStorage, never()).save(any());
+        verify(mockStorage, never()).upsert(any(), any(), anyInt());
     }
 
     @Test
@@ -73,7 +72,7 @@ public class AddCommandTest {
         int result = command.execute();
 
         assertEquals(1, result);
-        verify(mockStorage, never()).save(any());
+        verify(mockStorage, never()).upsert(any(), any(), anyInt());
     }
 
     @Test
@@ -86,100 +85,26 @@ public class AddCommandTest {
         int result = command.execute();
 
         assertEquals(1, result);
-        verify(mockStorage, never()).save(any());
+        verify(mockStorage, never()).upsert(any(), any(), anyInt());
     }
 
     @Test
-    public void shouldAddNewItemWhenNotExisting() throws Exception {
+    public void shouldUpsertItemInRequestedCategory() throws Exception {
         // Setup
         args.add("Milk"); // Item name
         args.add("3");   // Quantity
-        String category = "Dairy";
-
-        List<GroceryItem> groceryList = new ArrayList<>();
-        when(mockStorage.load()).thenReturn(groceryList);
-        when(mockCmd.getOptionValue("c", "default")).thenReturn(category);
+        when(mockCmd.getOptionValue("c", "default")).thenReturn("Dairy");
 
         AddCommand command = new AddCommand(mockStorage, args, mockCmd);
 
         // Execute
         int result = command.execute();
 
-        // Verify
+        // Verify: a single delta mutation, no full load/save round trip
         assertEquals(0, result);
-        verify(mockStorage).save(any());
-
-        // Check that our item was added to the list
-        assertEquals(1, groceryList.size());
-        GroceryItem addedItem = groceryList.getFirst();
-        assertEquals("Milk", addedItem.getName());
-        assertEquals(3, addedItem.getQuantity());
-        assertEquals(category, addedItem.getCategory());
-    }
-
-    @Test
-    public void shouldIncrementQuantityWhenItemExists() throws Exception {
-        // Setup
-        args.add("Bread"); // Item name
-        args.add("2");    // Quantity to add
-        String category = "Bakery";
-
-        // Create existing list with the item already in it
-        List<GroceryItem> groceryList = new ArrayList<>();
-        GroceryItem existingItem = new GroceryItem("Bread", 1, category);
-        groceryList.add(existingItem);
-
-        when(mockStorage.load()).thenReturn(groceryList);
-        when(mockCmd.getOptionValue("c", "default")).thenReturn(category);
-
-        AddCommand command = new AddCommand(mockStorage, args, mockCmd);
-
-        // Execute
-        int result = command.execute();
-
-        // Verify
-        assertEquals(0, result);
-        verify(mockStorage).save(groceryList);
-
-        // Check that our item quantity was updated
-        assertEquals(1, groceryList.size());
-        assertEquals(3, existingItem.getQuantity()); // 1 (existing) + 2 (added)
-    }
-
-    @Test
-    public void shouldAddNewItemWhenCategoryDiffers() throws Exception {
-        // Setup
-        args.add("Bread"); // Item name
-        args.add("2");    // Quantity
-        String newCategory = "Organic";
-
-        // Create existing list with the item in a different category
-        List<GroceryItem> groceryList = new ArrayList<>();
-        groceryList.add(new GroceryItem("Bread", 1, "Bakery"));
-
-        when(mockStorage.load()).thenReturn(groceryList);
-        when(mockCmd.getOptionValue("c", "default")).thenReturn(newCategory);
-
-        AddCommand command = new AddCommand(mockStorage, args, mockCmd);
-
-        // Execute
-        int result = command.execute();
-
-        // Verify
-        assertEquals(0, result);
-        verify(mockStorage).save(groceryList);
-
-        // Check that a new item was added (not incrementing the existing one)
-        assertEquals(2, groceryList.size());
-
-        boolean foundNewItem = false;
-        for (GroceryItem item : groceryList) {
-            if (item.getName().equals("Bread") && item.getCategory().equals(newCategory)) {
-                assertEquals(2, item.getQuantity());
-                foundNewItem = true;
-            }
-        }
-        assertTrue(foundNewItem);
+        verify(mockStorage).upsert("Milk", "Dairy", 3);
+        verify(mockStorage, never()).load();
+        verify(mockStorage, never()).save(any());
     }
 
     @Test
@@ -187,9 +112,6 @@ public class AddCommandTest {
         // Setup
         args.add("Eggs"); // Item name
         args.add("6");    // Quantity
-
-        List<GroceryItem> groceryList = new ArrayList<>();
-        when(mockStorage.load()).thenReturn(groceryList);
         when(mockCmd.getOptionValue("c", "default")).thenReturn("default"); // Default behavior
 
         AddCommand command = new AddCommand(mockStorage, args, mockCmd);
@@ -199,13 +121,6 @@ public class AddCommandTest {
 
         // Verify
         assertEquals(0, result);
-        verify(mockStorage).save(groceryList);
-
-        // Check that our item was added with default category
-        assertEquals(1, groceryList.size());
-        GroceryItem addedItem = groceryList.getFirst();
-        assertEquals("Eggs", addedItem.getName());
-        assertEquals(6, addedItem.getQuantity());
-        assertEquals("default", addedItem.getCategory());
+        verify(mockStorage).upsert("Eggs", "default", 6);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,91 @@
+package com.fges.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * test unitaire de la classe AtomicFileWriter
+ */
+public class AtomicFileWriterTest {
+
+    private Path directory;
+    private Path target;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("atomic-writer-test");
+        target = directory.resolve("groceries.json");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Test
+    public void shouldReplaceTargetOnCommit() throws IOException {
+        Files.writeString(target, "old");
+
+        for (boolean fsync : new boolean[]{true, false}) {
+            try (AtomicFileWriter writer = AtomicFileWriter.open(target, fsync)) {
+                writer.outputStream().write(("new-" + fsync).getBytes(StandardCharsets.UTF_8));
+                // fermer le flux, comme le font Jackson et CSVWriter, ne doit pas empêcher le commit
+                writer.outputStream().close();
+                writer.commit();
+            }
+
+            assertEquals("new-" + fsync, Files.readString(target));
+        }
+        assertEquals(1, countFiles());
+    }
+
+    @Test
+    public void shouldLeaveTargetUntouchedWithoutCommit() throws IOException {
+        Files.writeString(target, "old");
+
+        try (AtomicFileWriter writer = AtomicFileWriter.open(target, true)) {
+            writer.outputStream().write("partial".getBytes(StandardCharsets.UTF_8));
+        }
+
+        assertEquals("old", Files.readString(target));
+        assertEquals(1, countFiles());
+    }
+
+    @Test
+    public void shouldKeepPermissionsOfReplacedFile() throws IOException {
+        Files.writeString(target, "old");
+        try {
+            Files.setPosixFilePermissions(target, PosixFilePermissions.fromString("rw-r-----"));
+        } catch (UnsupportedOperationException e) {
+            return;
+        }
+
+        try (AtomicFileWriter writer = AtomicFileWriter.open(target, false)) {
+            writer.outputStream().write("new".getBytes(StandardCharsets.UTF_8));
+            writer.commit();
+        }
+
+        assertEquals("rw-r-----", PosixFilePermissions.toString(Files.getPosixFilePermissions(target)));
+    }
+
+    private long countFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+}
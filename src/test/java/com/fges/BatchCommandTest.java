@@ -0,0 +1,154 @@
+package com.fges.command;
+
+import com.fges.model.GroceryList;
+import com.fges.storage.JsonGroceryListStorage;
+import com.fges.util.CliParser;
+import org.apache.commons.cli.CommandLine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ * test unitaire de la classe BatchCommand
+ */
+public class BatchCommandTest {
+
+    private static final String TEST_FILE = "test_batch_grocery.json";
+    private static final String BATCH_FILE = "test_batch_changes.txt";
+
+    private final ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream errContent = new ByteArrayOutputStream();
+    private final PrintStream originalOut = System.out;
+    private final PrintStream originalErr = System.err;
+    private final InputStream originalIn = System.in;
+
+    private JsonGroceryListStorage storage;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        Files.deleteIfExists(Paths.get(TEST_FILE));
+        Files.deleteIfExists(Paths.get(BATCH_FILE));
+        storage = new JsonGroceryListStorage(TEST_FILE, false);
+        System.setOut(new PrintStream(outContent));
+        System.setErr(new PrintStream(errContent));
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        System.setOut(originalOut);
+        System.setErr(originalErr);
+        System.setIn(originalIn);
+        Files.deleteIfExists(Paths.get(TEST_FILE));
+        Files.deleteIfExists(Paths.get(BATCH_FILE));
+    }
+
+    private BatchCommand command(String... args) {
+        String[] fullArgs = new String[args.length + 2];
+        fullArgs[0] = "-s";
+        fullArgs[1] = TEST_FILE;
+        System.arraycopy(args, 0, fullArgs, 2, args.length);
+        CommandLine cmd = new CliParser().parse(fullArgs);
+        return new BatchCommand(storage, cmd.getArgList(), cmd);
+    }
+
+    @Test
+    public void shouldApplyOperationsFromFile() throws Exception {
+        storage.upsert("Bread", "Bakery", 1);
+        Files.write(Paths.get(BATCH_FILE), List.of(
+                "# import du soir",
+                "add Milk 2 Dairy",
+                "",
+                "add Milk 3 Dairy",
+                "add \"Crème fraîche\" 1 Dairy",
+                "add Salt 1",
+                "remove Bread Bakery"), StandardCharsets.UTF_8);
+
+        int result = command("batch", BATCH_FILE).execute();
+
+        assertEquals(0, result);
+        GroceryList groceryList = storage.loadGroceryList();
+        assertEquals(3, groceryList.size());
+        assertEquals(5, groceryList.get("Milk", "Dairy").getQuantity());
+        assertEquals(1, groceryList.get("Crème fraîche", "Dairy").getQuantity());
+        assertEquals(1, groceryList.get("Salt", "default").getQuantity());
+        assertNull(groceryList.get("Bread", "Bakery"));
+    }
+
+    @Test
+    public void shouldReadStandardInputWithDefaultCategory() throws Exception {
+        System.setIn(new ByteArrayInputStream("add Milk 2\nadd Bread 1 Bakery\n".getBytes(StandardCharsets.UTF_8)));
+
+        int result = command("-c", "Dairy", "batch").execute();
+
+        assertEquals(0, result);
+        GroceryList groceryList = storage.loadGroceryList();
+        assertEquals(2, groceryList.get("Milk", "Dairy").getQuantity());
+        assertEquals(1, groceryList.get("Bread", "Bakery").getQuantity());
+    }
+
+    @Test
+    public void shouldReportInvalidLinesAndApplyTheOthers() throws Exception {
+        System.setIn(new ByteArrayInputStream(String.join("\n",
+                "add Milk two",
+                "add Milk 2",
+                "add Eggs -1",
+                "buy Eggs 2",
+                "remove",
+                "add \"Crème 1",
+                "add Eggs 6").getBytes(StandardCharsets.UTF_8)));
+
+        int result = command("batch", "-").execute();
+
+        assertEquals(1, result);
+        String errors = errContent.toString();
+        assertTrue(errors.contains("Line 1: Quantity must be a number"));
+        assertTrue(errors.contains("Line 3: Quantity must be positive"));
+        assertTrue(errors.contains("Line 4: Unknown operation: buy"));
+        assertTrue(errors.contains("Line 5: Usage: remove <name> [category]"));
+        assertTrue(errors.contains("Line 6: Unterminated quote"));
+        assertTrue(errors.contains("5 line(s) failed, 2 applied"));
+
+        GroceryList groceryList = storage.loadGroceryList();
+        assertEquals(2, groceryList.size());
+        assertEquals(2, groceryList.get("Milk", "default").getQuantity());
+        assertEquals(6, groceryList.get("Eggs", "default").getQuantity());
+    }
+
+    @Test
+    public void shouldReportMissingItemWithoutFailing() throws Exception {
+        System.setIn(new ByteArrayInputStream("remove Milk Dairy\n".getBytes(StandardCharsets.UTF_8)));
+
+        int result = command("batch").execute();
+
+        assertEquals(0, result);
+        assertTrue(outContent.toString().contains("Line 1: Item 'Milk' not found in category 'Dairy'"));
+        assertFalse(Files.exists(Path.of(TEST_FILE)));
+    }
+
+    @Test
+    public void shouldReturnErrorWhenBatchFileIsMissing() throws Exception {
+        int result = command("batch", BATCH_FILE).execute();
+
+        assertEquals(1, result);
+        assertTrue(errContent.toString().contains("Batch file not found: " + BATCH_FILE));
+    }
+
+    @Test
+    public void shouldTokenizeQuotedNames() {
+        assertEquals(List.of("add", "Crème \"fraîche\"", "1"), BatchCommand.tokenize("  add \"Crème \\\"fraîche\\\"\"\t1 "));
+        assertEquals(List.of("add", "", "1"), BatchCommand.tokenize("add \"\" 1"));
+    }
+}
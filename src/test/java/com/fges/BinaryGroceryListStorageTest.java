@@ -0,0 +1,191 @@
+package com.fges.storage;
+
+import com.fges.model.GroceryItem;
+import com.fges.model.GroceryList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ * Test unitaire de la classe BinaryGroceryListStorage
+ */
+public class BinaryGroceryListStorageTest {
+
+    private static final String TEST_FILE = "test_grocery_list.bin";
+    private final Path filePath = Paths.get(TEST_FILE);
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        Files.deleteIfExists(filePath);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(filePath);
+    }
+
+    @Test
+    public void shouldLoadEmptyListWhenFileDoesNotExist() throws IOException {
+        BinaryGroceryListStorage storage = new BinaryGroceryListStorage(TEST_FILE);
+
+        assertTrue(storage.load().isEmpty());
+    }
+
+    @Test
+    public void shouldSaveAndLoadItems() throws IOException {
+        BinaryGroceryListStorage storage = new BinaryGroceryListStorage(TEST_FILE, false);
+        List<GroceryItem> groceryList = new ArrayList<>();
+        groceryList.add(new GroceryItem("Milk", 2, "Dairy"));
+        groceryList.add(new GroceryItem("Bread", 1, "Bakery"));
+        groceryList.add(new GroceryItem("Crème fraîche", -3, "Crèmerie"));
+        groceryList.add(new GroceryItem("Yogurt", Integer.MAX_VALUE, "Dairy"));
+        groceryList.add(new GroceryItem("Salt", Integer.MIN_VALUE));
+
+        storage.save(groceryList);
+        GroceryList loaded = new GroceryList(new BinaryGroceryListStorage(TEST_FILE).load());
+
+        assertEquals(5, loaded.size());
+        assertEquals(2, loaded.get("Milk", "Dairy").getQuantity());
+        assertEquals(1, loaded.get("Bread", "Bakery").getQuantity());
+        assertEquals(-3, loaded.get("Crème fraîche", "Crèmerie").getQuantity());
+        assertEquals(Integer.MAX_VALUE, loaded.get("Yogurt", "Dairy").getQuantity());
+        assertEquals(Integer.MIN_VALUE, loaded.get("Salt", "default").getQuantity());
+    }
+
+    @Test
+    public void shouldStoreEachCategoryOnce() throws IOException {
+        BinaryGroceryListStorage storage = new BinaryGroceryListStorage(TEST_FILE, false);
+        List<GroceryItem> groceryList = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            groceryList.add(new GroceryItem("item" + i, i, "a-rather-long-category-name"));
+        }
+
+        storage.save(groceryList);
+
+        // nom de catégorie une seule fois, puis ~8 octets par article
+        assertTrue(Files.size(filePath) < 1000);
+    }
+
+    @Test
+    public void shouldIterateItemsWithCursor() throws IOException {
+        BinaryGroceryListStorage storage = new BinaryGroceryListStorage(TEST_FILE, false);
+        List<GroceryItem> groceryList = new ArrayList<>();
+        groceryList.add(new GroceryItem("Milk", 2, "Dairy"));
+        groceryList.add(new GroceryItem("Bread", 1, "Bakery"));
+        groceryList.add(new GroceryItem("Milk", 4, "Dairy"));
+        storage.save(groceryList);
+
+        List<String> seen = new ArrayList<>();
+        try (GroceryItemCursor cursor = storage.openCursor()) {
+            while (cursor.next()) {
+                seen.add(cursor.category() + "/" + cursor.name() + "=" + cursor.quantity());
+            }
+        }
+
+        // le dernier Milk remplace le premier, comme en JSON
+        assertEquals(List.of("Dairy/Milk=4", "Bakery/Bread=1"), seen);
+    }
+
+    @Test
+    public void shouldUpsertAndRemoveItems() throws IOException {
+        BinaryGroceryListStorage storage = new BinaryGroceryListStorage(TEST_FILE, false);
+
+        storage.upsert("Milk", "Dairy", 2);
+        storage.upsert("Milk", "Dairy", 3);
+        storage.upsert("Bread", "Bakery", 1);
+        assertTrue(storage.remove("Bread", null));
+
+        List<GroceryItem> loaded = storage.load();
+        assertEquals(1, loaded.size());
+        assertEquals("Milk", loaded.get(0).getName());
+        assertEquals(5, loaded.get(0).getQuantity());
+    }
+
+    @Test
+    public void shouldRejectFileWithoutMagicHeader() throws IOException {
+        Files.writeString(filePath, "Milk 2 Dairy");
+
+        IOException exception = assertThrows(IOException.class, () -> new BinaryGroceryListStorage(TEST_FILE).load());
+        assertTrue(exception.getMessage().contains("Not a binary grocery list"));
+    }
+
+    @Test
+    public void shouldSuggestJsonFormatForJsonFile() throws IOException {
+        Files.writeString(filePath, "{\"Dairy\": {\"Milk\": 2}}");
+
+        IOException exception = assertThrows(IOException.class, () -> new BinaryGroceryListStorage(TEST_FILE).load());
+        assertTrue(exception.getMessage().contains("--format json"));
+    }
+
+    @Test
+    public void shouldRejectTruncatedFile() throws IOException {
+        BinaryGroceryListStorage storage = new BinaryGroceryListStorage(TEST_FILE, false);
+        storage.save(List.of(new GroceryItem("Milk", 2, "Dairy"), new GroceryItem("Bread", 1, "Bakery")));
+
+        byte[] content = Files.readAllBytes(filePath);
+        Files.write(filePath, Arrays.copyOf(content, content.length - 3));
+
+        IOException exception = assertThrows(IOException.class, storage::load);
+        assertTrue(exception.getMessage().contains("Corrupted binary grocery list"));
+    }
+
+    @Test
+    public void shouldSaveSortedListWhenRequested() throws IOException {
+        BinaryGroceryListStorage sortedStorage = new BinaryGroceryListStorage(TEST_FILE, false, true);
+        sortedStorage.save(List.of(
+                new GroceryItem("Milk", 2, "Dairy"),
+                new GroceryItem("Bread", 1, "Bakery"),
+                new GroceryItem("Eggs", 12, "Dairy")));
+
+        // un stockage sans l'option garde le fichier trié
+        BinaryGroceryListStorage storage = new BinaryGroceryListStorage(TEST_FILE, false);
+        storage.upsert("Apple", "Bakery", 1);
+
+        List<String> seen = new ArrayList<>();
+        try (GroceryItemCursor cursor = storage.openCursor()) {
+            assertTrue(cursor.isSorted());
+            while (cursor.next()) {
+                seen.add(cursor.category() + "/" + cursor.name());
+            }
+        }
+        assertEquals(List.of("Bakery/Apple", "Bakery/Bread", "Dairy/Eggs", "Dairy/Milk"), seen);
+    }
+
+    @Test
+    public void shouldNotMarkUnsortedSave() throws IOException {
+        BinaryGroceryListStorage storage = new BinaryGroceryListStorage(TEST_FILE, false);
+        storage.save(List.of(new GroceryItem("Milk", 2, "Dairy")));
+
+        try (GroceryItemCursor cursor = storage.openCursor()) {
+            assertFalse(cursor.isSorted());
+        }
+    }
+
+    @Test
+    public void shouldWriteGroceryListLikeItsItemList() throws IOException {
+        BinaryGroceryListStorage storage = new BinaryGroceryListStorage(TEST_FILE, false);
+        GroceryList groceryList = new GroceryList();
+        groceryList.put(new GroceryItem("Milk", 2, "Dairy"));
+        groceryList.put(new GroceryItem("Bread", 1, "Bakery"));
+        groceryList.put(new GroceryItem("Salt", 1, null));
+        groceryList.upsert("Milk", "Dairy", 4);
+
+        storage.save(groceryList.toList());
+        byte[] expected = Files.readAllBytes(filePath);
+        storage.saveGroceryList(groceryList);
+
+        assertArrayEquals(expected, Files.readAllBytes(filePath));
+        assertEquals(3, storage.load().size());
+    }
+}
@@ -0,0 +1,271 @@
+package com.fges.storage;
+
+import com.fges.model.GroceryItem;
+import com.fges.model.GroceryList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * test unitaire de la classe CachedGroceryListStorage
+ */
+public class CachedGroceryListStorageTest {
+
+    /// stockage en mémoire qui compte les chargements et les sauvegardes
+    private static class CountingStorage implements GroceryListStorage {
+        private List<GroceryItem> items = new ArrayList<>();
+        private int loads;
+        private int saves;
+        private boolean failing;
+        // si présent, chaque sauvegarde attend son ouverture, comme un disque lent
+        private volatile CountDownLatch slowDisk;
+        private final CountDownLatch saveStarted = new CountDownLatch(1);
+        // action de surveillance, à appeler pour simuler un changement du fichier
+        private Runnable onChange;
+
+        @Override
+        public List<GroceryItem> load() {
+            loads++;
+            List<GroceryItem> copy = new ArrayList<>();
+            for (GroceryItem item : items) {
+                copy.add(new GroceryItem(item.getName(), item.getQuantity(), item.getCategory()));
+            }
+            return copy;
+        }
+
+        @Override
+        public void save(List<GroceryItem> groceryList) throws IOException {
+            if (failing) {
+                throw new IOException("disk full");
+            }
+            saveStarted.countDown();
+            if (slowDisk != null) {
+                try {
+                    slowDisk.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+            items = new ArrayList<>(groceryList);
+            saves++;
+        }
+
+        @Override
+        public boolean watch(Runnable onChange) {
+            this.onChange = onChange;
+            return true;
+        }
+    }
+
+    private CountingStorage delegate;
+    private CachedGroceryListStorage storage;
+
+    @BeforeEach
+    public void setUp() {
+        delegate = new CountingStorage();
+        delegate.items.add(new GroceryItem("Milk", 2, "Dairy"));
+        storage = new CachedGroceryListStorage(delegate);
+    }
+
+    @Test
+    public void shouldLoadFromDelegateOnlyOnce() throws Exception {
+        storage.load();
+        storage.loadGroceryList();
+        GroceryList groceryList = storage.loadGroceryList();
+
+        assertEquals(1, delegate.loads);
+        assertEquals(2, groceryList.get("Milk", "Dairy").getQuantity());
+    }
+
+    @Test
+    public void shouldWriteThroughAndUpdateMemory() throws Exception {
+        storage.upsert("Milk", "Dairy", 3);
+        storage.upsert("Bread", "Bakery", 1);
+
+        assertEquals(2, delegate.saves);
+        assertEquals(5, delegate.items.getFirst().getQuantity());
+        assertEquals(5, storage.loadGroceryList().get("Milk", "Dairy").getQuantity());
+        assertNotNull(storage.loadGroceryList().get("Bread", "Bakery"));
+    }
+
+    @Test
+    public void shouldNotTouchDelegateWhenRemovingAbsentItem() throws Exception {
+        assertFalse(storage.remove("Bread", null));
+        assertFalse(storage.remove("Milk", "Bakery"));
+
+        assertEquals(0, delegate.saves);
+    }
+
+    @Test
+    public void shouldRemoveFromDelegateAndMemory() throws Exception {
+        assertTrue(storage.remove("Milk", null));
+
+        assertTrue(delegate.items.isEmpty());
+        assertTrue(storage.load().isEmpty());
+    }
+
+    @Test
+    public void shouldReplaceCacheOnSave() throws Exception {
+        storage.load();
+        List<GroceryItem> groceryList = new ArrayList<>();
+        groceryList.add(new GroceryItem("Apple", 4, "Fruits"));
+
+        storage.save(groceryList);
+
+        assertEquals(1, storage.load().size());
+        assertEquals("Apple", storage.load().getFirst().getName());
+        assertEquals(1, delegate.loads);
+    }
+
+    @Test
+    public void shouldGroupWritesUntilThresholdIsReached() throws Exception {
+        CachedGroceryListStorage writeBehind = new CachedGroceryListStorage(delegate, Duration.ZERO, 3);
+
+        writeBehind.upsert("Milk", "Dairy", 1);
+        writeBehind.upsert("Bread", "Bakery", 1);
+
+        assertEquals(0, delegate.saves);
+        assertEquals(2, writeBehind.pendingWrites());
+        assertEquals(3, writeBehind.loadGroceryList().get("Milk", "Dairy").getQuantity());
+
+        writeBehind.remove("Bread", null);
+
+        assertEquals(1, delegate.saves);
+        assertEquals(0, writeBehind.pendingWrites());
+        assertEquals(1, delegate.items.size());
+        assertEquals(3, delegate.items.getFirst().getQuantity());
+    }
+
+    @Test
+    public void shouldFlushPendingWritesOnClose() throws Exception {
+        CachedGroceryListStorage writeBehind = new CachedGroceryListStorage(delegate, Duration.ofHours(1), 100);
+        writeBehind.upsert("Bread", "Bakery", 2);
+
+        writeBehind.close();
+
+        assertEquals(1, delegate.saves);
+        assertEquals(2, delegate.items.size());
+    }
+
+    @Test
+    public void shouldFlushPendingWritesPeriodically() throws Exception {
+        CachedGroceryListStorage writeBehind = new CachedGroceryListStorage(delegate, Duration.ofMillis(20), 100);
+        try {
+            writeBehind.upsert("Bread", "Bakery", 2);
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (writeBehind.pendingWrites() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            assertEquals(0, writeBehind.pendingWrites());
+            assertEquals(2, delegate.items.size());
+        } finally {
+            writeBehind.close();
+        }
+    }
+
+    @Test
+    public void shouldKeepWritesPendingWhenFlushFails() throws Exception {
+        CachedGroceryListStorage writeBehind = new CachedGroceryListStorage(delegate, Duration.ZERO, 100);
+        writeBehind.upsert("Bread", "Bakery", 2);
+        delegate.failing = true;
+
+        assertThrows(IOException.class, writeBehind::flush);
+        assertEquals(1, writeBehind.pendingWrites());
+
+        delegate.failing = false;
+        writeBehind.flush();
+
+        assertEquals(0, writeBehind.pendingWrites());
+        assertEquals(2, delegate.items.size());
+    }
+
+    @Test
+    public void shouldServeReadsWhileImmediateWriteIsOnDisk() throws Exception {
+        storage.load();
+        delegate.slowDisk = new CountDownLatch(1);
+
+        CompletableFuture<Void> write = CompletableFuture.runAsync(() -> {
+            try {
+                storage.upsert("Bread", "Bakery", 1);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        assertTrue(delegate.saveStarted.await(5, TimeUnit.SECONDS));
+
+        // l'écriture est bloquée sur le disque : la lecture voit l'état précédent sans attendre
+        assertEquals(1, storage.load().size());
+
+        delegate.slowDisk.countDown();
+        write.get(5, TimeUnit.SECONDS);
+        assertEquals(2, storage.load().size());
+    }
+
+    @Test
+    public void shouldReloadWatchedFileChangedByAnotherProcess() throws Exception {
+        assertTrue(storage.watch(() -> {
+        }));
+        storage.load();
+
+        delegate.items = new ArrayList<>(List.of(new GroceryItem("Milk", 7, "Dairy")));
+        assertEquals(2, storage.load().getFirst().getQuantity());
+
+        delegate.onChange.run();
+        assertEquals(7, storage.load().getFirst().getQuantity());
+        assertEquals(2, delegate.loads);
+    }
+
+    @Test
+    public void shouldKeepPendingWritesWhenWatchedFileChanges() throws Exception {
+        CachedGroceryListStorage writeBehind = new CachedGroceryListStorage(delegate, Duration.ZERO, 10);
+        writeBehind.watch(() -> {
+        });
+        writeBehind.upsert("Bread", "Bakery", 1);
+
+        delegate.items = new ArrayList<>(List.of(new GroceryItem("Milk", 7, "Dairy")));
+        delegate.onChange.run();
+
+        // la modification en attente l'emporte sur le fichier changé
+        assertEquals(2, writeBehind.load().size());
+        writeBehind.close();
+        assertEquals(2, delegate.items.size());
+    }
+
+    @Test
+    public void shouldRejectVirtualThreadsWithImmediateWrites() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new CachedGroceryListStorage(delegate, Duration.ZERO, 1, true));
+    }
+
+    @Test
+    public void shouldFlushOnVirtualThreadWithoutBlockingWriter() throws Exception {
+        CachedGroceryListStorage writeBehind = new CachedGroceryListStorage(delegate, Duration.ZERO, 2, true);
+        delegate.slowDisk = new CountDownLatch(1);
+        try {
+            writeBehind.upsert("Bread", "Bakery", 1);
+            // atteint le seuil : la sauvegarde part en arrière-plan et la modification rend la main
+            writeBehind.upsert("Eggs", "Dairy", 6);
+            assertTrue(delegate.saveStarted.await(5, TimeUnit.SECONDS));
+
+            writeBehind.upsert("Salt", null, 1);
+            assertEquals(4, writeBehind.load().size());
+        } finally {
+            delegate.slowDisk.countDown();
+            writeBehind.close();
+        }
+
+        assertEquals(4, delegate.items.size());
+        assertEquals(0, writeBehind.pendingWrites());
+    }
+}
@@ -0,0 +1,61 @@
+package com.fges.storage;
+
+import com.fges.model.GroceryItem;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ * Test unitaire de la classe CategoryGroups
+ */
+public class CategoryGroupsTest {
+
+    /// "catégorie:nom=quantité" des articles retenus, dans l'ordre d'écriture
+    private static List<String> written(CategoryGroups groups) {
+        List<String> written = new ArrayList<>();
+        for (int c = 0; c < groups.size(); c++) {
+            groups.index(c);
+            for (int position = groups.from(c); position < groups.to(c); position++) {
+                if (groups.isLast(position)) {
+                    GroceryItem item = groups.item(position);
+                    written.add(groups.category(c) + ":" + item.getName() + "=" + item.getQuantity());
+                }
+            }
+        }
+        return written;
+    }
+
+    @Test
+    public void shouldGroupByFirstAppearanceAndKeepLastQuantity() {
+        List<GroceryItem> items = List.of(
+                new GroceryItem("Milk", 1, "dairy"),
+                new GroceryItem("Bread", 2, null),
+                new GroceryItem("Milk", 3, "dairy"),
+                new GroceryItem("Cheese", 4, "dairy"),
+                new GroceryItem("Bread", 5, "bakery"));
+
+        CategoryGroups groups = CategoryGroups.of(items);
+
+        assertEquals(3, groups.size());
+        assertEquals(2, groups.index(0));
+        assertEquals(List.of("dairy:Milk=3", "dairy:Cheese=4", "default:Bread=2", "bakery:Bread=5"), written(groups));
+    }
+
+    @Test
+    public void shouldSortOnlyUnsortedLists() {
+        List<GroceryItem> sortedItems = List.of(
+                new GroceryItem("Apple", 1, "fruits"),
+                new GroceryItem("Pear", 2, "fruits"));
+        List<GroceryItem> unsortedItems = List.of(
+                new GroceryItem("Pear", 2, "fruits"),
+                new GroceryItem("Milk", 1, "dairy"),
+                new GroceryItem("Pear", 7, "fruits"));
+
+        assertSame(sortedItems, CategoryGroups.sorted(sortedItems));
+        assertEquals(List.of("dairy:Milk=1", "fruits:Pear=7"), written(CategoryGroups.of(CategoryGroups.sorted(unsortedItems))));
+    }
+}
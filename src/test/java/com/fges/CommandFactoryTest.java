@@ -52,6 +52,16 @@ public class CommandFactoryTest {
         assertTrue(command instanceof ListCommand);
     }
 
+    @Test
+    public void shouldCreateBatchCommand() {
+        args.add("batch");
+
+        Command command = CommandFactory.getCommand("batch", mockStorage, args, mockCmd);
+
+        assertNotNull(command);
+        assertTrue(command instanceof BatchCommand);
+    }
+
     @Test
     public void shouldCreateRemoveCommand() {
         args.add("remove");
@@ -62,6 +72,16 @@ public class CommandFactoryTest {
         assertTrue(command instanceof RemoveCommand);
     }
 
+    @Test
+    public void shouldCreateServeLocalCommand() {
+        args.add("serve-local");
+
+        Command command = CommandFactory.getCommand("serve-local", mockStorage, args, mockCmd);
+
+        assertNotNull(command);
+        assertTrue(command instanceof ServeLocalCommand);
+    }
+
     @Test
     public void shouldReturnNullForUnknownCommand() {
         args.add("unknown");
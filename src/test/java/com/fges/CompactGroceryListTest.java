@@ -0,0 +1,140 @@
+package com.fges.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ * Test unitaire de la classe CompactGroceryList
+ */
+public class CompactGroceryListTest {
+
+    @Test
+    public void shouldStoreItemsInInsertionOrder() {
+        CompactGroceryList groceryList = new CompactGroceryList();
+
+        assertEquals(0, groceryList.add("Milk", 2, "Dairy"));
+        assertEquals(1, groceryList.add("Crème fraîche", -3, "Crèmerie"));
+        assertEquals(2, groceryList.add("", 1, null));
+
+        assertEquals(3, groceryList.size());
+        assertEquals("Milk", groceryList.name(0));
+        assertEquals("Crème fraîche", groceryList.name(1));
+        assertEquals(-3, groceryList.quantity(1));
+        assertEquals("", groceryList.name(2));
+        assertEquals("default", groceryList.category(2));
+    }
+
+    @Test
+    public void shouldKeepMissingNames() {
+        CompactGroceryList groceryList = new CompactGroceryList();
+        groceryList.add(null, 1, "Dairy");
+        groceryList.add("Milk", 2, "Dairy");
+        groceryList.add(null, 3, "Dairy");
+        groceryList.add("Bread", 4, "Bakery");
+
+        assertNull(groceryList.name(0));
+        assertEquals("Milk", groceryList.name(1));
+        assertNull(groceryList.name(2));
+        assertEquals("Bread", groceryList.name(3));
+        assertNull(groceryList.toList().getFirst().getName());
+    }
+
+    @Test
+    public void shouldShareCategoryStrings() {
+        CompactGroceryList groceryList = new CompactGroceryList();
+        groceryList.add("Milk", 2, new String("Dairy"));
+        groceryList.add("Yogurt", 1, new String("Dairy"));
+        groceryList.add("Bread", 1, "Bakery");
+
+        assertSame(groceryList.category(0), groceryList.category(1));
+        assertEquals(List.of("Dairy", "Bakery"), groceryList.categories());
+    }
+
+    @Test
+    public void shouldGrowBeyondInitialCapacity() {
+        CompactGroceryList groceryList = new CompactGroceryList(1);
+        for (int i = 0; i < 10_000; i++) {
+            groceryList.add("item-" + i, i, "category-" + (i % 7));
+        }
+        groceryList.trimToSize();
+
+        assertEquals(10_000, groceryList.size());
+        assertEquals("item-9999", groceryList.name(9999));
+        assertEquals(9999, groceryList.quantity(9999));
+        assertEquals("category-3", groceryList.category(9999));
+        assertEquals(7, groceryList.categories().size());
+
+        CompactGroceryList empty = new CompactGroceryList();
+        empty.trimToSize();
+        empty.add("Milk", 2, "Dairy");
+        assertEquals("Milk", empty.name(0));
+    }
+
+    @Test
+    public void shouldReadItemThroughReadOnlyView() {
+        CompactGroceryList groceryList = new CompactGroceryList();
+        groceryList.add("Milk", 2, "Dairy");
+
+        CompactGroceryList.Item item = groceryList.get(0);
+        assertEquals(0, item.index());
+        assertEquals("Milk: 2", item.toString());
+
+        groceryList.setQuantity(item.index(), 5);
+        assertEquals(5, item.getQuantity());
+        assertEquals("Dairy", item.getCategory());
+
+        GroceryItem copy = item.toGroceryItem();
+        copy.setQuantity(1);
+        assertEquals(5, groceryList.quantity(0));
+        assertEquals("Milk", copy.getName());
+    }
+
+    @Test
+    public void shouldCopyToIndependentItems() {
+        List<GroceryItem> items = new ArrayList<>();
+        items.add(new GroceryItem("Milk", 2, "Dairy"));
+        items.add(new GroceryItem("Bread", 1, "Bakery"));
+        CompactGroceryList groceryList = new CompactGroceryList(items);
+
+        List<GroceryItem> copy = groceryList.toList();
+        copy.getFirst().setQuantity(10);
+
+        assertEquals(2, groceryList.quantity(0));
+        assertEquals("Bread", copy.get(1).getName());
+        assertEquals("Bakery", copy.get(1).getCategory());
+
+        int count = 0;
+        for (CompactGroceryList.Item item : groceryList) {
+            assertEquals(items.get(count).getName(), item.getName());
+            count++;
+        }
+        assertEquals(2, count);
+    }
+
+    @Test
+    public void shouldRejectOutOfRangeIndex() {
+        CompactGroceryList groceryList = new CompactGroceryList();
+        groceryList.add("Milk", 2, "Dairy");
+
+        assertThrows(IndexOutOfBoundsException.class, () -> groceryList.name(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> groceryList.get(-1));
+    }
+
+    @Test
+    public void shouldRejectChangesOnceFrozen() {
+        CompactGroceryList groceryList = new CompactGroceryList();
+        groceryList.add("Milk", 2, "Dairy");
+        groceryList.freeze();
+
+        assertTrue(groceryList.isFrozen());
+        assertThrows(UnsupportedOperationException.class, () -> groceryList.add("Bread", 1, "Bakery"));
+        assertThrows(UnsupportedOperationException.class, () -> groceryList.setQuantity(0, 5));
+        assertEquals(2, groceryList.quantity(0));
+        assertEquals(2, groceryList.toList().getFirst().getQuantity());
+    }
+}
@@ -165,4 +165,53 @@ public class CsvGroceryListStorageTest {
         assertTrue(lines.get(0).contains("name") && lines.get(0).contains("quantity") && lines.get(0).contains("category"));
         assertTrue(lines.get(1).contains("Test Item") && lines.get(1).contains("1") && lines.get(1).contains("default"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldAppendRowWhenUpsertingNewItem() throws IOException {
+        List<GroceryItem> groceryList = new ArrayList<>();
+        groceryList.add(new GroceryItem("Milk", 2, "Dairy"));
+        storage.save(groceryList);
+
+        storage.upsert("Bread", "Bakery", 1);
+
+        List<String> lines = Files.readAllLines(Path.of(testFilePath));
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(1).contains("Milk"));
+        assertTrue(lines.get(2).contains("Bread"));
+        assertEquals(2, storage.load().size());
+        // la recopie sans article correspondant ne laisse pas de fichier temporaire
+        try (var files = Files.list(tempDir)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    public void shouldIncrementExistingItemWhenUpserting() throws IOException {
+        List<GroceryItem> groceryList = new ArrayList<>();
+        groceryList.add(new GroceryItem("Milk", 2, "Dairy"));
+        groceryList.add(new GroceryItem("Milk", 1, "Organic"));
+        storage.save(groceryList);
+
+        storage.upsert("Milk", "Dairy", 3);
+
+        List<GroceryItem> loaded = storage.load();
+        assertEquals(2, loaded.size());
+        assertEquals(5, loaded.get(0).getQuantity());
+        assertEquals(1, loaded.get(1).getQuantity());
+    }
+
+    @Test
+    public void shouldRemoveOnlyMatchingRow() throws IOException {
+        List<GroceryItem> groceryList = new ArrayList<>();
+        groceryList.add(new GroceryItem("Milk", 2, "Dairy"));
+        groceryList.add(new GroceryItem("Bread", 1, "Bakery"));
+        storage.save(groceryList);
+
+        assertTrue(storage.remove("Milk", "Dairy"));
+        assertFalse(storage.remove("Milk", "Dairy"));
+
+        List<GroceryItem> loaded = storage.load();
+        assertEquals(1, loaded.size());
+        assertEquals("Bread", loaded.getFirst().getName());
+    }
+}
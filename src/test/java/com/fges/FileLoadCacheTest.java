@@ -0,0 +1,264 @@
+package com.fges.storage;
+
+import com.fges.metrics.LatencyHistogram;
+import com.fges.metrics.Metrics;
+import com.fges.model.CompactGroceryList;
+import com.fges.model.GroceryItem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitaire de la classe FileLoadCache, à travers les stockages json et csv
+ */
+public class FileLoadCacheTest {
+
+    private static final LatencyHistogram JSON_PARSES = Metrics.histogram("json.parse");
+    private static final LatencyHistogram CSV_PARSES = Metrics.histogram("csv.parse");
+
+    private Path directory;
+    private Path file;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("load-cache-test");
+        file = directory.resolve("groceries.json");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Test
+    public void shouldNotReparseUnchangedFileAfterSecondLoad() throws IOException {
+        JsonGroceryListStorage storage = new JsonGroceryListStorage(file.toString());
+        storage.save(items(new GroceryItem("Milk", 2, "Dairy"), new GroceryItem("Bread", 1, "Bakery")));
+
+        long parses = JSON_PARSES.getCount();
+        storage.load();
+        storage.load();
+        assertEquals(parses + 2, JSON_PARSES.getCount());
+
+        List<GroceryItem> loaded = storage.load();
+        assertEquals(parses + 2, JSON_PARSES.getCount());
+        assertEquals(2, loaded.size());
+        assertEquals(2, quantityOf(loaded, "Milk"));
+    }
+
+    @Test
+    public void shouldReturnIndependentItemsFromCache() throws IOException {
+        JsonGroceryListStorage storage = new JsonGroceryListStorage(file.toString());
+        storage.save(items(new GroceryItem("Milk", 2, "Dairy")));
+        storage.load();
+        storage.load();
+
+        storage.load().getFirst().incrementQuantity(10);
+
+        assertEquals(2, quantityOf(storage.load(), "Milk"));
+    }
+
+    @Test
+    public void shouldShareFrozenCompactListFromCache() throws IOException {
+        JsonGroceryListStorage storage = new JsonGroceryListStorage(file.toString());
+        storage.save(items(new GroceryItem("Milk", 2, "Dairy"), new GroceryItem("Bread", 1, "Bakery")));
+        storage.load();
+        storage.load();
+
+        long parses = JSON_PARSES.getCount();
+        CompactGroceryList compact = storage.loadCompact();
+        assertSame(compact, storage.loadCompact());
+        assertTrue(compact.isFrozen());
+        assertEquals("Bread", compact.name(1));
+        assertEquals(parses, JSON_PARSES.getCount());
+
+        storage.upsert("Milk", "Dairy", 1);
+        assertFalse(compact == storage.loadCompact());
+        assertEquals(2, compact.quantity(0));
+    }
+
+    @Test
+    public void shouldReloadFileChangedByAnotherWriter() throws IOException {
+        JsonGroceryListStorage storage = new JsonGroceryListStorage(file.toString());
+        storage.save(items(new GroceryItem("Milk", 2, "Dairy")));
+        storage.load();
+        storage.load();
+
+        // autre processus : sauvegarde atomique, donc nouveau fichier
+        new JsonGroceryListStorage(file.toString()).upsert("Milk", "Dairy", 3);
+
+        assertEquals(5, quantityOf(storage.load(), "Milk"));
+    }
+
+    @Test
+    public void shouldServeCursorFromCache() throws IOException {
+        Path csvFile = directory.resolve("groceries.csv");
+        CsvGroceryListStorage storage = new CsvGroceryListStorage(csvFile.toString());
+        storage.save(items(new GroceryItem("Milk", 2, "Dairy"), new GroceryItem("Bread", 1, "Bakery")));
+        storage.load();
+        storage.load();
+
+        long parses = CSV_PARSES.getCount();
+        List<String> names = new ArrayList<>();
+        try (GroceryItemCursor cursor = storage.openCursor()) {
+            while (cursor.next()) {
+                names.add(cursor.name());
+            }
+        }
+        assertEquals(List.of("Milk", "Bread"), names);
+        assertEquals(parses, CSV_PARSES.getCount());
+
+        // une ligne ajoutée en place change la taille du fichier
+        storage.upsert("Eggs", "Dairy", 12);
+        assertEquals(3, storage.load().size());
+    }
+
+    @Test
+    public void shouldKeepLegacyFileWithUnnamedItem() throws IOException {
+        Files.writeString(file, "[{\"name\": null, \"quantity\": 1}, {\"name\": \"Milk\", \"quantity\": 2}]",
+                StandardCharsets.UTF_8);
+        JsonGroceryListStorage storage = new JsonGroceryListStorage(file.toString());
+
+        long parses = JSON_PARSES.getCount();
+        List<GroceryItem> parsed = storage.load();
+        storage.load();
+        List<GroceryItem> loaded = storage.load();
+        assertEquals(parses + 2, JSON_PARSES.getCount());
+        assertNull(loaded.getFirst().getName());
+        assertEquals(parsed.getFirst().getCategory(), loaded.getFirst().getCategory());
+        assertEquals("Milk", loaded.get(1).getName());
+    }
+
+    @Test
+    public void shouldFillCacheFromCursorOnSecondWalk() throws IOException {
+        CsvGroceryListStorage storage = new CsvGroceryListStorage(directory.resolve("groceries.csv").toString());
+        storage.save(items(new GroceryItem("Milk", 2, "Dairy"), new GroceryItem("Bread", 1, "Bakery")));
+
+        try (GroceryItemCursor cursor = storage.openCursor()) {
+            while (cursor.next()) {
+                // premier parcours : rien n'est gardé
+            }
+        }
+        assertNull(storage.loadCache().get(FileLoadCache.attributesOf(directory.resolve("groceries.csv"))));
+
+        CompactGroceryList compact = storage.loadCompact();
+        assertTrue(compact.isFrozen());
+        assertTrue(compact == storage.loadCompact());
+        assertEquals("Bread", compact.name(1));
+    }
+
+    @Test
+    public void shouldKeepSortedOrderInCachedCursor() throws IOException {
+        JsonGroceryListStorage sorted = new JsonGroceryListStorage(file.toString(), true, true);
+        sorted.save(items(new GroceryItem("Milk", 2, "Dairy"), new GroceryItem("Bread", 1, "Bakery")));
+        sorted.load();
+        sorted.load();
+
+        long parses = JSON_PARSES.getCount();
+        try (GroceryItemCursor cursor = sorted.openCursor()) {
+            assertTrue(cursor.isSorted());
+            assertTrue(cursor.next());
+            assertEquals("Bread", cursor.name());
+        }
+        assertEquals(parses, JSON_PARSES.getCount());
+
+        Path csvFile = directory.resolve("groceries.csv");
+        CsvGroceryListStorage unsorted = new CsvGroceryListStorage(csvFile.toString());
+        unsorted.save(items(new GroceryItem("Milk", 2, "Dairy"), new GroceryItem("Bread", 1, "Bakery")));
+        unsorted.load();
+        unsorted.load();
+        try (GroceryItemCursor cursor = unsorted.openCursor()) {
+            assertFalse(cursor.isSorted());
+        }
+    }
+
+    @Test
+    public void shouldAlwaysReparseWhenDisabled() throws IOException {
+        JsonGroceryListStorage storage = new JsonGroceryListStorage(file.toString());
+        storage.save(items(new GroceryItem("Milk", 2, "Dairy")));
+        storage.loadCache().disable();
+
+        long parses = JSON_PARSES.getCount();
+        storage.load();
+        storage.load();
+        storage.load();
+        assertEquals(parses + 3, JSON_PARSES.getCount());
+    }
+
+    @Test
+    public void shouldForgetListWhenWatchedFileIsRewrittenInPlace() throws Exception {
+        Files.writeString(file, "{\"Dairy\":{\"Milk\":2}}", StandardCharsets.UTF_8);
+        FileTime modified = Files.getLastModifiedTime(file);
+
+        JsonGroceryListStorage storage = new JsonGroceryListStorage(file.toString());
+        CountDownLatch changed = new CountDownLatch(1);
+        try {
+            assertTrue(storage.watch(changed::countDown));
+            storage.load();
+            storage.load();
+
+            // même taille, même date, même fichier : seul le WatchService voit le changement
+            Files.writeString(file, "{\"Dairy\":{\"Milk\":7}}", StandardCharsets.UTF_8);
+            Files.setLastModifiedTime(file, modified);
+
+            long deadline = System.nanoTime() + 10_000_000_000L;
+            while (quantityOf(storage.load(), "Milk") != 7 && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(7, quantityOf(storage.load(), "Milk"));
+            assertTrue(changed.await(10, TimeUnit.SECONDS));
+        } finally {
+            storage.close();
+        }
+    }
+
+    @Test
+    public void shouldIgnoreWatchEventsOfOwnWrites() throws Exception {
+        JsonGroceryListStorage storage = new JsonGroceryListStorage(file.toString());
+        AtomicInteger changes = new AtomicInteger();
+        CountDownLatch changed = new CountDownLatch(1);
+        try {
+            assertTrue(storage.watch(() -> {
+                changes.incrementAndGet();
+                changed.countDown();
+            }));
+            storage.save(items(new GroceryItem("Milk", 2, "Dairy")));
+            storage.upsert("Bread", "Bakery", 1);
+            storage.remove("Milk", null);
+            Thread.sleep(500);
+            assertEquals(0, changes.get());
+
+            Files.writeString(file, "{\"Dairy\":{\"Milk\":7}}", StandardCharsets.UTF_8);
+            assertTrue(changed.await(10, TimeUnit.SECONDS));
+        } finally {
+            storage.close();
+        }
+    }
+
+    private static List<GroceryItem> items(GroceryItem... items) {
+        return new ArrayList<>(List.of(items));
+    }
+
+    private static int quantityOf(List<GroceryItem> items, String name) {
+        return items.stream().filter(item -> item.getName().equals(name)).findFirst().orElseThrow().getQuantity();
+    }
+}
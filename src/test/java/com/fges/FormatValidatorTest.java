@@ -125,4 +125,54 @@ public class FormatValidatorTest {
         validator.validateFileFormat(filePath, "json");
         validator.validateFileFormat(filePath, "csv");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldDetectJsonSurroundedByLargeBlankPadding() throws IOException {
+        // Les blancs dépassent la fenêtre lue en début et en fin de fichier
+        String padding = " \n\t".repeat(10_000);
+        Files.writeString(Paths.get(JSON_TEST_FILE), padding + "{\"default\": {\"Salt\": 1}}" + padding);
+
+        Path filePath = Paths.get(JSON_TEST_FILE);
+
+        validator.validateFileFormat(filePath, "json");
+        assertThrows(IOException.class, () -> validator.validateFileFormat(filePath, "csv"));
+    }
+
+    @Test
+    public void shouldDetectCsvWhoseFirstLineIsLongerThanTheWindow() throws IOException {
+        Files.writeString(Paths.get(CSV_TEST_FILE), "Name" + ";".repeat(20_000) + "\nSalt,1\n");
+
+        Path filePath = Paths.get(CSV_TEST_FILE);
+
+        validator.validateFileFormat(filePath, "csv");
+        assertThrows(IOException.class, () -> validator.validateFileFormat(filePath, "json"));
+    }
+
+    @Test
+    public void shouldDetectHeaderOnlyCsvFile() throws IOException {
+        Files.writeString(Paths.get(CSV_TEST_FILE), "NAME,Quantity,Category\n");
+
+        assertThrows(IOException.class, () -> validator.validateFileFormat(Paths.get(CSV_TEST_FILE), "json"));
+    }
+
+    @Test
+    public void shouldNotTreatSingleLineJsonMentioningNameAsCsv() throws IOException {
+        // une seule ligne : la détection CSV exige au moins deux lignes
+        StringBuilder content = new StringBuilder("[");
+        for (int i = 0; i < 2_000; i++) {
+            content.append(i == 0 ? "" : ",").append("{\"name\":\"item-").append(i).append("\",\"quantity\":1}");
+        }
+        content.append("]\n");
+        Files.writeString(Paths.get(JSON_TEST_FILE), content.toString());
+
+        validator.validateFileFormat(Paths.get(JSON_TEST_FILE), "json");
+    }
+
+    @Test
+    public void shouldNotProbeCsvInJsonShapedContent() throws IOException {
+        // plusieurs lignes, une virgule et "name" en première ligne : du JSON tout de même
+        Files.writeString(Paths.get(JSON_TEST_FILE), "{\"Surnames\": {\"Dupont\": 1},\n\"default\": {\"Salt\": 2}}\n");
+
+        validator.validateFileFormat(Paths.get(JSON_TEST_FILE), "json");
+    }
+}
@@ -0,0 +1,125 @@
+package com.fges.storage;
+
+import com.fges.model.CompactGroceryList;
+import com.fges.model.GroceryItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * test unitaire des opérations par défaut de GroceryListStorage (upsert, remove)
+ */
+public class GroceryListStorageTest {
+
+    /// stockage en mémoire qui compte les sauvegardes
+    private static class InMemoryStorage implements GroceryListStorage {
+        private List<GroceryItem> items = new ArrayList<>();
+        private int saves;
+
+        @Override
+        public List<GroceryItem> load() {
+            return new ArrayList<>(items);
+        }
+
+        @Override
+        public void save(List<GroceryItem> groceryList) {
+            items = new ArrayList<>(groceryList);
+            saves++;
+        }
+    }
+
+    private InMemoryStorage storage;
+
+    @BeforeEach
+    public void setUp() {
+        storage = new InMemoryStorage();
+    }
+
+    @Test
+    public void shouldAddNewItemWhenNotExisting() throws Exception {
+        storage.upsert("Milk", "Dairy", 3);
+
+        assertEquals(1, storage.items.size());
+        assertEquals("Milk", storage.items.getFirst().getName());
+        assertEquals(3, storage.items.getFirst().getQuantity());
+        assertEquals("Dairy", storage.items.getFirst().getCategory());
+    }
+
+    @Test
+    public void shouldIncrementQuantityWhenItemExists() throws Exception {
+        GroceryItem existingItem = new GroceryItem("Bread", 1, "Bakery");
+        storage.items.add(existingItem);
+
+        storage.upsert("Bread", "Bakery", 2);
+
+        assertEquals(1, storage.items.size());
+        assertEquals(3, existingItem.getQuantity()); // 1 (existing) + 2 (added)
+    }
+
+    @Test
+    public void shouldAddNewItemWhenCategoryDiffers() throws Exception {
+        storage.items.add(new GroceryItem("Bread", 1, "Bakery"));
+
+        storage.upsert("Bread", "Organic", 2);
+
+        assertEquals(2, storage.items.size());
+        assertEquals("Organic", storage.items.get(1).getCategory());
+    }
+
+    @Test
+    public void shouldUseDefaultCategoryWhenCategoryIsNull() throws Exception {
+        storage.upsert("Eggs", null, 6);
+
+        assertEquals("default", storage.items.getFirst().getCategory());
+    }
+
+    @Test
+    public void shouldRemoveOnlyFromRequestedCategory() throws Exception {
+        storage.items.add(new GroceryItem("Apple", 4, "Fruits"));
+        storage.items.add(new GroceryItem("Apple", 1, "Snacks"));
+
+        assertTrue(storage.remove("Apple", "Fruits"));
+
+        assertEquals(1, storage.items.size());
+        assertEquals("Snacks", storage.items.getFirst().getCategory());
+    }
+
+    @Test
+    public void shouldRemoveFromEveryCategoryWhenCategoryIsNull() throws Exception {
+        storage.items.add(new GroceryItem("Apple", 4, "Fruits"));
+        storage.items.add(new GroceryItem("Apple", 1, "Snacks"));
+
+        assertTrue(storage.remove("Apple", null));
+
+        assertTrue(storage.items.isEmpty());
+    }
+
+    @Test
+    public void shouldNotSaveWhenItemIsAbsent() throws Exception {
+        storage.items.add(new GroceryItem("Milk", 2));
+
+        assertFalse(storage.remove("milk", "default"));
+
+        assertEquals(0, storage.saves);
+        assertEquals(1, storage.items.size());
+    }
+
+    @Test
+    public void shouldLoadCompactListInFileOrder() throws Exception {
+        storage.items.add(new GroceryItem("Milk", 2, "Dairy"));
+        storage.items.add(new GroceryItem("Bread", 1, "Bakery"));
+        storage.items.add(new GroceryItem("Yogurt", 4, "Dairy"));
+
+        CompactGroceryList compact = storage.loadCompact();
+
+        assertEquals(3, compact.size());
+        assertEquals(List.of("Dairy", "Bakery"), compact.categories());
+        assertEquals("Yogurt", compact.name(2));
+        assertEquals(4, compact.quantity(2));
+        assertEquals("Dairy", compact.category(2));
+    }
+}
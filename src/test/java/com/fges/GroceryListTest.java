@@ -0,0 +1,107 @@
+package com.fges.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitaire de la classe GroceryList
+ */
+public class GroceryListTest {
+
+    @Test
+    public void shouldFindItemByNameAndCategory() {
+        GroceryList groceryList = new GroceryList();
+        groceryList.put(new GroceryItem("Milk", 2, "Dairy"));
+        groceryList.put(new GroceryItem("Milk", 1, "Organic"));
+
+        assertEquals(2, groceryList.get("Milk", "Dairy").getQuantity());
+        assertEquals(1, groceryList.get("Milk", "Organic").getQuantity());
+        assertNull(groceryList.get("milk", "Dairy"));
+    }
+
+    @Test
+    public void shouldUseDefaultCategoryWhenCategoryIsNullOrEmpty() {
+        GroceryList groceryList = new GroceryList();
+        groceryList.upsert("Salt", null, 1);
+        groceryList.upsert("Salt", "", 2);
+
+        assertEquals(1, groceryList.size());
+        assertEquals(3, groceryList.get("Salt", "default").getQuantity());
+    }
+
+    @Test
+    public void shouldIncrementExistingItemOnUpsert() {
+        GroceryList groceryList = new GroceryList();
+        GroceryItem bread = new GroceryItem("Bread", 1, "Bakery");
+        groceryList.put(bread);
+
+        GroceryItem updated = groceryList.upsert("Bread", "Bakery", 2);
+
+        assertSame(bread, updated);
+        assertEquals(3, bread.getQuantity());
+        assertEquals(1, groceryList.size());
+    }
+
+    @Test
+    public void shouldReplaceDuplicatesWhenBuildingFromList() {
+        List<GroceryItem> items = new ArrayList<>();
+        items.add(new GroceryItem("Milk", 2, "Dairy"));
+        items.add(new GroceryItem("Milk", 5, "Dairy"));
+
+        GroceryList groceryList = new GroceryList(items);
+
+        assertEquals(1, groceryList.size());
+        assertEquals(5, groceryList.get("Milk", "Dairy").getQuantity());
+    }
+
+    @Test
+    public void shouldRemoveItemAndEmptyCategory() {
+        GroceryList groceryList = new GroceryList();
+        groceryList.upsert("Milk", "Dairy", 2);
+        groceryList.upsert("Bread", "Bakery", 1);
+
+        assertTrue(groceryList.remove("Milk", "Dairy"));
+        assertFalse(groceryList.remove("Milk", "Dairy"));
+
+        assertNull(groceryList.get("Milk", "Dairy"));
+        assertFalse(groceryList.categories().contains("Dairy"));
+        assertEquals(1, groceryList.size());
+    }
+
+    @Test
+    public void shouldRemoveFromEveryCategoryWhenCategoryIsNull() {
+        GroceryList groceryList = new GroceryList();
+        groceryList.upsert("Milk", "Dairy", 2);
+        groceryList.upsert("Milk", "Organic", 1);
+        groceryList.upsert("Bread", "Bakery", 1);
+
+        assertEquals(2, groceryList.findByName("Milk").size());
+        assertTrue(groceryList.remove("Milk", null));
+
+        assertEquals(1, groceryList.size());
+        assertTrue(groceryList.findByName("Milk").isEmpty());
+    }
+
+    @Test
+    public void shouldIterateInDeterministicCategoryOrder() {
+        GroceryList groceryList = new GroceryList();
+        groceryList.upsert("Zucchini", "Vegetables", 3);
+        groceryList.upsert("Bread", "Bakery", 1);
+        groceryList.upsert("Carrot", "Vegetables", 5);
+
+        List<String> names = new ArrayList<>();
+        for (GroceryItem item : groceryList) {
+            names.add(item.getName());
+        }
+
+        assertEquals(List.of("Zucchini", "Carrot", "Bread"), names);
+        assertEquals(names.size(), groceryList.toList().size());
+        assertEquals(List.of("Vegetables", "Bakery"), new ArrayList<>(groceryList.categories()));
+        assertEquals(2, groceryList.itemsIn("Vegetables").size());
+        assertTrue(groceryList.itemsIn("Dairy").isEmpty());
+    }
+}
@@ -0,0 +1,98 @@
+package com.fges.web;
+
+import com.fges.model.GroceryList;
+import com.fges.storage.JsonGroceryListStorage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * test de charge de GroceryShopAdapter : ajouts, suppressions et lectures en parallèle
+ * ne doivent perdre aucune modification
+ */
+public class GroceryShopAdapterConcurrencyTest {
+
+    private static final String TEST_FILE = "test_concurrency.json";
+    private static final int WRITERS = 8;
+    private static final int READERS = 4;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        Files.deleteIfExists(Paths.get(TEST_FILE));
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(Paths.get(TEST_FILE));
+    }
+
+    @Test
+    public void shouldNotLoseUpdatesWithGroupedWrites() throws Exception {
+        runStress(new GroceryShopAdapter(new JsonGroceryListStorage(TEST_FILE), Duration.ofMillis(5), 50), 500);
+    }
+
+    @Test
+    public void shouldNotLoseUpdatesWithImmediateWrites() throws Exception {
+        runStress(new GroceryShopAdapter(new JsonGroceryListStorage(TEST_FILE)), 25);
+    }
+
+    private void runStress(GroceryShopAdapter groceryShop, int iterations) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS + READERS);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<Future<?>> writers = new ArrayList<>();
+        List<Future<?>> readers = new ArrayList<>();
+
+        try {
+            for (int w = 0; w < WRITERS; w++) {
+                String temporary = "temporary-" + w;
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < iterations; i++) {
+                        groceryShop.addGroceryItem("Shared", 1, "Stress");
+                        groceryShop.addGroceryItem(temporary, 1, "Stress");
+                        groceryShop.removeGroceryItem(temporary);
+                    }
+                    return null;
+                }));
+            }
+            for (int r = 0; r < READERS; r++) {
+                readers.add(executor.submit(() -> {
+                    while (writing.get()) {
+                        // au plus l'article partagé et un article temporaire par écrivain
+                        assertTrue(groceryShop.getGroceries().size() <= WRITERS + 1);
+                    }
+                    return null;
+                }));
+            }
+
+            for (Future<?> writer : writers) {
+                writer.get(2, TimeUnit.MINUTES);
+            }
+            writing.set(false);
+            for (Future<?> reader : readers) {
+                reader.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            writing.set(false);
+            executor.shutdownNow();
+            groceryShop.close();
+        }
+
+        // relit le fichier avec un stockage neuf : tout doit avoir été sauvegardé
+        GroceryList saved = new JsonGroceryListStorage(TEST_FILE).loadGroceryList();
+        assertEquals(1, saved.size());
+        assertEquals(WRITERS * iterations, saved.get("Shared", "Stress").getQuantity());
+    }
+}
@@ -0,0 +1,218 @@
+package com.fges.storage;
+
+import com.fges.model.GroceryItem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ * Test unitaire de la classe JournalGroceryListStorage
+ */
+public class JournalGroceryListStorageTest {
+
+    private static final String TEST_FILE = "test_grocery_list.journal";
+    private final Path journalPath = Paths.get(TEST_FILE);
+    private final Path snapshotPath = Paths.get(TEST_FILE + ".snapshot");
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        cleanUp();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        cleanUp();
+    }
+
+    private void cleanUp() throws IOException {
+        Files.deleteIfExists(journalPath);
+        Files.deleteIfExists(snapshotPath);
+        for (int generation = 0; generation < 10; generation++) {
+            Files.deleteIfExists(Paths.get(TEST_FILE + "." + generation));
+        }
+    }
+
+    @Test
+    public void shouldLoadEmptyListWhenFileDoesNotExist() throws IOException {
+        JournalGroceryListStorage storage = new JournalGroceryListStorage(TEST_FILE);
+
+        assertTrue(storage.load().isEmpty());
+    }
+
+    @Test
+    public void shouldSaveAndLoadItems() throws IOException {
+        JournalGroceryListStorage storage = new JournalGroceryListStorage(TEST_FILE);
+        List<GroceryItem> groceryList = new ArrayList<>();
+        groceryList.add(new GroceryItem("Milk", 2, "Dairy"));
+        groceryList.add(new GroceryItem("Bread", 1, "Bakery"));
+
+        storage.save(groceryList);
+        List<GroceryItem> loaded = new JournalGroceryListStorage(TEST_FILE).load();
+
+        assertEquals(2, loaded.size());
+        assertEquals("Milk", loaded.get(0).getName());
+        assertEquals(2, loaded.get(0).getQuantity());
+        assertEquals("Dairy", loaded.get(0).getCategory());
+        assertEquals("Bread", loaded.get(1).getName());
+    }
+
+    @Test
+    public void shouldAppendOnlyChangedItems() throws IOException {
+        JournalGroceryListStorage storage = new JournalGroceryListStorage(TEST_FILE);
+        List<GroceryItem> groceryList = new ArrayList<>();
+        groceryList.add(new GroceryItem("Milk", 2, "Dairy"));
+        groceryList.add(new GroceryItem("Bread", 1, "Bakery"));
+        storage.save(groceryList);
+
+        List<GroceryItem> loaded = storage.load();
+        loaded.get(0).incrementQuantity(3);
+        loaded.remove(1);
+        storage.save(loaded);
+
+        List<String> records = Files.readAllLines(journalPath);
+        assertEquals(4, records.size());
+        assertEquals("[\"del\",\"Bakery\",\"Bread\"]", records.get(2));
+        assertEquals("[\"inc\",\"Dairy\",\"Milk\",3]", records.get(3));
+
+        List<GroceryItem> reloaded = new JournalGroceryListStorage(TEST_FILE).load();
+        assertEquals(1, reloaded.size());
+        assertEquals(5, reloaded.getFirst().getQuantity());
+    }
+
+    @Test
+    public void shouldNotAppendWhenNothingChanged() throws IOException {
+        JournalGroceryListStorage storage = new JournalGroceryListStorage(TEST_FILE);
+        List<GroceryItem> groceryList = new ArrayList<>();
+        groceryList.add(new GroceryItem("Milk", 2, "Dairy"));
+        storage.save(groceryList);
+        long size = Files.size(journalPath);
+
+        storage.save(storage.load());
+
+        assertEquals(size, Files.size(journalPath));
+    }
+
+    @Test
+    public void shouldIgnoreTruncatedLastRecord() throws IOException {
+        Files.writeString(journalPath, "[\"add\",\"Dairy\",\"Milk\",2]\n[\"inc\",\"Dai");
+
+        List<GroceryItem> loaded = new JournalGroceryListStorage(TEST_FILE).load();
+
+        assertEquals(1, loaded.size());
+        assertEquals(2, loaded.getFirst().getQuantity());
+    }
+
+    @Test
+    public void shouldCompactJournalIntoSnapshot() throws IOException {
+        JournalGroceryListStorage storage = new JournalGroceryListStorage(TEST_FILE, 1);
+        List<GroceryItem> groceryList = new ArrayList<>();
+        groceryList.add(new GroceryItem("Milk", 2, "Dairy"));
+        storage.save(groceryList);
+
+        groceryList.add(new GroceryItem("Bread", 1, "Bakery"));
+        storage.save(groceryList);
+        storage.close();
+
+        assertTrue(Files.exists(snapshotPath));
+        assertFalse(Files.exists(journalPath));
+        assertTrue(Files.readAllLines(snapshotPath).getFirst().startsWith("[\"gen\","));
+
+        List<GroceryItem> loaded = new JournalGroceryListStorage(TEST_FILE).load();
+        assertEquals(2, loaded.size());
+    }
+
+    @Test
+    public void shouldAppendSingleRecordOnUpsertAndRemove() throws IOException {
+        JournalGroceryListStorage storage = new JournalGroceryListStorage(TEST_FILE);
+
+        storage.upsert("Milk", "Dairy", 2);
+        storage.upsert("Milk", "Dairy", 3);
+        storage.upsert("Bread", "Bakery", 1);
+        assertTrue(storage.remove("Bread", "Bakery"));
+
+        List<String> records = Files.readAllLines(journalPath);
+        assertEquals(4, records.size());
+        assertEquals("[\"inc\",\"Dairy\",\"Milk\",3]", records.get(1));
+
+        List<GroceryItem> loaded = new JournalGroceryListStorage(TEST_FILE).load();
+        assertEquals(1, loaded.size());
+        assertEquals(5, loaded.getFirst().getQuantity());
+    }
+
+    @Test
+    public void shouldReportAbsentItemWhenStateIsKnown() throws IOException {
+        JournalGroceryListStorage storage = new JournalGroceryListStorage(TEST_FILE);
+        storage.upsert("Milk", "Dairy", 2);
+        storage.load();
+
+        assertFalse(storage.remove("Milk", "Bakery"));
+        assertTrue(storage.remove("Milk", null));
+        assertTrue(storage.load().isEmpty());
+    }
+
+    @Test
+    public void shouldNotAppendRecordWhenRemovingAbsentItemInFreshProcess() throws IOException {
+        new JournalGroceryListStorage(TEST_FILE).upsert("Milk", "Dairy", 2);
+        long journalSize = Files.size(journalPath);
+
+        // nouveau processus : aucun état chargé
+        assertFalse(new JournalGroceryListStorage(TEST_FILE).remove("Bread", "Bakery"));
+        assertEquals(journalSize, Files.size(journalPath));
+        assertTrue(new JournalGroceryListStorage(TEST_FILE).remove("Milk", "Dairy"));
+    }
+
+    @Test
+    public void shouldNotTrustKnownStateAfterSealByAnotherStorage() throws IOException {
+        JournalGroceryListStorage storage = new JournalGroceryListStorage(TEST_FILE);
+        assertTrue(storage.load().isEmpty());
+
+        // autre processus : le journal est scellé aussitôt écrit, sa taille redevient 0
+        JournalGroceryListStorage other = new JournalGroceryListStorage(TEST_FILE, 1);
+        other.upsert("Milk", "Dairy", 2);
+        other.close();
+        assertFalse(Files.exists(journalPath));
+
+        assertTrue(storage.remove("Milk", "Dairy"));
+        assertTrue(new JournalGroceryListStorage(TEST_FILE).load().isEmpty());
+    }
+
+    @Test
+    public void shouldNotLoseRecordsWhenCompactedDuringReplay() throws Exception {
+        // un autre processus scelle et compacte sans cesse pendant que ce stockage relit le journal
+        JournalGroceryListStorage writer = new JournalGroceryListStorage(TEST_FILE, 64);
+        Thread writes = new Thread(() -> {
+            try {
+                for (int i = 0; i < 2_000; i++) {
+                    writer.upsert("item-" + i, "Dairy", 1);
+                }
+                writer.close();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        writes.start();
+
+        try {
+            int previous = 0;
+            while (writes.isAlive()) {
+                int loaded = new JournalGroceryListStorage(TEST_FILE).load().size();
+                // les articles ne font que s'ajouter : une relecture ne peut pas en voir moins
+                assertTrue(loaded >= previous, loaded + " items after " + previous);
+                previous = loaded;
+            }
+        } finally {
+            writes.join();
+        }
+        assertEquals(2_000, new JournalGroceryListStorage(TEST_FILE).load().size());
+    }
+}
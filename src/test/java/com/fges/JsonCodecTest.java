@@ -0,0 +1,18 @@
+package com.fges.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitaire de la classe JsonCodec
+ */
+public class JsonCodecTest {
+
+    @Test
+    public void shouldNotInternFieldNames() {
+        assertFalse(JsonCodec.factory().isEnabled(JsonFactory.Feature.INTERN_FIELD_NAMES));
+        assertFalse(JsonCodec.factory().isEnabled(JsonFactory.Feature.CANONICALIZE_FIELD_NAMES));
+    }
+}
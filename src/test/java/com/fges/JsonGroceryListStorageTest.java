@@ -1,6 +1,8 @@
 package com.fges.storage;
 
 import com.fges.model.GroceryItem;
+import com.fges.model.GroceryList;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -227,4 +229,168 @@ public class JsonGroceryListStorageTest {
         assertTrue(content.contains("Test Item"));
         assertTrue(content.contains("1"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldUpsertWithoutChangingOtherCategories() throws IOException {
+        List<GroceryItem> groceryList = new ArrayList<>();
+        groceryList.add(new GroceryItem("Milk", 2, "Dairy"));
+        groceryList.add(new GroceryItem("Bread", 1, "Bakery"));
+        storage.save(groceryList);
+
+        storage.upsert("Milk", "Dairy", 3);
+        storage.upsert("Yogurt", "Dairy", 1);
+        storage.upsert("Apple", "Fruits", 4);
+
+        Map<String, Map<String, Integer>> content = objectMapper.readValue(new File(TEST_FILE),
+                new TypeReference<Map<String, Map<String, Integer>>>() {});
+        assertEquals(5, content.get("Dairy").get("Milk").intValue());
+        assertEquals(1, content.get("Dairy").get("Yogurt").intValue());
+        assertEquals(1, content.get("Bakery").get("Bread").intValue());
+        assertEquals(4, content.get("Fruits").get("Apple").intValue());
+    }
+
+    @Test
+    public void shouldRemoveItemAndDropEmptyCategory() throws IOException {
+        List<GroceryItem> groceryList = new ArrayList<>();
+        groceryList.add(new GroceryItem("Milk", 2, "Dairy"));
+        groceryList.add(new GroceryItem("Bread", 1, "Bakery"));
+        storage.save(groceryList);
+
+        assertTrue(storage.remove("Milk", "Dairy"));
+        assertFalse(storage.remove("Milk", "Dairy"));
+
+        String jsonContent = Files.readString(Paths.get(TEST_FILE));
+        assertFalse(jsonContent.contains("Dairy"));
+        assertTrue(jsonContent.contains("\"Bread\""));
+    }
+
+    @Test
+    public void shouldRemoveItemFromEveryCategoryWhenCategoryIsNull() throws IOException {
+        List<GroceryItem> groceryList = new ArrayList<>();
+        groceryList.add(new GroceryItem("Milk", 2, "Dairy"));
+        groceryList.add(new GroceryItem("Milk", 1, "Organic"));
+        groceryList.add(new GroceryItem("Bread", 1, "Bakery"));
+        storage.save(groceryList);
+
+        assertTrue(storage.remove("Milk", null));
+
+        List<GroceryItem> loaded = storage.load();
+        assertEquals(1, loaded.size());
+        assertEquals("Bread", loaded.getFirst().getName());
+    }
+
+    @Test
+    public void shouldConvertLegacyFormatWhenUpserting() throws IOException {
+        Files.writeString(Paths.get(TEST_FILE), "{\"Salt\":1}");
+
+        storage.upsert("Salt", "default", 2);
+
+        String jsonContent = Files.readString(Paths.get(TEST_FILE));
+        assertEquals("{\"default\":{\"Salt\":3}}", jsonContent);
+    }
+
+    @Test
+    public void shouldSaveSortedListWithMarkerFirst() throws IOException {
+        JsonGroceryListStorage sortedStorage = new JsonGroceryListStorage(TEST_FILE, false, true);
+        List<GroceryItem> groceryList = new ArrayList<>();
+        groceryList.add(new GroceryItem("Milk", 2, "Dairy"));
+        groceryList.add(new GroceryItem("Bread", 1, "Bakery"));
+        groceryList.add(new GroceryItem("Eggs", 12, "Dairy"));
+
+        sortedStorage.save(groceryList);
+
+        String content = Files.readString(Paths.get(TEST_FILE));
+        assertTrue(content.startsWith("{\"@sorted\":true,\"Bakery\":{\"Bread\":1},\"Dairy\":{\"Eggs\":12,\"Milk\":2}}"));
+        // le marqueur n'est pas un article
+        assertEquals(3, storage.load().size());
+        try (GroceryItemCursor cursor = storage.openCursor()) {
+            assertTrue(cursor.isSorted());
+        }
+    }
+
+    @Test
+    public void shouldKeepSortedFileSortedWhenUpserting() throws IOException {
+        new JsonGroceryListStorage(TEST_FILE, false, true).save(List.of(
+                new GroceryItem("Bread", 1, "Bakery"),
+                new GroceryItem("Eggs", 12, "Dairy"),
+                new GroceryItem("Milk", 2, "Dairy"),
+                new GroceryItem("Carrot", 5, "Vegetables")));
+
+        // stockage sans l'option : le marqueur du fichier suffit
+        storage.upsert("Jam", "Dairy", 1);
+        storage.upsert("Apple", "Fruits", 3);
+        storage.upsert("Cake", "Bakery", 2);
+
+        String content = Files.readString(Paths.get(TEST_FILE));
+        assertEquals("{\"@sorted\":true,\"Bakery\":{\"Bread\":1,\"Cake\":2},\"Dairy\":{\"Eggs\":12,\"Jam\":1,\"Milk\":2},"
+                + "\"Fruits\":{\"Apple\":3},\"Vegetables\":{\"Carrot\":5}}", content.trim());
+
+        storage.save(storage.load());
+        assertTrue(Files.readString(Paths.get(TEST_FILE)).startsWith("{\"@sorted\":true,\"Bakery\""));
+    }
+
+    @Test
+    public void shouldGroupCategoriesSpreadAcrossTheList() throws IOException {
+        List<GroceryItem> groceryList = new ArrayList<>();
+        groceryList.add(new GroceryItem("Milk", 2, "Dairy"));
+        groceryList.add(new GroceryItem("Bread", 1, "Bakery"));
+        groceryList.add(new GroceryItem("Yogurt", 3, "Dairy"));
+        groceryList.add(new GroceryItem("Salt", 1, null));
+
+        storage.save(groceryList);
+
+        assertEquals("{\"Dairy\":{\"Milk\":2,\"Yogurt\":3},\"Bakery\":{\"Bread\":1},\"default\":{\"Salt\":1}}",
+                Files.readString(Paths.get(TEST_FILE)));
+    }
+
+    @Test
+    public void shouldKeepLastQuantityOfRepeatedItemInSortedSave() throws IOException {
+        new JsonGroceryListStorage(TEST_FILE, false, true).save(List.of(
+                new GroceryItem("Milk", 2, "Dairy"),
+                new GroceryItem("Bread", 1, "Bakery"),
+                new GroceryItem("Milk", 5, "Dairy")));
+
+        assertEquals("{\"@sorted\":true,\"Bakery\":{\"Bread\":1},\"Dairy\":{\"Milk\":5}}",
+                Files.readString(Paths.get(TEST_FILE)));
+    }
+
+    @Test
+    public void shouldKeepLastQuantityOfRepeatedItemInUnsortedSave() throws IOException {
+        List<GroceryItem> groceryList = new ArrayList<>();
+        groceryList.add(new GroceryItem("Milk", 2, "Dairy"));
+        groceryList.add(new GroceryItem("Bread", 1, "Bakery"));
+        groceryList.add(new GroceryItem("Milk", 5, "Dairy"));
+        groceryList.add(new GroceryItem("Bread", 3, "Bakery"));
+
+        storage.save(groceryList);
+        assertEquals("{\"Dairy\":{\"Milk\":5},\"Bakery\":{\"Bread\":3}}", Files.readString(Paths.get(TEST_FILE)));
+
+        // liste déjà groupée par catégorie : écrite en une passe
+        storage.save(List.of(
+                new GroceryItem("Milk", 2, "Dairy"),
+                new GroceryItem("Eggs", 6, "Dairy"),
+                new GroceryItem("Milk", 4, "Dairy")));
+        assertEquals("{\"Dairy\":{\"Eggs\":6,\"Milk\":4}}", Files.readString(Paths.get(TEST_FILE)));
+    }
+
+    @Test
+    public void shouldWriteGroceryListLikeItsItemList() throws IOException {
+        GroceryList groceryList = new GroceryList();
+        groceryList.put(new GroceryItem("Milk", 2, "Dairy"));
+        groceryList.put(new GroceryItem("Bread", 1, "Bakery"));
+        groceryList.put(new GroceryItem("Salt", 1, null));
+        groceryList.upsert("Yogurt", "Dairy", 3);
+        groceryList.upsert("Milk", "Dairy", 4);
+
+        storage.save(groceryList.toList());
+        String expected = Files.readString(Paths.get(TEST_FILE));
+        storage.saveGroceryList(groceryList);
+        assertEquals(expected, Files.readString(Paths.get(TEST_FILE)));
+        assertEquals("{\"Dairy\":{\"Milk\":6,\"Yogurt\":3},\"Bakery\":{\"Bread\":1},\"default\":{\"Salt\":1}}", expected);
+
+        JsonGroceryListStorage sorted = new JsonGroceryListStorage(TEST_FILE, false, true);
+        sorted.saveGroceryList(groceryList);
+        assertEquals("{\"@sorted\":true,\"Bakery\":{\"Bread\":1},\"Dairy\":{\"Milk\":6,\"Yogurt\":3},\"default\":{\"Salt\":1}}",
+                Files.readString(Paths.get(TEST_FILE)));
+    }
+}
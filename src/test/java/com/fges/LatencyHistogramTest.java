@@ -0,0 +1,75 @@
+package com.fges.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitaire de la classe LatencyHistogram
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void shouldPlaceEveryValueBelowItsBucketUpperBound() {
+        long[] values = {0, 1, 7, 8, 9, 15, 16, 17, 1_000, 123_456_789, Long.MAX_VALUE};
+        for (long value : values) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue(value <= LatencyHistogram.upperBoundOf(bucket), "value " + value);
+            if (bucket > 0) {
+                assertTrue(value > LatencyHistogram.upperBoundOf(bucket - 1), "value " + value);
+            }
+        }
+    }
+
+    @Test
+    public void shouldReportPercentilesWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram("test");
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1_000L);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(0, histogram.getErrors());
+        assertEquals(500.5, histogram.getMeanMicros(), 0.01);
+        assertEquals(1000.0, histogram.getMaxMicros(), 0.01);
+        assertEquals(500.0, histogram.getP50Micros(), 500.0 * 0.125);
+        assertEquals(990.0, histogram.getP99Micros(), 990.0 * 0.125);
+    }
+
+    @Test
+    public void shouldCountFailuresAndReset() {
+        LatencyHistogram histogram = new LatencyHistogram("test");
+        histogram.record(10);
+        histogram.recordFailure(20);
+
+        assertEquals(2, histogram.getCount());
+        assertEquals(1, histogram.getErrors());
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getErrors());
+        assertEquals(0, histogram.percentileNanos(0.5));
+    }
+
+    @Test
+    public void shouldNotAllocateWhenRecording() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        LatencyHistogram histogram = new LatencyHistogram("test");
+        // chauffe : compilation et cellules des LongAdder
+        for (int i = 0; i < 100_000; i++) {
+            histogram.record(i);
+        }
+
+        long threadId = Thread.currentThread().threadId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 100_000; i++) {
+            histogram.record(i);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        // marge pour l'appel de mesure lui-même
+        assertTrue(allocated < 1024, "allocated " + allocated + " bytes");
+    }
+}
@@ -1,6 +1,7 @@
 package com.fges.command;
 
 import com.fges.model.GroceryItem;
+import com.fges.storage.GroceryItemCursor;
 import com.fges.storage.GroceryListStorage;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,6 +11,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.List;
@@ -46,7 +48,7 @@ public class ListCommandTest {
     public void shouldReturnSuccessWithEmptyList() throws Exception {
         // Setup
         List<GroceryItem> emptyList = new ArrayList<>();
-        when(mockStorage.load()).thenReturn(emptyList);
+        when(mockStorage.openCursor()).thenReturn(GroceryItemCursor.of(emptyList));
 
         ListCommand command = new ListCommand(mockStorage);
 
@@ -65,7 +67,7 @@ public class ListCommandTest {
         groceryList.add(new GroceryItem("Milk", 2, "Dairy"));
         groceryList.add(new GroceryItem("Eggs", 12, "Dairy"));
 
-        when(mockStorage.load()).thenReturn(groceryList);
+        when(mockStorage.openCursor()).thenReturn(GroceryItemCursor.of(groceryList));
 
         ListCommand command = new ListCommand(mockStorage);
 
@@ -88,7 +90,7 @@ public class ListCommandTest {
         groceryList.add(new GroceryItem("Carrot", 5, "Vegetables"));
         groceryList.add(new GroceryItem("Broccoli", 2, "Vegetables"));
 
-        when(mockStorage.load()).thenReturn(groceryList);
+        when(mockStorage.openCursor()).thenReturn(GroceryItemCursor.of(groceryList));
 
         ListCommand command = new ListCommand(mockStorage);
 
@@ -119,7 +121,7 @@ public class ListCommandTest {
         groceryList.add(new GroceryItem("Milk", 2, "Dairy"));
         groceryList.add(new GroceryItem("Apple", 4, "Fruits"));
 
-        when(mockStorage.load()).thenReturn(groceryList);
+        when(mockStorage.openCursor()).thenReturn(GroceryItemCursor.of(groceryList));
 
         ListCommand command = new ListCommand(mockStorage);
 
@@ -146,7 +148,7 @@ public class ListCommandTest {
         groceryList.add(new GroceryItem("Bread", 1, "Bakery"));
         groceryList.add(new GroceryItem("Milk", 2, "Dairy"));
 
-        when(mockStorage.load()).thenReturn(groceryList);
+        when(mockStorage.openCursor()).thenReturn(GroceryItemCursor.of(groceryList));
 
         ListCommand command = new ListCommand(mockStorage);
 
@@ -176,7 +178,7 @@ public class ListCommandTest {
         groceryList.add(new GroceryItem("Salt", 1)); // default category
         groceryList.add(new GroceryItem("Pepper", 1, "default")); // explicit default category
 
-        when(mockStorage.load()).thenReturn(groceryList);
+        when(mockStorage.openCursor()).thenReturn(GroceryItemCursor.of(groceryList));
 
         ListCommand command = new ListCommand(mockStorage);
 
@@ -191,4 +193,46 @@ public class ListCommandTest {
         assertTrue(output.contains("Salt: 1"));
         assertTrue(output.contains("Pepper: 1"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldStreamSortedStorageWithoutSorting() throws Exception {
+        // curseur annoncé trié : l'ordre du fichier est recopié tel quel
+        List<GroceryItem> groceryList = List.of(
+                new GroceryItem("Zucchini", 3, "Vegetables"),
+                new GroceryItem("Carrot", 5, "Vegetables"));
+        GroceryItemCursor items = GroceryItemCursor.of(groceryList);
+        GroceryItemCursor sortedCursor = new GroceryItemCursor() {
+            @Override
+            public boolean next() throws IOException {
+                return items.next();
+            }
+
+            @Override
+            public String name() {
+                return items.name();
+            }
+
+            @Override
+            public int quantity() {
+                return items.quantity();
+            }
+
+            @Override
+            public String category() {
+                return items.category();
+            }
+
+            @Override
+            public boolean isSorted() {
+                return true;
+            }
+        };
+        when(mockStorage.openCursor()).thenReturn(sortedCursor);
+
+        int result = new ListCommand(mockStorage).execute();
+
+        assertEquals(0, result);
+        String output = outContent.toString();
+        assertTrue(output.indexOf("Zucchini: 3") < output.indexOf("Carrot: 5"));
+    }
+}
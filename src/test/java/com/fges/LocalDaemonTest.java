@@ -0,0 +1,109 @@
+package com.fges.daemon;
+
+import com.fges.model.GroceryItem;
+import com.fges.storage.CachedGroceryListStorage;
+import com.fges.storage.JsonGroceryListStorage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * test d'intégration du serveur local (LocalDaemonServer) et de son client
+ */
+public class LocalDaemonTest {
+
+    private static final String TEST_FILE = "test_daemon.json";
+    private final Path filePath = Paths.get(TEST_FILE);
+    private final Path socketPath = LocalDaemonClient.socketPathFor(TEST_FILE);
+
+    private JsonGroceryListStorage fileStorage;
+    private LocalDaemonServer server;
+    private Thread serverThread;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        Files.deleteIfExists(filePath);
+        Files.deleteIfExists(socketPath);
+
+        fileStorage = new JsonGroceryListStorage(TEST_FILE);
+        server = new LocalDaemonServer(socketPath, new CachedGroceryListStorage(fileStorage), "json");
+        server.bind();
+        serverThread = new Thread(() -> {
+            try {
+                server.serve();
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        serverThread.start();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        server.close();
+        serverThread.join(5000);
+        Files.deleteIfExists(filePath);
+        Files.deleteIfExists(socketPath);
+    }
+
+    @Test
+    public void shouldExecuteForwardedCommandsAndPersistThem() throws Exception {
+        Integer exitCode = LocalDaemonClient.forward(socketPath, new String[]{"-s", TEST_FILE, "add", "Milk", "2", "-c", "Dairy"});
+
+        assertEquals(0, exitCode.intValue());
+        List<GroceryItem> items = fileStorage.load();
+        assertEquals(1, items.size());
+        assertEquals("Milk", items.getFirst().getName());
+        assertEquals("Dairy", items.getFirst().getCategory());
+    }
+
+    @Test
+    public void shouldRelayCommandOutput() throws Exception {
+        LocalDaemonClient.forward(socketPath, new String[]{"-s", TEST_FILE, "add", "Milk", "2"});
+
+        PrintStream originalOut = System.out;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Integer exitCode;
+        try {
+            System.setOut(new PrintStream(out, true));
+            exitCode = LocalDaemonClient.forward(socketPath, new String[]{"-s", TEST_FILE, "list"});
+        } finally {
+            System.setOut(originalOut);
+        }
+
+        assertEquals(0, exitCode.intValue());
+        assertTrue(out.toString().contains("Milk: 2"));
+    }
+
+    @Test
+    public void shouldDeclineOtherFormatsAndCommands() {
+        assertNull(LocalDaemonClient.forward(socketPath, new String[]{"-s", TEST_FILE, "-f", "csv", "list"}));
+        assertNull(LocalDaemonClient.forward(socketPath, new String[]{"-s", TEST_FILE, "info"}));
+    }
+
+    @Test
+    public void shouldReturnNullWithoutServer() throws Exception {
+        server.close();
+        serverThread.join(5000);
+
+        assertFalse(Files.exists(socketPath));
+        assertNull(LocalDaemonClient.forward(socketPath, new String[]{"-s", TEST_FILE, "list"}));
+    }
+
+    @Test
+    public void shouldRefuseSecondServerOnSameSocket() {
+        LocalDaemonServer second = new LocalDaemonServer(socketPath, fileStorage, "json");
+
+        assertThrows(IOException.class, second::bind);
+    }
+}
@@ -0,0 +1,128 @@
+package com.fges.storage;
+
+import com.fges.model.GroceryItem;
+import com.fges.model.GroceryList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitaire de la classe LockedGroceryListStorage
+ */
+public class LockedGroceryListStorageTest {
+
+    private Path directory;
+    private Path file;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("locked-storage-test");
+        file = directory.resolve("groceries.json");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Test
+    public void shouldNotLoseConcurrentUpdates() throws Exception {
+        int writers = 8;
+        int updatesPerWriter = 25;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                // un stockage par écrivain, comme des processus distincts
+                results.add(executor.submit(() -> {
+                    GroceryListStorage storage = locked();
+                    for (int i = 0; i < updatesPerWriter; i++) {
+                        storage.upsert("Milk", "Dairy", 1);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(writers * updatesPerWriter, locked().load().getFirst().getQuantity());
+    }
+
+    @Test
+    public void shouldKeepLoadAndSaveTogetherUnderLockForUpdate() throws Exception {
+        GroceryListStorage storage = locked();
+        storage.upsert("Milk", "Dairy", 1);
+
+        GroceryListStorage otherWriter = locked();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> concurrentUpdate;
+            try (Closeable ignored = storage.lockForUpdate()) {
+                GroceryList groceryList = storage.loadGroceryList();
+                concurrentUpdate = executor.submit(() -> {
+                    otherWriter.upsert("Milk", "Dairy", 10);
+                    return null;
+                });
+                Thread.sleep(100);
+                assertFalse(concurrentUpdate.isDone());
+
+                groceryList.upsert("Milk", "Dairy", 1);
+                // verrou réentrant : la sauvegarde ne se bloque pas elle-même
+                storage.saveGroceryList(groceryList);
+            }
+            concurrentUpdate.get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(12, storage.load().getFirst().getQuantity());
+    }
+
+    @Test
+    public void shouldNotBlockReadersWhileWriteLockIsHeld() throws Exception {
+        GroceryListStorage storage = locked();
+        storage.upsert("Milk", "Dairy", 2);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try (Closeable ignored = storage.lockForUpdate()) {
+            Future<List<GroceryItem>> read = executor.submit(() -> locked().load());
+            assertEquals(2, read.get(10, TimeUnit.SECONDS).getFirst().getQuantity());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldCreateLockFileNextToList() throws IOException {
+        locked().upsert("Milk", "Dairy", 1);
+
+        assertTrue(Files.exists(directory.resolve("groceries.json.lock")));
+    }
+
+    private GroceryListStorage locked() {
+        return new LockedGroceryListStorage(file, new JsonGroceryListStorage(file.toString(), false));
+    }
+}
@@ -39,6 +39,8 @@ public class MainTest {
         // Clean up test files
         Files.deleteIfExists(Paths.get(TEST_JSON_FILE));
         Files.deleteIfExists(Paths.get(TEST_CSV_FILE));
+        Files.deleteIfExists(Paths.get(TEST_JSON_FILE + ".lock"));
+        Files.deleteIfExists(Paths.get(TEST_CSV_FILE + ".lock"));
 
         // Restore original error stream
         System.setErr(originalErr);
@@ -62,7 +64,7 @@ public class MainTest {
     public void shouldReturnErrorCodeWhenInvalidFormat() throws Exception {
         int exitCode = Main.exec(new String[]{"-s", TEST_JSON_FILE, "-f", "xml", "list"});
         assertEquals(1, exitCode);
-        assertTrue(errContent.toString().contains("Format must be either 'json' or 'csv'"));
+        assertTrue(errContent.toString().contains("Format must be one of 'json', 'csv', 'journal' or 'bin'"));
     }
 
     @Test
@@ -93,6 +95,24 @@ public class MainTest {
         assertEquals(0, exitCode);
     }
 
+    @Test
+    public void shouldAddItemWithoutFsync() throws Exception {
+        int exitCode = Main.exec(new String[]{"-s", TEST_CSV_FILE, "-f", "csv", "--no-fsync", "add", "Milk", "2"});
+        assertEquals(0, exitCode);
+
+        ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+        PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(outContent));
+
+        try {
+            exitCode = Main.exec(new String[]{"-s", TEST_CSV_FILE, "-f", "csv", "--no-fsync", "list"});
+            assertEquals(0, exitCode);
+            assertTrue(outContent.toString().contains("Milk: 2"));
+        } finally {
+            System.setOut(originalOut);
+        }
+    }
+
     @Test
     public void shouldAddItemWithCategorySuccessfully() throws Exception {
         int exitCode = Main.exec(new String[]{"-s", TEST_JSON_FILE, "-c", "Dairy", "add", "Milk", "2"});
@@ -155,6 +175,67 @@ public class MainTest {
         assertTrue(content.contains("Salt") && content.contains("1") && content.contains("default"));
     }
 
+    @Test
+    public void shouldHandleJournalFormatCorrectly() throws Exception {
+        String journalFile = "test_grocery.journal";
+        try {
+            assertEquals(0, Main.exec(new String[]{"-s", journalFile, "-f", "journal", "add", "Salt", "1"}));
+            assertEquals(0, Main.exec(new String[]{"-s", journalFile, "-f", "journal", "add", "Salt", "2"}));
+
+            // Chaque ajout n'écrit qu'un enregistrement
+            assertEquals(2, Files.readAllLines(Paths.get(journalFile)).size());
+        } finally {
+            Files.deleteIfExists(Paths.get(journalFile));
+            Files.deleteIfExists(Paths.get(journalFile + ".lock"));
+        }
+    }
+
+    @Test
+    public void shouldHandleBinaryFormatCorrectly() throws Exception {
+        String binaryFile = "test_grocery.bin";
+        ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+        PrintStream originalOut = System.out;
+
+        try {
+            assertEquals(0, Main.exec(new String[]{"-s", binaryFile, "-f", "bin", "-c", "Dairy", "add", "Milk", "2"}));
+            assertEquals(0, Main.exec(new String[]{"-s", binaryFile, "-f", "bin", "-c", "Dairy", "add", "Milk", "3"}));
+
+            System.setOut(new PrintStream(outContent));
+            assertEquals(0, Main.exec(new String[]{"-s", binaryFile, "-f", "bin", "list"}));
+            assertTrue(outContent.toString().contains("#Dairy:"));
+            assertTrue(outContent.toString().contains("Milk: 5"));
+        } finally {
+            System.setOut(originalOut);
+            Files.deleteIfExists(Paths.get(binaryFile));
+            Files.deleteIfExists(Paths.get(binaryFile + ".lock"));
+        }
+    }
+
+    @Test
+    public void shouldHandleShardedStorageCorrectly() throws Exception {
+        String shardDirectory = "test_grocery_shards";
+        ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+        PrintStream originalOut = System.out;
+
+        try {
+            assertEquals(0, Main.exec(new String[]{"-s", shardDirectory, "--sharded", "-c", "Dairy", "add", "Milk", "2"}));
+            assertEquals(0, Main.exec(new String[]{"-s", shardDirectory, "--sharded", "-c", "Bakery", "add", "Bread", "1"}));
+            assertTrue(Files.exists(Paths.get(shardDirectory, "Dairy.json")));
+            assertTrue(Files.exists(Paths.get(shardDirectory, "Bakery.json")));
+
+            System.setOut(new PrintStream(outContent));
+            assertEquals(0, Main.exec(new String[]{"-s", shardDirectory, "--sharded", "-c", "Dairy", "list"}));
+            assertTrue(outContent.toString().contains("Milk: 2"));
+            assertFalse(outContent.toString().contains("Bread"));
+        } finally {
+            System.setOut(originalOut);
+            Files.deleteIfExists(Paths.get(shardDirectory, "Dairy.json"));
+            Files.deleteIfExists(Paths.get(shardDirectory, "Bakery.json"));
+            Files.deleteIfExists(Paths.get(shardDirectory));
+            Files.deleteIfExists(Paths.get(shardDirectory + ".lock"));
+        }
+    }
+
     @Test
     public void shouldListItemsCorrectly() throws Exception {
         // Add multiple items
@@ -190,4 +271,51 @@ public class MainTest {
         assertTrue(errContent.toString().contains("Quantity must be a number"));
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldPrintMetricsOnExitWhenRequested() throws Exception {
+        int exitCode = Main.exec(new String[]{"-s", TEST_JSON_FILE, "--metrics", "add", "Milk", "2"});
+
+        assertEquals(0, exitCode);
+        String err = errContent.toString();
+        assertTrue(err.contains("command.add"));
+        assertTrue(err.contains("storage.json.upsert"));
+    }
+
+    @Test
+    public void shouldMergeSourcesIntoTarget() throws Exception {
+        String target = "test_grocery_merged.json";
+        ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+        PrintStream originalOut = System.out;
+
+        try {
+            assertEquals(0, Main.exec(new String[]{"-s", TEST_JSON_FILE, "-c", "Dairy", "add", "Milk", "2"}));
+            assertEquals(0, Main.exec(new String[]{"-s", TEST_CSV_FILE, "-f", "csv", "-c", "Dairy", "add", "Milk", "3"}));
+            assertEquals(0, Main.exec(new String[]{"-s", TEST_JSON_FILE, "-s", TEST_CSV_FILE, "merge", target}));
+
+            System.setOut(new PrintStream(outContent));
+            assertEquals(0, Main.exec(new String[]{"-s", target, "list"}));
+            assertTrue(outContent.toString().contains("Milk: 5"));
+        } finally {
+            System.setOut(originalOut);
+            Files.deleteIfExists(Paths.get(target));
+            Files.deleteIfExists(Paths.get(target + ".lock"));
+        }
+    }
+
+    @Test
+    public void shouldWriteMergeTargetInFormatOfItsExtension() throws Exception {
+        String target = "test_grocery_merged.csv";
+        try {
+            assertEquals(0, Main.exec(new String[]{"-s", TEST_CSV_FILE, "-f", "csv", "-c", "Dairy", "add", "Milk", "3"}));
+            assertEquals(0, Main.exec(new String[]{"-s", TEST_CSV_FILE, "merge", target}));
+
+            String content = Files.readString(Paths.get(target));
+            assertFalse(content.startsWith("{"));
+            assertTrue(content.contains("Milk"));
+        } finally {
+            Files.deleteIfExists(Paths.get(target));
+            Files.deleteIfExists(Paths.get(target + ".lock"));
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.fges.command;
+
+import com.fges.model.GroceryItem;
+import com.fges.storage.CsvGroceryListStorage;
+import com.fges.storage.GroceryListStorage;
+import com.fges.storage.JsonGroceryListStorage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test unitaire de la classe MergeCommand
+ */
+public class MergeCommandTest {
+
+    private final ByteArrayOutputStream errContent = new ByteArrayOutputStream();
+    private final PrintStream originalErr = System.err;
+
+    private Path directory;
+    private Path target;
+    private GroceryListStorage storage;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("merge-test");
+        target = directory.resolve("merged.json");
+        storage = new JsonGroceryListStorage(target.toString(), false);
+        System.setErr(new PrintStream(errContent));
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        System.setErr(originalErr);
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Test
+    public void shouldSumQuantitiesAcrossJsonAndCsvSources() throws Exception {
+        Path json = directory.resolve("store.json");
+        Path csv = directory.resolve("home.csv");
+        new JsonGroceryListStorage(json.toString(), false).save(List.of(
+                new GroceryItem("Milk", 2, "Dairy"),
+                new GroceryItem("Bread", 1, "Bakery")));
+        new CsvGroceryListStorage(csv.toString(), false).save(List.of(
+                new GroceryItem("Milk", 3, "Dairy"),
+                new GroceryItem("Milk", 1, "Organic")));
+
+        assertEquals(0, merge(json.toString(), csv.toString()));
+
+        List<GroceryItem> merged = storage.load();
+        assertEquals(3, merged.size());
+        assertEquals(5, quantityOf(merged, "Milk", "Dairy"));
+        assertEquals(1, quantityOf(merged, "Milk", "Organic"));
+        assertEquals(1, quantityOf(merged, "Bread", "Bakery"));
+    }
+
+    @Test
+    public void shouldMergeHundredsOfSources() throws Exception {
+        List<String> sources = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            Path source = directory.resolve("list-" + i + (i % 2 == 0 ? ".json" : ".csv"));
+            GroceryListStorage sourceStorage = i % 2 == 0
+                    ? new JsonGroceryListStorage(source.toString(), false)
+                    : new CsvGroceryListStorage(source.toString(), false);
+            sourceStorage.save(List.of(
+                    new GroceryItem("Milk", 1, "Dairy"),
+                    new GroceryItem("item-" + i, i, "category-" + (i % 10))));
+            sources.add(source.toString());
+        }
+
+        assertEquals(0, merge(sources.toArray(new String[0])));
+
+        List<GroceryItem> merged = storage.load();
+        assertEquals(301, merged.size());
+        assertEquals(300, quantityOf(merged, "Milk", "Dairy"));
+        assertEquals(299, quantityOf(merged, "item-299", "category-9"));
+    }
+
+    @Test
+    public void shouldLeaveTargetUnchangedWhenSourceIsMissing() throws Exception {
+        storage.save(List.of(new GroceryItem("Salt", 1, "default")));
+        Path json = directory.resolve("store.json");
+        new JsonGroceryListStorage(json.toString(), false).save(List.of(new GroceryItem("Milk", 2, "Dairy")));
+
+        assertEquals(1, merge(json.toString(), directory.resolve("missing.csv").toString()));
+
+        assertTrue(errContent.toString().contains("Source not found"));
+        List<GroceryItem> unchanged = storage.load();
+        assertEquals(1, unchanged.size());
+        assertEquals("Salt", unchanged.getFirst().getName());
+    }
+
+    @Test
+    public void shouldMergeIntoOneOfItsSources() throws Exception {
+        storage.save(List.of(new GroceryItem("Milk", 2, "Dairy")));
+        Path csv = directory.resolve("home.csv");
+        new CsvGroceryListStorage(csv.toString(), false).save(List.of(new GroceryItem("Milk", 3, "Dairy")));
+
+        assertEquals(0, merge(target.toString(), csv.toString()));
+
+        assertEquals(5, quantityOf(storage.load(), "Milk", "Dairy"));
+    }
+
+    @Test
+    public void shouldPrintUsageWhenNoSourceIsGiven() throws Exception {
+        assertEquals(1, merge());
+
+        assertTrue(errContent.toString().contains("Usage: -s <list> [-s <list>...] merge <target>"));
+        assertFalse(Files.exists(target));
+    }
+
+    private int merge(String... sources) throws Exception {
+        return new MergeCommand(storage, List.of("merge", target.toString()), List.of(sources)).execute();
+    }
+
+    private static int quantityOf(List<GroceryItem> items, String name, String category) {
+        return items.stream()
+                .filter(item -> item.getName().equals(name) && item.getCategory().equals(category))
+                .findFirst().orElseThrow().getQuantity();
+    }
+}
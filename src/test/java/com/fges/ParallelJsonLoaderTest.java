@@ -0,0 +1,135 @@
+package com.fges.storage;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fges.model.GroceryItem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ * Test unitaire de la classe ParallelJsonLoader
+ */
+public class ParallelJsonLoaderTest {
+
+    private static final String TEST_FILE = "test_parallel_loader.json";
+    private final Path filePath = Paths.get(TEST_FILE);
+    private ForkJoinPool pool;
+    private ParallelJsonLoader loader;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        pool = new ForkJoinPool(4);
+        // morceaux minuscules pour découper chaque catégorie en plusieurs tâches
+        loader = new ParallelJsonLoader(new JsonFactory(), pool, 16);
+        Files.deleteIfExists(filePath);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        pool.shutdown();
+        Files.deleteIfExists(filePath);
+    }
+
+    private static List<String> describe(List<GroceryItem> items) {
+        List<String> described = new ArrayList<>();
+        for (GroceryItem item : items) {
+            described.add(item.getCategory() + "/" + item.getName() + "=" + item.getQuantity());
+        }
+        return described;
+    }
+
+    private void assertSameAsSequential() throws IOException {
+        List<GroceryItem> expected = new StreamingJsonLoader().load(filePath);
+        assertEquals(describe(expected), describe(loader.load(filePath)));
+    }
+
+    @Test
+    public void shouldMatchSequentialLoadOnLargeCategorizedFile() throws IOException {
+        StringBuilder json = new StringBuilder("{");
+        for (int c = 0; c < 7; c++) {
+            json.append(c == 0 ? "" : ",").append("\n  \"category-").append(c).append("\": {");
+            for (int i = 0; i < 300; i++) {
+                json.append(i == 0 ? "" : ", ").append("\"item-").append(c * 1000 + i).append("\": ").append(i);
+            }
+            json.append("}");
+        }
+        json.append("\n}\n");
+        Files.writeString(filePath, json.toString());
+
+        assertEquals(2100, loader.load(filePath).size());
+        assertSameAsSequential();
+    }
+
+    @Test
+    public void shouldGroupSmallCategoriesIntoOneChunk() throws IOException {
+        StringBuilder json = new StringBuilder("{\"@sorted\": false");
+        for (int c = 0; c < 1000; c++) {
+            json.append(", \"category-").append(c).append("\": {\"item-").append(c).append("\": ").append(c).append("}");
+        }
+        json.append(", \"big\": {");
+        for (int i = 0; i < 300; i++) {
+            json.append(i == 0 ? "" : ", ").append("\"item-").append(i).append("\": ").append(i);
+        }
+        json.append("}, \"last\": {\"Milk\": 2}}");
+        Files.writeString(filePath, json.toString());
+
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            List<ParallelJsonLoader.Chunk> chunks = new ParallelJsonLoader.BoundaryScanner(1024).scan(channel);
+            // une trentaine d'octets par catégorie : environ 35 catégories par morceau, et non un morceau chacune
+            assertTrue(chunks.size() < 60, chunks.size() + " chunks");
+        }
+        assertEquals(1301, new ParallelJsonLoader(new JsonFactory(), pool, 1024).load(filePath).size());
+        assertSameAsSequential();
+    }
+
+    @Test
+    public void shouldIgnoreSeparatorsInsideStrings() throws IOException {
+        Files.writeString(filePath, "{\"Da{i,r}y\": {\"Milk, \\\"whole\\\"\": 2, \"Yo}gurt\\\\\": 3, \"Jam\": 1},"
+                + " \"Bak:ery\": {\"Bread [fresh]\": 1}}");
+
+        assertSameAsSequential();
+    }
+
+    @Test
+    public void shouldLoadLegacyEntriesAndSkipSortedMarker() throws IOException {
+        Files.writeString(filePath, "{\"@sorted\": true, \"Salt\": 1, \"Dairy\": {\"Milk\": 2}, \"Pepper\": 3}");
+
+        List<GroceryItem> items = loader.load(filePath);
+
+        assertEquals(List.of("default/Salt=1", "Dairy/Milk=2", "default/Pepper=3"), describe(items));
+    }
+
+    @Test
+    public void shouldFallBackToSequentialLoadForArrayRoot() throws IOException {
+        Files.writeString(filePath, "[\"Milk: 2\", \"Bread\"]");
+
+        assertSameAsSequential();
+    }
+
+    @Test
+    public void shouldLoadEmptyObject() throws IOException {
+        Files.writeString(filePath, "{ }");
+
+        assertTrue(loader.load(filePath).isEmpty());
+    }
+
+    @Test
+    public void shouldReportMalformedJson() throws IOException {
+        Files.writeString(filePath, "{\"Dairy\": {\"Milk\": 2, \"Eggs\" 12}}");
+
+        assertThrows(IOException.class, () -> loader.load(filePath));
+    }
+}
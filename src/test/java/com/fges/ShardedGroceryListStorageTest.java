@@ -0,0 +1,175 @@
+package com.fges.storage;
+
+import com.fges.model.GroceryItem;
+import com.fges.model.GroceryList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ * Test unitaire de la classe ShardedGroceryListStorage
+ */
+public class ShardedGroceryListStorageTest {
+
+    private static final String TEST_DIRECTORY = "test_grocery_list_shards";
+    private final Path directory = Paths.get(TEST_DIRECTORY);
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        deleteDirectory();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        deleteDirectory();
+    }
+
+    private void deleteDirectory() throws IOException {
+        if (Files.isDirectory(directory)) {
+            try (var files = Files.list(directory)) {
+                for (Path file : files.toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    private List<String> readAll(GroceryItemCursor cursor) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (cursor) {
+            while (cursor.next()) {
+                lines.add(cursor.category() + "/" + cursor.name() + "=" + cursor.quantity());
+            }
+        }
+        return lines;
+    }
+
+    @Test
+    public void shouldLoadEmptyListWhenDirectoryDoesNotExist() throws IOException {
+        ShardedGroceryListStorage storage = new ShardedGroceryListStorage(TEST_DIRECTORY, "json", false, false);
+
+        assertTrue(storage.load().isEmpty());
+        assertFalse(Files.exists(directory));
+    }
+
+    @Test
+    public void shouldWriteOneFilePerCategory() throws IOException {
+        ShardedGroceryListStorage storage = new ShardedGroceryListStorage(TEST_DIRECTORY, "json", false, false);
+
+        storage.upsert("Milk", "Dairy", 2);
+        storage.upsert("Bread", "Bakery", 1);
+        storage.upsert("Salt", null, 1);
+
+        assertTrue(Files.exists(directory.resolve("Dairy.json")));
+        assertTrue(Files.exists(directory.resolve("Bakery.json")));
+        assertTrue(Files.exists(directory.resolve("default.json")));
+        assertEquals(List.of("Bakery", "Dairy", "default"), storage.categories());
+    }
+
+    @Test
+    public void shouldOnlyRewriteTheAffectedCategory() throws IOException {
+        ShardedGroceryListStorage storage = new ShardedGroceryListStorage(TEST_DIRECTORY, "json", false, false);
+        storage.upsert("Milk", "Dairy", 2);
+        storage.upsert("Bread", "Bakery", 1);
+
+        // un fichier illisible ailleurs ne gêne pas une modification de Dairy
+        Path bakery = directory.resolve("Bakery.json");
+        Files.writeString(bakery, "not json");
+
+        storage.upsert("Milk", "Dairy", 3);
+        assertTrue(storage.remove("Milk", "Dairy"));
+        storage.upsert("Yogurt", "Dairy", 1);
+
+        assertEquals("not json", Files.readString(bakery));
+        assertEquals(List.of("Dairy/Yogurt=1"), readAll(storage.openCursor("Dairy")));
+    }
+
+    @Test
+    public void shouldListCategoriesSortedAndItemsSorted() throws IOException {
+        ShardedGroceryListStorage storage = new ShardedGroceryListStorage(TEST_DIRECTORY, "csv", false, false,
+                new ForkJoinPool(2));
+        storage.upsert("Yogurt", "Dairy", 1);
+        storage.upsert("Milk", "Dairy", 2);
+        storage.upsert("Bread", "Bakery", 1);
+        storage.upsert("Apple", "Fruits", 5);
+
+        GroceryItemCursor cursor = storage.openCursor();
+
+        assertTrue(cursor.isSorted());
+        assertEquals(List.of("Bakery/Bread=1", "Dairy/Milk=2", "Dairy/Yogurt=1", "Fruits/Apple=5"), readAll(cursor));
+    }
+
+    @Test
+    public void shouldOpenOnlyTheRequestedCategory() throws IOException {
+        ShardedGroceryListStorage storage = new ShardedGroceryListStorage(TEST_DIRECTORY, "json", false, false);
+        storage.upsert("Milk", "Dairy", 2);
+        storage.upsert("Bread", "Bakery", 1);
+        Files.writeString(directory.resolve("Bakery.json"), "not json");
+
+        assertEquals(List.of("Dairy/Milk=2"), readAll(storage.openCursor("Dairy")));
+        assertEquals(List.of(), readAll(storage.openCursor("Fruits")));
+        assertThrows(IOException.class, () -> readAll(storage.openCursor()));
+    }
+
+    @Test
+    public void shouldDeleteCategoryFileWhenItBecomesEmpty() throws IOException {
+        ShardedGroceryListStorage storage = new ShardedGroceryListStorage(TEST_DIRECTORY, "json", false, false);
+        storage.upsert("Milk", "Dairy", 2);
+        storage.upsert("Bread", "Bakery", 1);
+
+        assertTrue(storage.remove("Milk", null));
+        assertFalse(storage.remove("Milk", null));
+
+        assertFalse(Files.exists(directory.resolve("Dairy.json")));
+        assertEquals(List.of("Bakery"), storage.categories());
+    }
+
+    @Test
+    public void shouldSaveWholeListAndDropMissingCategories() throws IOException {
+        ShardedGroceryListStorage storage = new ShardedGroceryListStorage(TEST_DIRECTORY, "bin", false, false);
+        storage.upsert("Bread", "Bakery", 1);
+
+        List<GroceryItem> groceryList = new ArrayList<>();
+        groceryList.add(new GroceryItem("Milk", 2, "Dairy"));
+        groceryList.add(new GroceryItem("Salt", 1));
+        storage.save(groceryList);
+
+        assertEquals(List.of("Dairy", "default"), storage.categories());
+        GroceryList loaded = new GroceryList(storage.load());
+        assertEquals(2, loaded.size());
+        assertEquals(2, loaded.get("Milk", "Dairy").getQuantity());
+        assertEquals(1, loaded.get("Salt", "default").getQuantity());
+    }
+
+    @Test
+    public void shouldEncodeCategoryInFileName() throws IOException {
+        ShardedGroceryListStorage storage = new ShardedGroceryListStorage(TEST_DIRECTORY, "json", false, false);
+
+        storage.upsert("Vinaigre", "Épices/Condiments", 1);
+
+        assertEquals(directory, storage.shardPath("Épices/Condiments").getParent());
+        assertEquals(List.of("Épices/Condiments"), storage.categories());
+        assertEquals(List.of("Épices/Condiments/Vinaigre=1"), readAll(storage.openCursor()));
+    }
+
+    @Test
+    public void shouldRejectSourceThatIsAFile() throws IOException {
+        Files.writeString(directory, "{}");
+        ShardedGroceryListStorage storage = new ShardedGroceryListStorage(TEST_DIRECTORY, "json", false, false);
+
+        assertThrows(NotDirectoryException.class, storage::load);
+    }
+}
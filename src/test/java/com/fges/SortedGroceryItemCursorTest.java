@@ -0,0 +1,111 @@
+package com.fges.storage;
+
+import com.fges.model.GroceryItem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ * Test unitaire de la classe SortedGroceryItemCursor
+ */
+public class SortedGroceryItemCursorTest {
+
+    private Path directory;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("sorted-cursor-test");
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    private static List<GroceryItem> unsortedItems() {
+        List<GroceryItem> items = new ArrayList<>();
+        items.add(new GroceryItem("Zucchini", 3, "Vegetables"));
+        items.add(new GroceryItem("Milk", 2, "Dairy"));
+        items.add(new GroceryItem("Carrot", 5, "Vegetables"));
+        items.add(new GroceryItem("Bread", 1, "Bakery"));
+        items.add(new GroceryItem("Milk", 4, "Dairy"));
+        items.add(new GroceryItem("Eggs", 12, "Dairy"));
+        return items;
+    }
+
+    private static List<String> drain(GroceryItemCursor cursor) throws IOException {
+        List<String> seen = new ArrayList<>();
+        try (cursor) {
+            while (cursor.next()) {
+                seen.add(cursor.category() + "/" + cursor.name() + "=" + cursor.quantity());
+            }
+        }
+        return seen;
+    }
+
+    private static final List<String> EXPECTED = List.of(
+            "Bakery/Bread=1", "Dairy/Eggs=12", "Dairy/Milk=4", "Vegetables/Carrot=5", "Vegetables/Zucchini=3");
+
+    @Test
+    public void shouldSortInMemoryWhenWithinBudget() throws IOException {
+        SortedGroceryItemCursor cursor = new SortedGroceryItemCursor(
+                GroceryItemCursor.of(unsortedItems()), 1 << 20, directory);
+
+        assertEquals(0, cursor.runCount());
+        assertEquals(EXPECTED, drain(cursor));
+    }
+
+    @Test
+    public void shouldMergeRunsWhenOverBudget() throws IOException {
+        // budget minuscule : une série par article
+        SortedGroceryItemCursor cursor = new SortedGroceryItemCursor(
+                GroceryItemCursor.of(unsortedItems()), 1, directory);
+
+        assertEquals(6, cursor.runCount());
+        // la dernière occurrence de Milk l'emporte aussi d'une série à l'autre
+        assertEquals(EXPECTED, drain(cursor));
+    }
+
+    @Test
+    public void shouldDeleteRunsOnClose() throws IOException {
+        SortedGroceryItemCursor cursor = new SortedGroceryItemCursor(
+                GroceryItemCursor.of(unsortedItems()), 200, directory);
+        assertTrue(cursor.runCount() > 1);
+
+        drain(cursor);
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    public void shouldMatchInMemorySortOnLargeInput() throws IOException {
+        List<GroceryItem> items = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            int key = (i * 7919) % 2000;
+            items.add(new GroceryItem("item-" + key, i, "category-" + key % 13));
+        }
+
+        List<String> spilled = drain(new SortedGroceryItemCursor(GroceryItemCursor.of(items), 16 * 1024, directory));
+        List<String> inMemory = drain(new SortedGroceryItemCursor(GroceryItemCursor.of(items), Long.MAX_VALUE, directory));
+
+        assertEquals(2000, inMemory.size());
+        assertEquals(inMemory, spilled);
+    }
+}
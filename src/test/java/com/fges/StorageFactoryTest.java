@@ -0,0 +1,43 @@
+package com.fges.storage;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * test unitaire de la classe StorageFactory
+ */
+public class StorageFactoryTest {
+
+    @Test
+    public void shouldCreateJsonStorage() {
+        assertTrue(StorageFactory.getStorage("json", "list.json") instanceof JsonGroceryListStorage);
+    }
+
+    @Test
+    public void shouldCreateCsvStorage() {
+        assertTrue(StorageFactory.getStorage("CSV", "list.csv") instanceof CsvGroceryListStorage);
+    }
+
+    @Test
+    public void shouldCreateJournalStorage() {
+        assertTrue(StorageFactory.getStorage("journal", "list.journal") instanceof JournalGroceryListStorage);
+    }
+
+    @Test
+    public void shouldCreateBinaryStorage() {
+        assertTrue(StorageFactory.getStorage("bin", "list.bin") instanceof BinaryGroceryListStorage);
+    }
+
+    @Test
+    public void shouldCreateShardedStorage() {
+        assertTrue(StorageFactory.getShardedStorage("json", "groceries", true, false) instanceof ShardedGroceryListStorage);
+        assertTrue(StorageFactory.getShardedStorage("CSV", "groceries", true, false) instanceof ShardedGroceryListStorage);
+        assertNull(StorageFactory.getShardedStorage("xml", "groceries", true, false));
+    }
+
+    @Test
+    public void shouldReturnNullForUnknownFormat() {
+        assertNull(StorageFactory.getStorage("xml", "list.xml"));
+    }
+}
@@ -0,0 +1,163 @@
+package com.fges.storage;
+
+import com.fges.model.GroceryItem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ * Test unitaire de la classe StreamingCsvLoader
+ */
+public class StreamingCsvLoaderTest {
+
+    private static final String TEST_FILE = "test_streaming_loader.csv";
+    private final Path filePath = Paths.get(TEST_FILE);
+    private StreamingCsvLoader loader;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        loader = new StreamingCsvLoader();
+        Files.deleteIfExists(filePath);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(filePath);
+    }
+
+    @Test
+    public void shouldLoadQuotedRowsWrittenByCsvWriter() throws IOException {
+        Files.writeString(filePath, "\"name\",\"quantity\",\"category\"\n"
+                + "\"Milk\",\"2\",\"Dairy\"\n"
+                + "\"Bread\",\"1\",\"Bakery\"\n");
+
+        List<GroceryItem> items = loader.load(filePath);
+
+        assertEquals(2, items.size());
+        assertEquals("Milk", items.get(0).getName());
+        assertEquals(2, items.get(0).getQuantity());
+        assertEquals("Dairy", items.get(0).getCategory());
+        assertEquals("Bakery", items.get(1).getCategory());
+    }
+
+    @Test
+    public void shouldUseDefaultCategoryWithTwoColumnHeader() throws IOException {
+        Files.writeString(filePath, "name,quantity\nSalt,1\nPepper,-2");
+
+        List<GroceryItem> items = loader.load(filePath);
+
+        assertEquals(2, items.size());
+        assertEquals("default", items.get(0).getCategory());
+        assertEquals(-2, items.get(1).getQuantity());
+        assertEquals("default", items.get(1).getCategory());
+    }
+
+    @Test
+    public void shouldUnescapeDoubledQuotesAndKeepCommasInQuotedFields() throws IOException {
+        Files.writeString(filePath, "name,quantity,category\r\n"
+                + "\"Tomates \"\"cerises\"\", bio\",3,Légumes\r\n"
+                + "Crème,1,\r\n");
+
+        List<GroceryItem> items = loader.load(filePath);
+
+        assertEquals(2, items.size());
+        assertEquals("Tomates \"cerises\", bio", items.get(0).getName());
+        assertEquals("Légumes", items.get(0).getCategory());
+        assertEquals("Crème", items.get(1).getName());
+        assertEquals("default", items.get(1).getCategory());
+    }
+
+    @Test
+    public void shouldSkipInvalidQuantitiesAndShortRows() throws IOException {
+        Files.writeString(filePath, "name,quantity,category\n"
+                + "Eggs,twelve,Dairy\n"
+                + "Overflow,2147483648,Dairy\n"
+                + "Lonely\n"
+                + "\n"
+                + "Butter,+4,Dairy\n");
+
+        List<GroceryItem> items = loader.load(filePath);
+
+        assertEquals(1, items.size());
+        assertEquals("Butter", items.get(0).getName());
+        assertEquals(4, items.get(0).getQuantity());
+    }
+
+    @Test
+    public void shouldReturnEmptyListForInvalidHeader() throws IOException {
+        Files.writeString(filePath, "item,count\nMilk,2\n");
+
+        assertTrue(loader.load(filePath).isEmpty());
+    }
+
+    @Test
+    public void shouldReadRecordsSpanningSeveralBufferRefills() throws IOException {
+        StringBuilder content = new StringBuilder("name,quantity,category\n");
+        for (int i = 0; i < 500; i++) {
+            content.append("\"item ").append(i).append(" with a rather long name\",")
+                    .append(i).append(",category-").append(i % 3).append('\n');
+        }
+        Files.writeString(filePath, content.toString());
+
+        List<GroceryItem> items = new StreamingCsvLoader(8).load(filePath);
+
+        assertEquals(500, items.size());
+        assertEquals("item 499 with a rather long name", items.get(499).getName());
+        assertEquals(499, items.get(499).getQuantity());
+        assertEquals("category-1", items.get(499).getCategory());
+        // les catégories répétées partagent la même instance
+        assertSame(items.get(0).getCategory(), items.get(3).getCategory());
+    }
+
+    @Test
+    public void shouldWalkRowsWithCursorAcrossBufferRefills() throws IOException {
+        StringBuilder content = new StringBuilder("name,quantity,category\n");
+        for (int i = 0; i < 200; i++) {
+            content.append("item-").append(i).append(',').append(i).append(",category-").append(i % 3).append('\n');
+        }
+        Files.writeString(filePath, content.toString());
+
+        int count = 0;
+        try (GroceryItemCursor cursor = new StreamingCsvLoader(64).open(filePath)) {
+            while (cursor.next()) {
+                assertEquals("item-" + count, cursor.name());
+                assertEquals(count, cursor.quantity());
+                assertEquals("category-" + (count % 3), cursor.category());
+                count++;
+            }
+        }
+
+        assertEquals(200, count);
+    }
+
+    @Test
+    public void shouldRewriteMatchingRowsAndCopyOthersVerbatim() throws IOException {
+        String header = "name,quantity,category\n";
+        String others = "\"Milk, \"\"whole\"\"\",2,Dairy\r\nJam,x,Pantry\nBread,1\n";
+        Files.writeString(filePath, header + others + "Jam,3,Pantry\n");
+
+        ByteArrayOutputStream kept = new ByteArrayOutputStream();
+        assertTrue(new StreamingCsvLoader(8).rewrite(filePath, kept, "Jam", "Pantry", 2, true));
+        assertEquals(header + others + "\"Jam\",\"5\",\"Pantry\"\n", kept.toString(StandardCharsets.UTF_8));
+
+        ByteArrayOutputStream removed = new ByteArrayOutputStream();
+        assertTrue(new StreamingCsvLoader(8).rewrite(filePath, removed, "Bread", null, 0, false));
+        assertFalse(removed.toString(StandardCharsets.UTF_8).contains("Bread"));
+
+        // ligne à quantité invalide ou autre catégorie : rien ne correspond, copie conforme
+        ByteArrayOutputStream unchanged = new ByteArrayOutputStream();
+        assertFalse(new StreamingCsvLoader(8).rewrite(filePath, unchanged, "Jam", "Dairy", 1, true));
+        assertArrayEquals(Files.readAllBytes(filePath), unchanged.toByteArray());
+    }
+}
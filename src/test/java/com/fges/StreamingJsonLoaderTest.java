@@ -0,0 +1,152 @@
+package com.fges.storage;
+
+import com.fges.model.GroceryItem;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+/**
+ * Test unitaire de la classe StreamingJsonLoader
+ */
+public class StreamingJsonLoaderTest {
+
+    private static final String TEST_FILE = "test_streaming_loader.json";
+    private final Path filePath = Paths.get(TEST_FILE);
+    private StreamingJsonLoader loader;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        loader = new StreamingJsonLoader();
+        Files.deleteIfExists(filePath);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(filePath);
+    }
+
+    @Test
+    public void shouldLoadCategorizedFormat() throws IOException {
+        Files.writeString(filePath, "{\"Dairy\":{\"Milk\":2,\"Yogurt\":3},\"Bakery\":{\"Bread\":1}}");
+
+        List<GroceryItem> items = loader.load(filePath);
+
+        assertEquals(3, items.size());
+        assertEquals("Milk", items.get(0).getName());
+        assertEquals(2, items.get(0).getQuantity());
+        assertEquals("Dairy", items.get(0).getCategory());
+        assertEquals("Bread", items.get(2).getName());
+        assertEquals("Bakery", items.get(2).getCategory());
+    }
+
+    @Test
+    public void shouldLoadLegacyMapWithDefaultCategory() throws IOException {
+        Files.writeString(filePath, "{\"Salt\":1,\"Pepper\":2}");
+
+        List<GroceryItem> items = loader.load(filePath);
+
+        assertEquals(2, items.size());
+        assertEquals("Pepper", items.get(1).getName());
+        assertEquals(2, items.get(1).getQuantity());
+        assertEquals("default", items.get(1).getCategory());
+    }
+
+    @Test
+    public void shouldLoadLegacyItemArray() throws IOException {
+        Files.writeString(filePath, "[{\"name\":\"Salt\",\"quantity\":1},"
+                + "{\"name\":\"Apple\",\"quantity\":4,\"category\":\"Fruits\"}]");
+
+        List<GroceryItem> items = loader.load(filePath);
+
+        assertEquals(2, items.size());
+        assertEquals("Salt", items.get(0).getName());
+        assertEquals("default", items.get(0).getCategory());
+        assertEquals(4, items.get(1).getQuantity());
+        assertEquals("Fruits", items.get(1).getCategory());
+    }
+
+    @Test
+    public void shouldLoadLegacyStringArray() throws IOException {
+        Files.writeString(filePath, "[\"Milk: 2\", \"Bread\", \"Eggs: twelve\"]");
+
+        List<GroceryItem> items = loader.load(filePath);
+
+        // "Eggs: twelve" est ignoré avec un avertissement
+        assertEquals(2, items.size());
+        assertEquals("Milk", items.get(0).getName());
+        assertEquals(2, items.get(0).getQuantity());
+        assertEquals("Bread", items.get(1).getName());
+        assertEquals(1, items.get(1).getQuantity());
+    }
+
+    @Test
+    public void shouldLoadEmptyObjectAsEmptyList() throws IOException {
+        Files.writeString(filePath, "{}");
+
+        assertTrue(loader.load(filePath).isEmpty());
+    }
+
+    @Test
+    public void shouldRejectScalarRoot() throws IOException {
+        Files.writeString(filePath, "42");
+
+        assertThrows(IOException.class, () -> loader.load(filePath));
+    }
+
+    @Test
+    public void shouldRejectMalformedJson() throws IOException {
+        Files.writeString(filePath, "{\"Dairy\": {\"Milk\": 2}");
+
+        assertThrows(IOException.class, () -> loader.load(filePath));
+    }
+
+    @Test
+    public void shouldWalkMixedObjectWithCursor() throws IOException {
+        Files.writeString(filePath, "{\"Dairy\":{\"Milk\":2},\"Salt\":1,\"Empty\":{},\"Bakery\":{\"Bread\":1}}");
+
+        List<String> seen = new ArrayList<>();
+        try (GroceryItemCursor cursor = loader.open(filePath)) {
+            while (cursor.next()) {
+                seen.add(cursor.category() + "/" + cursor.name() + "=" + cursor.quantity());
+            }
+        }
+
+        assertEquals(List.of("Dairy/Milk=2", "default/Salt=1", "Bakery/Bread=1"), seen);
+    }
+
+    @Test
+    public void shouldDetectSortedMarker() throws IOException {
+        Files.writeString(filePath, "{\"@sorted\":true,\"Bakery\":{\"Bread\":1},\"Dairy\":{\"Milk\":2}}");
+
+        List<String> seen = new ArrayList<>();
+        try (GroceryItemCursor cursor = loader.open(filePath)) {
+            assertTrue(cursor.isSorted());
+            while (cursor.next()) {
+                seen.add(cursor.category() + "/" + cursor.name());
+            }
+        }
+
+        assertEquals(List.of("Bakery/Bread", "Dairy/Milk"), seen);
+    }
+
+    @Test
+    public void shouldNotReportSortedWithoutMarker() throws IOException {
+        Files.writeString(filePath, "{\"Dairy\":{\"Milk\":2}}");
+
+        try (GroceryItemCursor cursor = loader.open(filePath)) {
+            assertFalse(cursor.isSorted());
+            assertTrue(cursor.next());
+            assertEquals("Milk", cursor.name());
+        }
+    }
+}
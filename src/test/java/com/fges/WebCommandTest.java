@@ -7,6 +7,7 @@ import java.util.Arrays;
 
 import com.fges.command.WebCommand;
 import com.fges.storage.GroceryListStorage;
+import com.fges.util.CliParser;
 import com.fges.web.GroceryShopAdapter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -90,4 +91,24 @@ public class WebCommandTest {
 
         assertEquals(1, result);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testExecuteWithVirtualThreadsAndImmediateWrites() throws Exception {
+        String[] commandLine = {"-s", "groceries.json", "--virtual-threads", "--flush-threshold", "1", "web", "8080"};
+        webCommand = new WebCommand(mockStorage, Arrays.asList("web", "8080"), new CliParser().parse(commandLine));
+
+        int result = webCommand.execute();
+
+        assertEquals(1, result);
+    }
+
+    @Test
+    public void testExecuteWithNegativeFlushInterval() throws Exception {
+        String[] commandLine = {"-s", "groceries.json", "--flush-interval", "-1", "web", "8080"};
+        webCommand = new WebCommand(mockStorage, Arrays.asList("web", "8080"), new CliParser().parse(commandLine));
+
+        int result = webCommand.execute();
+
+        assertEquals(1, result);
+    }
+}